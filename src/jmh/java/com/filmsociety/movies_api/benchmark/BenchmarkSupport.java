@@ -0,0 +1,54 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.filmsociety.movies_api.MoviesApiApplication;
+import com.filmsociety.movies_api.bootstrap.CatalogGenerator;
+
+// Boots the application for the benchmark states in this package (see CatalogState)
+final class BenchmarkSupport {
+
+    static final List<String> WORDS = CatalogGenerator.titleWords();
+
+    private BenchmarkSupport() {}
+
+    // Boots the application without a web server against a fresh SQLite file, which DataLoader
+    // fills with a CatalogGenerator catalog of the given size (seed 42, actors a tenth of the movies).
+    // Properties are passed as command-line arguments so they win over application.properties.
+    static ConfigurableApplicationContext start(Path database, int movies, String... extraProperties) {
+        return run(WebApplicationType.NONE, database, movies, extraProperties);
+    }
+
+    // Same with the embedded web server on a random port (see port())
+    static ConfigurableApplicationContext startServer(Path database, int movies, String... extraProperties) {
+        return run(WebApplicationType.SERVLET, database, movies, extraProperties);
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, Path database, int movies,
+                                                      String... extraProperties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:sqlite:" + database.toAbsolutePath(),
+                "--management.server.port=0",
+                "--server.port=0",
+                "--app.generator.enabled=true",
+                "--app.generator.movies=" + movies,
+                "--app.generator.actors=" + Math.max(1, movies / 10),
+                "--app.generator.seed=42"));
+        for (String property : extraProperties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(MoviesApiApplication.class)
+                .web(type)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,90 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.filmsociety.movies_api.service.CatalogStatsService;
+
+// One application context per fork, over a synthetic catalog in a temp SQLite file.
+// Size it with -p movies=N (mvn -P jmh ... -Djmh.movies=N); actors are a tenth of that.
+// DataLoader generates the catalog before ApplicationReadyEvent, so the stats, graph, filter index
+// and snapshot are all built over it by the time a benchmark runs.
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    @Param("10000")
+    public int movies;
+
+    public ConfigurableApplicationContext context;
+
+    private Path database;
+    private SplittableRandom random;
+    // Ids run from 1 to these: the generator writes into an empty database
+    private long movieIds;
+    private long actorIds;
+    private long genreIds;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        database = Files.createTempFile("jmh-catalog", ".db");
+        context = boot(database);
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        movieIds = jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM movies", Long.class);
+        actorIds = jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM actors", Long.class);
+        genreIds = jdbc.queryForObject("SELECT coalesce(max(id), 0) FROM genres", Long.class);
+        long counted = bean(CatalogStatsService.class).getStats().movies();
+        if (counted != movies || movieIds != movies) {
+            throw new IllegalStateException("Expected a catalog of " + movies + " movies, found " + movieIds
+                    + " (stats count " + counted + ")");
+        }
+        random = new SplittableRandom(7);
+    }
+
+    // Subclasses boot with a profile or the web server
+    protected ConfigurableApplicationContext boot(Path database) {
+        return BenchmarkSupport.start(database, movies, "logging.level.root=WARN");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        context.close();
+        for (String suffix : List.of("", "-wal", "-shm")) {
+            Files.deleteIfExists(Path.of(database + suffix));
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomMovieId() {
+        return random.nextLong(1, movieIds + 1);
+    }
+
+    public long randomActorId() {
+        return random.nextLong(1, actorIds + 1);
+    }
+
+    public long randomGenreId() {
+        return random.nextLong(1, genreIds + 1);
+    }
+
+    public int randomYear() {
+        return random.nextInt(1920, 2026);
+    }
+
+    public String randomWord() {
+        return BenchmarkSupport.WORDS.get(random.nextInt(BenchmarkSupport.WORDS.size()));
+    }
+}
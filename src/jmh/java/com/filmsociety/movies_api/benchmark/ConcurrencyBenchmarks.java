@@ -0,0 +1,109 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.service.MovieFilter;
+import com.filmsociety.movies_api.service.MovieService;
+import com.filmsociety.movies_api.service.MovieSort;
+import com.filmsociety.movies_api.service.Projection;
+
+// Read throughput with and without concurrent writers, in each storage mode (-p profile=default|wal).
+// Readers page through filtered listings; writers update movie durations.
+// readsOnly runs 8 reader threads; readsAndWrites runs 8 readers next to 4 writers.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcurrencyBenchmarks {
+
+    private static final Projection FULL = Projection.movies(null, null);
+
+    @State(Scope.Benchmark)
+    public static class StorageMode extends CatalogState {
+
+        @Param({"default", "wal"})
+        public String profile;
+
+        @Override
+        protected ConfigurableApplicationContext boot(Path database) {
+            return BenchmarkSupport.start(database, movies, "logging.level.root=WARN",
+                    "spring.profiles.active=" + (profile.equals("default") ? "" : profile));
+        }
+    }
+
+    // Writes that failed (SQLITE_BUSY and friends), reported next to the throughput
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WriteFailures {
+
+        public long failedWrites;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            failedWrites = 0;
+        }
+    }
+
+    private MovieService movieService;
+    private long movies;
+
+    @Setup
+    public void setUp(StorageMode catalog) {
+        movieService = catalog.bean(MovieService.class);
+        movies = catalog.movies;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Page<MovieDto> readsOnly() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readsAndWrites")
+    @GroupThreads(8)
+    public Page<MovieDto> reader() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readsAndWrites")
+    @GroupThreads(4)
+    public Movie writer(WriteFailures failures) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Movie details = new Movie();
+        details.setDuration(random.nextInt(70, 200));
+        try {
+            return movieService.updateMovie(random.nextLong(1, movies + 1), details);
+        } catch (RuntimeException e) {
+            failures.failedWrites++;
+            return null;
+        }
+    }
+
+    private Page<MovieDto> read() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int year = random.nextInt(1920, 2026);
+        return movieService.findMovies(new MovieFilter(null, null, null, year, year + 5, null, null),
+                MovieSort.BY_ID, random.nextInt(0, 5), 20, FULL);
+    }
+}
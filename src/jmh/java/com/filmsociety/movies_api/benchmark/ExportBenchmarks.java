@@ -0,0 +1,28 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import com.filmsociety.movies_api.service.MovieExportService;
+
+// Full CSV export of the catalog, written to a discarding stream
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportBenchmarks {
+
+    @Benchmark
+    public void exportCsv(CatalogState catalog) throws IOException {
+        catalog.bean(MovieExportService.class).writeMoviesCsv(OutputStream.nullOutputStream(), false);
+    }
+
+    @Benchmark
+    public void exportCsvGzip(CatalogState catalog) throws IOException {
+        catalog.bean(MovieExportService.class).writeMoviesCsv(OutputStream.nullOutputStream(), true);
+    }
+}
@@ -0,0 +1,89 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.filmsociety.movies_api.dto.MovieSummary;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.repository.MovieRepository;
+import com.filmsociety.movies_api.repository.MovieSpecifications;
+import com.filmsociety.movies_api.service.MovieFilter;
+import com.filmsociety.movies_api.service.MovieFilterIndex;
+import com.filmsociety.movies_api.service.MovieSort;
+
+// Choosing a listing page and counting its matches: the bitmap index against the SQL query and
+// count it replaces, on the same filters and sorts. Loading the page's movies costs both the same.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterIndexBenchmarks {
+
+    private static final MovieSort YEAR_DESC = MovieSort.parse("releaseYear,desc");
+
+    private MovieFilterIndex filterIndex;
+    private MovieRepository movieRepository;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        filterIndex = catalog.bean(MovieFilterIndex.class);
+        movieRepository = catalog.bean(MovieRepository.class);
+    }
+
+    @Benchmark
+    public MovieFilterIndex.IdPage genreAndYearRangeIndex(CatalogState catalog) {
+        return filterIndex.find(genreAndYears(catalog), MovieSort.BY_ID, page(0, MovieSort.BY_ID));
+    }
+
+    @Benchmark
+    public Page<MovieSummary> genreAndYearRangeSql(CatalogState catalog) {
+        MovieFilter filter = genreAndYears(catalog);
+        return movieRepository.findSummaries(Specification.allOf(
+                MovieSpecifications.hasGenre(filter.genre()),
+                MovieSpecifications.releasedFrom(filter.yearFrom()),
+                MovieSpecifications.releasedUntil(filter.yearTo())), page(0, MovieSort.BY_ID));
+    }
+
+    @Benchmark
+    public MovieFilterIndex.IdPage actorByYearDescIndex(CatalogState catalog) {
+        return filterIndex.find(actor(catalog), YEAR_DESC, page(0, YEAR_DESC));
+    }
+
+    @Benchmark
+    public Page<MovieSummary> actorByYearDescSql(CatalogState catalog) {
+        return movieRepository.findSummaries(MovieSpecifications.hasActor(actor(catalog).actor()), page(0, YEAR_DESC));
+    }
+
+    @Benchmark
+    public MovieFilterIndex.IdPage deepPageByYearDescIndex(CatalogState catalog) {
+        return filterIndex.find(MovieFilter.NONE, YEAR_DESC, page(catalog.movies / 40, YEAR_DESC));
+    }
+
+    @Benchmark
+    public Page<MovieSummary> deepPageByYearDescSql(CatalogState catalog) {
+        return movieRepository.findSummaries(Specification.<Movie>allOf(), page(catalog.movies / 40, YEAR_DESC));
+    }
+
+    private static MovieFilter genreAndYears(CatalogState catalog) {
+        int year = catalog.randomYear();
+        return new MovieFilter(catalog.randomGenreId(), null, null, year, year + 9, null, null);
+    }
+
+    private static MovieFilter actor(CatalogState catalog) {
+        return new MovieFilter(null, catalog.randomActorId(), null, null, null, null, null);
+    }
+
+    private static Pageable page(int page, MovieSort sort) {
+        return PageRequest.of(page, 20, sort.toSort());
+    }
+}
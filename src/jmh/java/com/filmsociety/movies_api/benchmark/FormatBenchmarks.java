@@ -0,0 +1,113 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.filmsociety.movies_api.config.ResponseFormatConfig;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.service.MovieFilter;
+import com.filmsociety.movies_api.service.MovieService;
+import com.filmsociety.movies_api.service.MovieSort;
+import com.filmsociety.movies_api.service.Projection;
+
+// A page of 1,000 movies with genres and actors, per response format: encoded by the application's
+// converter, and decoded by a client into a typed page. Payload sizes, plain and gzipped (as sent
+// with Accept-Encoding: gzip), are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatBenchmarks {
+
+    // What a client reads a page into; the remaining page metadata is ignored
+    public record MoviePage(List<MovieDto> content, long totalElements) {}
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    public String format;
+
+    private HttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private ObjectReader reader;
+    private Page<MovieDto> page;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp(CatalogState catalog) throws IOException {
+        page = catalog.bean(MovieService.class)
+                .findMovies(MovieFilter.NONE, MovieSort.BY_ID, 0, 1000, Projection.movies(null, "genres,actors"));
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter(catalog.bean(ObjectMapper.class)));
+        converters.addAll(ResponseFormatConfig.binaryConverters(() -> catalog.bean(Jackson2ObjectMapperBuilder.class)));
+        int index = List.of("json", "smile", "cbor", "protobuf").indexOf(format);
+        converter = (HttpMessageConverter<Object>) converters.get(index);
+        mediaType = converter.getSupportedMediaTypes().get(0);
+        reader = reader(catalog.bean(Jackson2ObjectMapperBuilder.class));
+
+        encoded = encode();
+        System.out.printf("%n%s: %,d bytes, %,d gzipped%n", format, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(page, mediaType, message);
+        return message.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public MoviePage decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private ObjectReader reader(Jackson2ObjectMapperBuilder builder) throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            case "protobuf" -> new ProtobufFactory();
+            default -> new JsonFactory();
+        };
+        ObjectReader reader = builder.factory(factory).build().readerFor(MoviePage.class);
+        if (!format.equals("protobuf")) {
+            return reader;
+        }
+        try (InputStream proto = new ClassPathResource("proto/catalog.proto").getInputStream()) {
+            return reader.with(ProtobufSchemaLoader.std.loadNative(proto, true).forType("MoviePage"));
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
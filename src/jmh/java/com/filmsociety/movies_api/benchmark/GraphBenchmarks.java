@@ -0,0 +1,51 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.filmsociety.movies_api.dto.ActorPath;
+import com.filmsociety.movies_api.dto.CoStar;
+import com.filmsociety.movies_api.dto.SimilarMovie;
+import com.filmsociety.movies_api.exception.ResourceNotFoundException;
+import com.filmsociety.movies_api.service.CatalogGraphService;
+
+// In-memory graph queries over the seeded catalog
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GraphBenchmarks {
+
+    private CatalogGraphService graphService;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        graphService = catalog.bean(CatalogGraphService.class);
+    }
+
+    @Benchmark
+    public List<SimilarMovie> similarMovies(CatalogState catalog) {
+        return graphService.similarMovies(catalog.randomMovieId(), 10);
+    }
+
+    @Benchmark
+    public List<CoStar> coStars(CatalogState catalog) {
+        return graphService.coStars(catalog.randomActorId(), 20);
+    }
+
+    @Benchmark
+    public ActorPath actorPath(CatalogState catalog) {
+        try {
+            return graphService.path(catalog.randomActorId(), catalog.randomActorId(), 6);
+        } catch (ResourceNotFoundException e) {
+            return null;  // not connected
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// HTTP load against the running application, on Tomcat's platform-thread pool or on virtual threads
+// (-p virtual=false|true). 200 client threads (-t N for more) call the uncached listing and search
+// endpoints while background exporters (-p exporters=N) stream the full CSV export, each holding
+// its connection for a long time. A failed request fails the run rather than being timed.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LoadBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Server extends CatalogState {
+
+        @Param({"false", "true"})
+        public boolean virtual;
+
+        @Param("4")
+        public int exporters;
+
+        @Override
+        protected ConfigurableApplicationContext boot(Path database) {
+            return BenchmarkSupport.startServer(database, movies, "logging.level.root=WARN",
+                    "spring.threads.virtual.enabled=" + virtual);
+        }
+    }
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private String base;
+    private HttpClient http;
+    private ExecutorService exportThreads;
+
+    @Setup(Level.Trial)
+    public void start(Server server) {
+        base = "http://localhost:" + BenchmarkSupport.port(server.context);
+        // Clients use platform threads in both modes, so they never compete with the
+        // server for virtual-thread carriers and only the server side differs
+        http = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+        running.set(true);
+        exportThreads = Executors.newFixedThreadPool(Math.max(1, server.exporters));
+        for (int i = 0; i < server.exporters; i++) {
+            exportThreads.submit(() -> {
+                while (running.get()) {
+                    send("/api/movies/export/csv");
+                }
+                return null;
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        running.set(false);
+        exportThreads.shutdown();
+        exportThreads.awaitTermination(1, TimeUnit.MINUTES);
+        http.close();
+    }
+
+    // Three listings for every title search
+    @Benchmark
+    @Threads(200)
+    public int request() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int year = random.nextInt(1920, 2026);
+        String path = random.nextInt(4) == 0
+                ? "/api/movies/search?title=" + BenchmarkSupport.WORDS.get(random.nextInt(BenchmarkSupport.WORDS.size()))
+                : "/api/movies?yearFrom=" + year + "&yearTo=" + (year + 3) + "&size=20";
+        int status = send(path);
+        if (status != 200) {
+            throw new IllegalStateException("GET " + path + " answered " + status);
+        }
+        return status;
+    }
+
+    private int send(String path) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(60)).build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.Versioned;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.service.MovieFilter;
+import com.filmsociety.movies_api.service.MovieService;
+import com.filmsociety.movies_api.service.MovieSort;
+import com.filmsociety.movies_api.service.Projection;
+
+import org.springframework.data.domain.Page;
+
+// Service-level read paths, each through its real transaction and queries
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MovieServiceBenchmarks {
+
+    private static final Projection FULL = Projection.movies(null, null);
+    private static final Projection TITLES = Projection.movies("id,title", null);
+
+    private MovieService movieService;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        movieService = catalog.bean(MovieService.class);
+    }
+
+    @Benchmark
+    public Movie getMovieById(CatalogState catalog) {
+        return movieService.getMovieById(catalog.randomMovieId());
+    }
+
+    @Benchmark
+    public Versioned<MovieDto> getMovieDtoCached(CatalogState catalog) {
+        return movieService.getMovieDto(catalog.randomMovieId() % 100 + 1);
+    }
+
+    @Benchmark
+    public Page<MovieDto> findMoviesFirstPage() {
+        return movieService.findMovies(MovieFilter.NONE, MovieSort.BY_ID, 0, 20, FULL);
+    }
+
+    // Same page, fields only: one narrow SELECT (plus the count)
+    @Benchmark
+    public Page<MovieDto> findMoviesFirstPageTitlesOnly() {
+        return movieService.findMovies(MovieFilter.NONE, MovieSort.BY_ID, 0, 20, TITLES);
+    }
+
+    @Benchmark
+    public Page<MovieDto> findMoviesByYearRange(CatalogState catalog) {
+        int year = catalog.randomYear();
+        return movieService.findMovies(new MovieFilter(null, null, null, year, year + 4, null, null),
+                MovieSort.BY_ID, 0, 20, FULL);
+    }
+
+    @Benchmark
+    public Page<MovieDto> findMoviesByActorSortedByTitle(CatalogState catalog) {
+        return movieService.findMovies(new MovieFilter(null, catalog.randomActorId(), null, null, null, null, null),
+                MovieSort.parse("title"), 0, 20, FULL);
+    }
+
+    @Benchmark
+    public Page<MovieDto> findMoviesDeepPage(CatalogState catalog) {
+        return movieService.findMovies(MovieFilter.NONE, MovieSort.parse("releaseYear,desc"),
+                catalog.movies / 40, 20, FULL);
+    }
+
+    @Benchmark
+    public Page<MovieDto> searchMoviesByTitle(CatalogState catalog) {
+        return movieService.searchMoviesByTitle(catalog.randomWord(), 0, 20, FULL);
+    }
+}
@@ -0,0 +1,90 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.filmsociety.movies_api.dto.ActorDto;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.service.ActorService;
+import com.filmsociety.movies_api.service.FullTextQuery;
+import com.filmsociety.movies_api.service.MovieService;
+import com.filmsociety.movies_api.service.Projection;
+
+// The FTS5 search path against the LIKE '%term%' scan it replaced, over the same rotating terms
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmarks {
+
+    // Single words, prefixes and multi-word queries
+    private static final List<String> TERMS = List.of(
+            "dark", "knig", "golden city", "lost", "mid", "shadow storm", "ret", "iron king", "sec", "zero hour");
+    private static final Projection MOVIES = Projection.movies(null, null);
+    private static final Projection ACTORS = Projection.actors(null, null);
+
+    private JdbcTemplate jdbc;
+    private MovieService movieService;
+    private ActorService actorService;
+    private int next;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        jdbc = catalog.bean(JdbcTemplate.class);
+        movieService = catalog.bean(MovieService.class);
+        actorService = catalog.bean(ActorService.class);
+    }
+
+    // What findByTitleContainingIgnoreCase compiled to: a full scan returning every match
+    @Benchmark
+    public List<Long> moviesLikeAllMatches() {
+        return jdbc.queryForList("SELECT id FROM movies WHERE lower(title) LIKE ?", Long.class, "%" + term() + "%");
+    }
+
+    @Benchmark
+    public List<Long> moviesLikeFirst20() {
+        return jdbc.queryForList("SELECT id FROM movies WHERE lower(title) LIKE ? LIMIT 20", Long.class,
+                "%" + term() + "%");
+    }
+
+    @Benchmark
+    public List<Long> moviesFtsBest20Ids() {
+        return jdbc.queryForList("SELECT rowid FROM movies_fts WHERE movies_fts MATCH ? ORDER BY rank LIMIT 20",
+                Long.class, FullTextQuery.prefixMatch(term()));
+    }
+
+    // Ranked page with relations, as GET /api/movies/search returns it
+    @Benchmark
+    public Page<MovieDto> moviesFtsFirstPage() {
+        return movieService.searchMoviesByTitle(term(), 0, 20, MOVIES);
+    }
+
+    @Benchmark
+    public Page<MovieDto> moviesFtsPage50() {
+        return movieService.searchMoviesByTitle(term(), 50, 20, MOVIES);
+    }
+
+    @Benchmark
+    public List<Long> actorsLikeAllMatches() {
+        return jdbc.queryForList("SELECT id FROM actors WHERE lower(name) LIKE ?", Long.class, "%smi%");
+    }
+
+    @Benchmark
+    public List<ActorDto> actorsFtsFirstPage() {
+        return actorService.searchActorsByName("smi", 0, 20, ACTORS);
+    }
+
+    private String term() {
+        next = (next + 1) % TERMS.size();
+        return TERMS.get(next);
+    }
+}
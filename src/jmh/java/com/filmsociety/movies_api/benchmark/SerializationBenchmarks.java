@@ -0,0 +1,62 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.repository.MovieRepository;
+import com.filmsociety.movies_api.service.MovieFilter;
+import com.filmsociety.movies_api.service.MovieService;
+import com.filmsociety.movies_api.service.MovieSort;
+import com.filmsociety.movies_api.service.Projection;
+
+// Jackson cost alone: movies with their genres and actors already loaded, written with the
+// application's ObjectMapper (the one the controllers use)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmarks {
+
+    private ObjectMapper objectMapper;
+    private Movie movie;
+    private List<Movie> page;
+    private List<MovieDto> dtoPage;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        objectMapper = catalog.bean(ObjectMapper.class);
+        MovieService movieService = catalog.bean(MovieService.class);
+        dtoPage = movieService.findMovies(MovieFilter.NONE, MovieSort.BY_ID, 1, 100, Projection.movies(null, null)).getContent();
+        // The same movies as entities, relations initialised inside one transaction
+        List<Long> ids = dtoPage.stream().map(MovieDto::id).toList();
+        page = catalog.bean(TransactionTemplate.class).execute(status -> catalog.bean(MovieRepository.class).findAllWithRelations(ids));
+        movie = page.get(0);
+    }
+
+    @Benchmark
+    public byte[] movieEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public byte[] pageOf100Entities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageOf100Dtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtoPage);
+    }
+}
@@ -0,0 +1,32 @@
+package com.filmsociety.movies_api.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.filmsociety.movies_api.service.MovieViewService;
+
+// What counting a view adds to GET /api/movies/{id}
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ViewCounterBenchmarks {
+
+    private MovieViewService viewService;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        viewService = catalog.bean(MovieViewService.class);
+    }
+
+    @Benchmark
+    public void countView(CatalogState catalog) {
+        viewService.viewed(catalog.randomMovieId());
+    }
+}
@@ -0,0 +1,244 @@
+package com.filmsociety.movies_api.bootstrap;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.filmsociety.movies_api.repository.CatalogBulkWriter;
+
+// Synthetic catalog for scale testing: N movies and M actors written straight into the schema
+// through CatalogBulkWriter. The same settings and seed always produce the same catalog.
+// The shape follows real catalogs rather than uniform noise:
+// - cast sizes are log-normal around average-cast (most films have a handful of credited actors, a few have dozens)
+// - actor popularity is Zipf-like, so a small set of actors appears in hundreds of movies and most in a few
+// - 1-3 genres per movie, with common genres (Drama, Comedy) far more frequent than rare ones
+// - release years skew recent
+@Component
+public class CatalogGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    static final String[] GENRES = {
+            "Drama", "Comedy", "Action", "Thriller", "Romance", "Crime", "Horror", "Adventure", "Sci-Fi", "Fantasy",
+            "Mystery", "Animation", "Family", "Documentary", "Biography", "History", "War", "Music", "Sport", "Western"
+    };
+
+    static final String[] WORDS = {
+            "dark", "knight", "city", "love", "night", "day", "star", "war", "road", "river",
+            "last", "first", "lost", "secret", "silent", "golden", "broken", "wild", "cold", "blue",
+            "red", "black", "white", "green", "iron", "stone", "glass", "shadow", "storm", "fire",
+            "ice", "ghost", "king", "queen", "prince", "empire", "kingdom", "island", "ocean", "desert",
+            "mountain", "forest", "garden", "house", "castle", "tower", "bridge", "train", "ship", "planet",
+            "moon", "sun", "sky", "heart", "soul", "mind", "dream", "memory", "promise", "journey",
+            "return", "escape", "rise", "fall", "edge", "game", "code", "signal", "mission", "protocol",
+            "legend", "story", "tale", "song", "dance", "winter", "summer", "spring", "autumn", "midnight",
+            "morning", "evening", "zero", "hour", "minute", "second", "element", "matrix", "origin", "legacy"
+    };
+
+    static final String[] FIRST_NAMES = {
+            "Anna", "Ben", "Clara", "David", "Elena", "Frank", "Grace", "Henry", "Iris", "Jack",
+            "Kate", "Leo", "Maria", "Nick", "Olga", "Paul", "Rosa", "Sam", "Tina", "Victor",
+            "Alice", "Bruno", "Chloe", "Daniel", "Emma", "Felix", "Hanna", "Ivan", "Julia", "Karl",
+            "Lena", "Marco", "Nina", "Oscar", "Petra", "Quinn", "Ruth", "Simon", "Ursula", "Yuki"
+    };
+
+    static final String[] LAST_NAMES = {
+            "Adams", "Brown", "Clark", "Davis", "Evans", "Fisher", "Garcia", "Hill", "Ivanov", "Jones",
+            "King", "Lopez", "Miller", "Novak", "Owens", "Parker", "Reed", "Smith", "Turner", "Walker",
+            "Bauer", "Costa", "Dubois", "Eriksen", "Ferrari", "Gomez", "Hansen", "Ito", "Kowalski", "Larsen",
+            "Moreau", "Nakamura", "Olsen", "Petrov", "Rossi", "Schmidt", "Tanaka", "Weber", "Yilmaz", "Zhang"
+    };
+
+    // Popularity of rank r is 1 / (r + offset)^skew. The offset flattens the head, so the
+    // busiest actor is in a few percent of movies rather than a third of them.
+    private static final double ACTOR_SKEW = 1.0;
+    private static final double ACTOR_OFFSET = 100;
+    private static final double GENRE_SKEW = 1.0;
+    private static final double GENRE_OFFSET = 1;
+    // Spread of the log-normal cast size distribution
+    private static final double CAST_SIGMA = 0.6;
+    private static final int FIRST_YEAR = 1920;
+    private static final int LAST_YEAR = 2025;
+    private static final int PROGRESS_EVERY = 100_000;
+
+    public record Settings(int movies, int actors, int genres, int averageCast, long seed) {
+
+        public Settings {
+            if (movies < 0 || actors < 1 || genres < 1 || averageCast < 1) {
+                throw new IllegalArgumentException("Generator needs movies >= 0 and at least one actor, genre and cast member");
+            }
+        }
+    }
+
+    public record Result(int genres, int actors, int movies, long genreLinks, long actorLinks) {}
+
+    private final CatalogBulkWriter bulkWriter;
+    private final Settings defaults;
+
+    public CatalogGenerator(CatalogBulkWriter bulkWriter,
+                            @Value("${app.generator.movies:100000}") int movies,
+                            @Value("${app.generator.actors:20000}") int actors,
+                            @Value("${app.generator.genres:20}") int genres,
+                            @Value("${app.generator.average-cast:8}") int averageCast,
+                            @Value("${app.generator.seed:42}") long seed) {
+        this.bulkWriter = bulkWriter;
+        this.defaults = new Settings(movies, actors, genres, averageCast, seed);
+    }
+
+    // The words titles are made of, for workloads that search the generated catalog
+    public static List<String> titleWords() {
+        return List.of(WORDS);
+    }
+
+    // Generates the catalog described by the app.generator.* properties
+    public Result generate() {
+        return generate(defaults);
+    }
+
+    public Result generate(Settings settings) {
+        log.info("Generating synthetic catalog: {}", settings);
+        long start = System.nanoTime();
+        Result result = bulkWriter.load(batch -> new Run(settings).write(batch));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("...Generated {} movies, {} actors, {} genres and {} join rows in {} ms",
+                result.movies(), result.actors(), result.genres(), result.genreLinks() + result.actorLinks(), millis);
+        return result;
+    }
+
+    // One generation pass; all randomness comes from a single seeded stream, in a fixed order
+    private static final class Run {
+
+        private final Settings settings;
+        private final SplittableRandom random;
+        private final double[] actorWeights;
+        private final double[] genreWeights;
+
+        Run(Settings settings) {
+            this.settings = settings;
+            this.random = new SplittableRandom(settings.seed());
+            this.actorWeights = cumulativeZipf(settings.actors(), ACTOR_SKEW, ACTOR_OFFSET);
+            this.genreWeights = cumulativeZipf(settings.genres(), GENRE_SKEW, GENRE_OFFSET);
+        }
+
+        Result write(CatalogBulkWriter.Batch batch) throws SQLException {
+            long[] genreIds = new long[settings.genres()];
+            for (int i = 0; i < genreIds.length; i++) {
+                genreIds[i] = batch.addGenre(genreName(i));
+            }
+
+            long[] actorIds = new long[settings.actors()];
+            for (int i = 0; i < actorIds.length; i++) {
+                actorIds[i] = batch.addActor(actorName(i), birthDate());
+            }
+
+            long genreLinks = 0;
+            long actorLinks = 0;
+            int maxCast = Math.min(settings.actors(), settings.averageCast() * 10);
+            int[] cast = new int[maxCast];
+            int[] genres = new int[3];
+            for (int i = 0; i < settings.movies(); i++) {
+                long movieId = batch.addMovie(title(), releaseYear(), duration());
+
+                int genreCount = Math.min(settings.genres(), 1 + random.nextInt(3));
+                for (int g = 0; g < genreCount; g++) {
+                    genres[g] = pickDistinct(genreWeights, genres, g);
+                    batch.linkGenre(movieId, genreIds[genres[g]]);
+                }
+                genreLinks += genreCount;
+
+                int castSize = castSize(maxCast);
+                for (int a = 0; a < castSize; a++) {
+                    cast[a] = pickDistinct(actorWeights, cast, a);
+                    batch.linkActor(movieId, actorIds[cast[a]]);
+                }
+                actorLinks += castSize;
+
+                if ((i + 1) % PROGRESS_EVERY == 0) {
+                    log.info("...{} / {} movies", i + 1, settings.movies());
+                }
+            }
+            return new Result(genreIds.length, actorIds.length, settings.movies(), genreLinks, actorLinks);
+        }
+
+        // Real genre names first, numbered ones beyond them
+        private static String genreName(int index) {
+            return index < GENRES.length ? GENRES[index] : "Genre " + (index + 1);
+        }
+
+        // The index suffix keeps names unique (imports and search resolve actors by name)
+        private String actorName(int index) {
+            return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + (index + 1);
+        }
+
+        private LocalDate birthDate() {
+            return LocalDate.of(1900, 1, 1).plusDays(random.nextInt(105 * 365));
+        }
+
+        private String title() {
+            int words = random.nextInt(1, 5);
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    title.append(' ');
+                }
+                String word = WORDS[random.nextInt(WORDS.length)];
+                title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            }
+            return title.toString();
+        }
+
+        // sqrt of a uniform value leans towards 1, so later years get more movies
+        private int releaseYear() {
+            return FIRST_YEAR + (int) ((LAST_YEAR - FIRST_YEAR + 1) * Math.sqrt(random.nextDouble()));
+        }
+
+        private int duration() {
+            return (int) Math.clamp(Math.round(105 + 20 * random.nextGaussian()), 60, 240);
+        }
+
+        // Log-normal with mean averageCast: mu is chosen so that exp(mu + sigma^2 / 2) == averageCast
+        private int castSize(int maxCast) {
+            double mu = Math.log(settings.averageCast()) - CAST_SIGMA * CAST_SIGMA / 2;
+            long size = Math.round(Math.exp(mu + CAST_SIGMA * random.nextGaussian()));
+            return (int) Math.clamp(size, 1, maxCast);
+        }
+
+        // Weighted draw that skips ranks already taken by this movie (the lists are short, so a linear check is enough)
+        private int pickDistinct(double[] cumulative, int[] taken, int count) {
+            while (true) {
+                int rank = pick(cumulative);
+                boolean seen = false;
+                for (int i = 0; i < count && !seen; i++) {
+                    seen = taken[i] == rank;
+                }
+                if (!seen) {
+                    return rank;
+                }
+            }
+        }
+
+        private int pick(double[] cumulative) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+
+        // Running sum of the popularity weights: rank 0 is the most popular
+        private static double[] cumulativeZipf(int size, double skew, double offset) {
+            double[] cumulative = new double[size];
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += 1 / Math.pow(i + offset, skew);
+                cumulative[i] = sum;
+            }
+            return cumulative;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.filmsociety.movies_api.bootstrap;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import com.filmsociety.movies_api.MoviesApiApplication;
+
+// Stand-alone entry point for the catalog generator: boots the application without a web server
+// under the "generate" profile, lets DataLoader fill the (empty) database, and exits. E.g.
+//   mvn -q compile exec:java -Dexec.mainClass=com.filmsociety.movies_api.bootstrap.CatalogGeneratorCli \
+//       -Dexec.args="--spring.datasource.url=jdbc:sqlite:target/large.db --app.generator.movies=1000000 --app.generator.actors=200000"
+public final class CatalogGeneratorCli {
+
+    private CatalogGeneratorCli() {}
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(MoviesApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("generate")
+                .run(args)
+                .close();
+    }
+}
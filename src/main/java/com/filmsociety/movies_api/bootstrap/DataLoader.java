@@ -1,144 +1,175 @@
 package com.filmsociety.movies_api.bootstrap;
 
-import com.filmsociety.movies_api.entity.Actor;
-import com.filmsociety.movies_api.entity.Genre;
-import com.filmsociety.movies_api.entity.Movie;
-import com.filmsociety.movies_api.repository.ActorRepository;
+import com.filmsociety.movies_api.repository.CatalogBulkWriter;
 import com.filmsociety.movies_api.repository.GenreRepository;
-import com.filmsociety.movies_api.repository.MovieRepository;
+import com.filmsociety.movies_api.service.CatalogCsv;
+import com.filmsociety.movies_api.service.CatalogRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.time.LocalDate;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
 public class DataLoader implements CommandLineRunner {
 
-    // We need these repositories to save data to the database
-    private final GenreRepository genreRepository;
-    private final ActorRepository actorRepository;
-    private final MovieRepository movieRepository;
+    private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
 
-    // We use these Maps to "remember" the objects we just saved.
-    // Key = The Name (String), Value = The Database Object (Entity)
-    private final Map<String, Genre> genreMap = new HashMap<>();
-    private final Map<String, Actor> actorMap = new HashMap<>();
+    // How many movie lines are parsed before they are handed to the writer
+    private static final int CHUNK_SIZE = 5000;
 
-    public DataLoader(GenreRepository genreRepository, ActorRepository actorRepository, MovieRepository movieRepository) {
+    private final GenreRepository genreRepository;
+    // Writes everything with JDBC batches in one transaction (JPA can't batch IDENTITY inserts)
+    private final CatalogBulkWriter bulkWriter;
+    private final ResourceLoader resourceLoader;
+    // Where genres.csv, actors.csv and movies.csv live
+    private final String dataLocation;
+    // Synthetic catalog instead of the CSV files (the "generate" profile turns this on)
+    private final CatalogGenerator generator;
+    private final boolean generate;
+
+    // We use these Maps to "remember" the rows we just inserted.
+    // Key = The Name (String), Value = The Database Id
+    private final Map<String, Long> genreMap = new HashMap<>();
+    private final Map<String, Long> actorMap = new HashMap<>();
+
+    public DataLoader(GenreRepository genreRepository, CatalogBulkWriter bulkWriter,
+                      ResourceLoader resourceLoader, @Value("${app.data.location:classpath:data/}") String dataLocation,
+                      CatalogGenerator generator, @Value("${app.generator.enabled:false}") boolean generate) {
         this.genreRepository = genreRepository;
-        this.actorRepository = actorRepository;
-        this.movieRepository = movieRepository;
+        this.bulkWriter = bulkWriter;
+        this.resourceLoader = resourceLoader;
+        this.dataLocation = dataLocation;
+        this.generator = generator;
+        this.generate = generate;
     }
 
     @Override
-    @Transactional
     public void run(String... args) throws Exception {
-        // If the database is empty, load our CSV files
+        // If the database is empty, load our CSV files (or generate a synthetic catalog)
         if (genreRepository.count() == 0) {
-            System.out.println("Starting Data Loading...");
-            
-            loadGenres();
-            loadActors();
-            loadMovies();
-            
-            System.out.println("...Data Loading Finished Successfully.");
+            if (generate) {
+                generator.generate();
+                return;
+            }
+            log.info("Starting Data Loading from {}", dataLocation);
+            long start = System.nanoTime();
+
+            int[] counts = bulkWriter.load(batch -> new int[] {
+                    loadGenres(batch),
+                    loadActors(batch),
+                    loadMovies(batch)
+            });
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            log.info("...Data Loading Finished Successfully in {} ms ({} genres, {} actors, {} movies)",
+                    millis, counts[0], counts[1], counts[2]);
         }
     }
 
     // STEP 1: Read genres.csv
-    private void loadGenres() throws IOException {
-        // Access the file in the resources folder
-        InputStream inputStream = getClass().getResourceAsStream("/data/genres.csv");
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-
-        String line;
-        // Loop through every line in the file
-        while ((line = reader.readLine()) != null) {
-            String genreName = line.trim();
-            if (!genreName.isEmpty()) {
-                // 1. Create the object
-                Genre genre = new Genre(genreName);
-                // 2. Save to Database
-                Genre savedGenre = genreRepository.save(genre);
-                // 3. Put in Map so we can find it later by name
-                genreMap.put(genreName, savedGenre);
+    private int loadGenres(CatalogBulkWriter.Batch batch) throws SQLException {
+        int count = 0;
+        try (BufferedReader reader = open("genres.csv")) {
+            String line;
+            // Loop through every line in the file
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    CatalogRecord.GenreRow genre = CatalogCsv.parseGenre(line);
+                    // Queue the insert and put the new id in the Map so we can find it later by name
+                    genreMap.put(genre.name(), batch.addGenre(genre.name()));
+                    count++;
+                }
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        reader.close();
+        return count;
     }
 
     // STEP 2: Read actors.csv
-    private void loadActors() throws IOException {
-        InputStream inputStream = getClass().getResourceAsStream("/data/actors.csv");
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-
-        String line;
-        while ((line = reader.readLine()) != null) {
-            // Line format: Leonardo DiCaprio,1974-11-11
-            String[] parts = line.split(",");
-            
-            String name = parts[0].trim();
-            String dateString = parts[1].trim();
-
-            // Convert String date to LocalDate object
-            LocalDate birthDate = LocalDate.parse(dateString);
-
-            Actor actor = new Actor(name, birthDate);
-            Actor savedActor = actorRepository.save(actor);
-            
-            // Add to map so we can look it up later
-            actorMap.put(name, savedActor);
+    private int loadActors(CatalogBulkWriter.Batch batch) throws SQLException {
+        int count = 0;
+        try (BufferedReader reader = open("actors.csv")) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                // Line format: Leonardo DiCaprio,1974-11-11
+                CatalogRecord.ActorRow actor = CatalogCsv.parseActor(line);
+
+                // Add to map so we can look it up later
+                actorMap.put(actor.name(), batch.addActor(actor.name(), actor.birthDate()));
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        reader.close();
+        return count;
     }
 
-    // STEP 3: Read movies.csv
-    private void loadMovies() throws IOException {
-        InputStream inputStream = getClass().getResourceAsStream("/data/movies.csv");
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-
-        String line;
-        while ((line = reader.readLine()) != null) {
-            // Line format: Inception,2010,148,Action|Sci-Fi,Leonardo DiCaprio
-            String[] parts = line.split(",");
-
-            String title = parts[0].trim();
-            // We must convert Strings to Integers for numbers
-            int year = Integer.parseInt(parts[1].trim());
-            int duration = Integer.parseInt(parts[2].trim());
-
-            // Create the movie object
-            Movie movie = new Movie(title, year, duration);
-
-            // HANDLE GENRES: Split "Action|Sci-Fi" by the pipe symbol
-            String[] genreNames = parts[3].split("\\|");
-            for (String name : genreNames) {
-                // Use the Map to find the real Genre object we saved in Step 1
-                Genre foundGenre = genreMap.get(name.trim());
-                if (foundGenre != null) {
-                    movie.getGenres().add(foundGenre);
+    // STEP 3: Read movies.csv, one chunk of lines at a time
+    private int loadMovies(CatalogBulkWriter.Batch batch) throws SQLException {
+        int count = 0;
+        try (BufferedReader reader = open("movies.csv")) {
+            List<CatalogRecord.MovieRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                // Line format: Inception,2010,148,Action|Sci-Fi,Leonardo DiCaprio
+                chunk.add(CatalogCsv.parseMovie(line));
+                if (chunk.size() == CHUNK_SIZE) {
+                    count += insertMovies(batch, chunk);
+                    chunk.clear();
                 }
             }
+            count += insertMovies(batch, chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
 
-            // HANDLE ACTORS: Split "Leonardo DiCaprio|Tom Hardy"
-            String[] actorNames = parts[4].split("\\|");
-            for (String name : actorNames) {
-                // Use the Map to find the real Actor object we saved in Step 2
-                Actor foundActor = actorMap.get(name.trim());
-                if (foundActor != null) {
-                    movie.getActors().add(foundActor);
+    private int insertMovies(CatalogBulkWriter.Batch batch, List<CatalogRecord.MovieRow> chunk) throws SQLException {
+        for (CatalogRecord.MovieRow movie : chunk) {
+            long movieId = batch.addMovie(movie.title(), movie.releaseYear(), movie.duration());
+
+            // HANDLE GENRES: Use the Map to find the id of the Genre we inserted in Step 1
+            for (String name : movie.genres()) {
+                Long genreId = genreMap.get(name);
+                if (genreId != null) {
+                    batch.linkGenre(movieId, genreId);
                 }
             }
 
-            movieRepository.save(movie);
+            // HANDLE ACTORS: Use the Map to find the id of the Actor we inserted in Step 2
+            for (String name : movie.actors()) {
+                Long actorId = actorMap.get(name);
+                if (actorId != null) {
+                    batch.linkActor(movieId, actorId);
+                }
+            }
         }
-        reader.close();
+        return chunk.size();
+    }
+
+    private BufferedReader open(String fileName) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                resourceLoader.getResource(dataLocation + fileName).getInputStream(), StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.filmsociety.movies_api.bootstrap;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+// Applies the schema objects Hibernate's ddl-auto does not manage (full-text indexes,
+// triggers, extra indexes, version stamping). Runs once Hibernate has created/updated the tables and
+// before DataLoader, so seeded rows go through the same triggers as everything else.
+// Each migration runs once, in its own transaction, and is recorded in schema_migrations.
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    record Migration(int version, String description, List<String> statements) {}
+
+    // Catalog clock: every write advances it, and the rows it touched are stamped with the new value
+    private static final String TICK = "UPDATE catalog_clock SET version = version + 1;";
+    private static final String NOW = "(SELECT version FROM catalog_clock)";
+    // False while CatalogBulkWriter holds its marker row: it stamps everything it wrote once, at the end
+    private static final String NOT_BULK = " WHEN NOT EXISTS (SELECT 1 FROM catalog_bulk_write)";
+
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "full-text index on movie titles", List.of(
+                    // External-content FTS5 table: stores only the index, the text stays in movies
+                    """
+                    CREATE VIRTUAL TABLE movies_fts USING fts5(
+                        title, content='movies', content_rowid='id',
+                        prefix='2 3', tokenize='unicode61 remove_diacritics 2')
+                    """,
+                    """
+                    CREATE TRIGGER movies_fts_ai AFTER INSERT ON movies BEGIN
+                        INSERT INTO movies_fts(rowid, title) VALUES (new.id, new.title);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER movies_fts_ad AFTER DELETE ON movies BEGIN
+                        INSERT INTO movies_fts(movies_fts, rowid, title) VALUES ('delete', old.id, old.title);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER movies_fts_au AFTER UPDATE OF title ON movies BEGIN
+                        INSERT INTO movies_fts(movies_fts, rowid, title) VALUES ('delete', old.id, old.title);
+                        INSERT INTO movies_fts(rowid, title) VALUES (new.id, new.title);
+                    END
+                    """,
+                    // Index the rows that existed before the triggers
+                    "INSERT INTO movies_fts(movies_fts) VALUES ('rebuild')")),
+            new Migration(2, "full-text index on actor names", List.of(
+                    """
+                    CREATE VIRTUAL TABLE actors_fts USING fts5(
+                        name, content='actors', content_rowid='id',
+                        prefix='2 3', tokenize='unicode61 remove_diacritics 2')
+                    """,
+                    """
+                    CREATE TRIGGER actors_fts_ai AFTER INSERT ON actors BEGIN
+                        INSERT INTO actors_fts(rowid, name) VALUES (new.id, new.name);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER actors_fts_ad AFTER DELETE ON actors BEGIN
+                        INSERT INTO actors_fts(actors_fts, rowid, name) VALUES ('delete', old.id, old.name);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER actors_fts_au AFTER UPDATE OF name ON actors BEGIN
+                        INSERT INTO actors_fts(actors_fts, rowid, name) VALUES ('delete', old.id, old.name);
+                        INSERT INTO actors_fts(rowid, name) VALUES (new.id, new.name);
+                    END
+                    """,
+                    "INSERT INTO actors_fts(actors_fts) VALUES ('rebuild')")),
+            new Migration(3, "composite indexes for movie filters", List.of(
+                    // Year/duration filters and sorts become range scans that already come out in id order
+                    "CREATE INDEX IF NOT EXISTS idx_movies_release_year_id ON movies (release_year, id)",
+                    "CREATE INDEX IF NOT EXISTS idx_movies_duration_id ON movies (duration, id)",
+                    // The primary keys lead with movie_id; these serve "movies of genre/actor X"
+                    "CREATE INDEX IF NOT EXISTS idx_movie_genres_genre_movie ON movie_genres (genre_id, movie_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_movie_actors_actor_movie ON movie_actors (actor_id, movie_id)")),
+            new Migration(4, "row versions for conditional GETs", List.of(
+                    // The version columns themselves are mapped (read-only) on the entities and
+                    // created by Hibernate; here they get their values.
+                    "CREATE TABLE catalog_clock (id INTEGER PRIMARY KEY CHECK (id = 1), version INTEGER NOT NULL)",
+                    "INSERT INTO catalog_clock (id, version) VALUES (1, 1)",
+                    "UPDATE movies SET version = 1",
+                    "UPDATE actors SET version = 1",
+                    "UPDATE genres SET version = 1",
+                    // Only data columns are listed in UPDATE OF, so stamping a version never re-fires
+                    "CREATE TRIGGER movies_version_ai AFTER INSERT ON movies BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.id; END",
+                    "CREATE TRIGGER movies_version_au AFTER UPDATE OF title, release_year, duration ON movies BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.id; END",
+                    "CREATE TRIGGER movies_version_ad AFTER DELETE ON movies BEGIN " + TICK + " END",
+                    // A movie shows its actors' and genres' names, so renaming one restamps its movies
+                    "CREATE TRIGGER actors_version_ai AFTER INSERT ON actors BEGIN " + TICK
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = new.id; END",
+                    "CREATE TRIGGER actors_version_au AFTER UPDATE OF name, birth_date ON actors BEGIN " + TICK
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = new.id;"
+                            + " UPDATE movies SET version = " + NOW
+                            + " WHERE id IN (SELECT movie_id FROM movie_actors WHERE actor_id = new.id); END",
+                    "CREATE TRIGGER actors_version_ad AFTER DELETE ON actors BEGIN " + TICK + " END",
+                    "CREATE TRIGGER genres_version_ai AFTER INSERT ON genres BEGIN " + TICK
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = new.id; END",
+                    "CREATE TRIGGER genres_version_au AFTER UPDATE OF name ON genres BEGIN " + TICK
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = new.id;"
+                            + " UPDATE movies SET version = " + NOW
+                            + " WHERE id IN (SELECT movie_id FROM movie_genres WHERE genre_id = new.id); END",
+                    "CREATE TRIGGER genres_version_ad AFTER DELETE ON genres BEGIN " + TICK + " END",
+                    // Linking or unlinking restamps both sides
+                    "CREATE TRIGGER movie_actors_version_ai AFTER INSERT ON movie_actors BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.movie_id;"
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = new.actor_id; END",
+                    "CREATE TRIGGER movie_actors_version_ad AFTER DELETE ON movie_actors BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = old.movie_id;"
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = old.actor_id; END",
+                    "CREATE TRIGGER movie_genres_version_ai AFTER INSERT ON movie_genres BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.movie_id;"
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = new.genre_id; END",
+                    "CREATE TRIGGER movie_genres_version_ad AFTER DELETE ON movie_genres BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = old.movie_id;"
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = old.genre_id; END")),
+            // Written in batches by MovieViewService, never on the read path
+            new Migration(5, "movie view counters", List.of(
+                    "CREATE TABLE movie_stats (movie_id INTEGER PRIMARY KEY, views INTEGER NOT NULL,"
+                            + " last_viewed INTEGER NOT NULL)",
+                    "CREATE TRIGGER movies_stats_ad AFTER DELETE ON movies BEGIN"
+                            + " DELETE FROM movie_stats WHERE movie_id = old.id; END")),
+            // GET /api/movies/stream walks movies and deletions in version order (MovieExportRepository).
+            // The delete trigger ticks on its own: the order of triggers on the same event is unspecified,
+            // and the tombstone must not share the version of the last change before the delete.
+            new Migration(6, "change stream of movies", List.of(
+                    "CREATE INDEX IF NOT EXISTS idx_movies_version_id ON movies (version, id)",
+                    "CREATE TABLE movie_tombstones (movie_id INTEGER PRIMARY KEY, version INTEGER NOT NULL)",
+                    "CREATE INDEX idx_movie_tombstones_version ON movie_tombstones (version, movie_id)",
+                    "CREATE TRIGGER movies_tombstone_ad AFTER DELETE ON movies BEGIN " + TICK
+                            + " INSERT OR REPLACE INTO movie_tombstones (movie_id, version) VALUES (old.id, " + NOW + "); END",
+                    // An id inserted again (imports keep theirs) is live, not deleted
+                    "CREATE TRIGGER movies_tombstone_ai AFTER INSERT ON movies BEGIN"
+                            + " DELETE FROM movie_tombstones WHERE movie_id = new.id; END")),
+            // POST /api/import matches incoming movies to stored ones on title and release year
+            new Migration(7, "natural key lookup of movies", List.of(
+                    "CREATE INDEX IF NOT EXISTS idx_movies_title_release_year ON movies (title, release_year)")),
+            // The version triggers cost a clock tick and one or two UPDATEs per row, which a bulk load
+            // (a million join rows) pays a million times over. Bulk writes switch them off instead.
+            new Migration(8, "one version stamp per bulk write", List.of(
+                    "CREATE TABLE catalog_bulk_write (id INTEGER PRIMARY KEY CHECK (id = 1))",
+                    "DROP TRIGGER movies_version_ai",
+                    "CREATE TRIGGER movies_version_ai AFTER INSERT ON movies" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.id; END",
+                    "DROP TRIGGER movies_version_au",
+                    "CREATE TRIGGER movies_version_au AFTER UPDATE OF title, release_year, duration ON movies"
+                            + NOT_BULK + " BEGIN " + TICK + " UPDATE movies SET version = " + NOW + " WHERE id = new.id; END",
+                    "DROP TRIGGER actors_version_ai",
+                    "CREATE TRIGGER actors_version_ai AFTER INSERT ON actors" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = new.id; END",
+                    "DROP TRIGGER genres_version_ai",
+                    "CREATE TRIGGER genres_version_ai AFTER INSERT ON genres" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = new.id; END",
+                    "DROP TRIGGER movie_actors_version_ai",
+                    "CREATE TRIGGER movie_actors_version_ai AFTER INSERT ON movie_actors" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.movie_id;"
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = new.actor_id; END",
+                    "DROP TRIGGER movie_actors_version_ad",
+                    "CREATE TRIGGER movie_actors_version_ad AFTER DELETE ON movie_actors" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = old.movie_id;"
+                            + " UPDATE actors SET version = " + NOW + " WHERE id = old.actor_id; END",
+                    "DROP TRIGGER movie_genres_version_ai",
+                    "CREATE TRIGGER movie_genres_version_ai AFTER INSERT ON movie_genres" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = new.movie_id;"
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = new.genre_id; END",
+                    "DROP TRIGGER movie_genres_version_ad",
+                    "CREATE TRIGGER movie_genres_version_ad AFTER DELETE ON movie_genres" + NOT_BULK + " BEGIN " + TICK
+                            + " UPDATE movies SET version = " + NOW + " WHERE id = old.movie_id;"
+                            + " UPDATE genres SET version = " + NOW + " WHERE id = old.genre_id; END"))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SchemaMigrator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    applied_at TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP)
+                """);
+        Set<Integer> applied = new HashSet<>(
+                jdbcTemplate.queryForList("SELECT version FROM schema_migrations", Integer.class));
+
+        for (Migration migration : MIGRATIONS) {
+            if (applied.contains(migration.version())) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                migration.statements().forEach(jdbcTemplate::execute);
+                jdbcTemplate.update("INSERT INTO schema_migrations (version, description) VALUES (?, ?)",
+                        migration.version(), migration.description());
+            });
+            log.info("Applied schema migration {}: {}", migration.version(), migration.description());
+        }
+    }
+}
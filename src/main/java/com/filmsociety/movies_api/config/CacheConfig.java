@@ -0,0 +1,34 @@
+package com.filmsociety.movies_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Read cache in front of the services. Entries are immutable DTOs (never managed entities),
+// bounded by size and TTL. Caches are transaction-aware: evictions made inside a write
+// transaction only happen after it commits, so readers can't re-cache the old state
+// in between. The TTL bounds anything a racing reader still manages to put back.
+// Cache advice runs outside the transaction advice, so a hit never opens a transaction.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String MOVIES = "movies";
+    public static final String ACTORS = "actors";
+    public static final String GENRES = "genres";
+    // GET /api/genres, one entry per page of movies
+    public static final String GENRE_LIST = "genreList";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.spec}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(MOVIES, ACTORS, GENRES, GENRE_LIST);
+        caffeine.setCacheSpecification(spec);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
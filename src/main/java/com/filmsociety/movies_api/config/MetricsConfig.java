@@ -0,0 +1,115 @@
+package com.filmsociety.movies_api.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Instrumentation on top of what Spring Boot binds by itself (http.server.requests per route,
+// hikaricp.* pool metrics including connection wait, hibernate.* session statistics, cache.*):
+// - jdbc.statements: every SQL statement, from every pool (QueryMetricsDataSource), plus the slow-query log
+// - http.server.requests.statements / http.server.requests.entities: statements executed and
+//   entities loaded per request, tagged with the same method and uri as http.server.requests
+// Scraped from /actuator/prometheus on the management port (see application.properties).
+@Configuration
+public class MetricsConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public MetricsConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Bean
+    static QueryMetricsPostProcessor queryMetrics(
+            @Value("${app.metrics.slow-query.info-threshold:100ms}") Duration infoThreshold,
+            @Value("${app.metrics.slow-query.warn-threshold:1s}") Duration warnThreshold) {
+        return new QueryMetricsPostProcessor(infoThreshold, warnThreshold);
+    }
+
+    @Bean
+    OncePerRequestFilter requestQueryMetricsFilter(MeterRegistry registry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                RequestQueryStats stats = RequestQueryStats.start();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    RequestQueryStats.stop();
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+                    DistributionSummary.builder("http.server.requests.statements")
+                            .description("SQL statements executed per request")
+                            .tags(tags)
+                            .register(registry)
+                            .record(stats.statements());
+                    DistributionSummary.builder("http.server.requests.entities")
+                            .description("Entities loaded per request")
+                            .tags(tags)
+                            .register(registry)
+                            .record(stats.entitiesLoaded());
+                }
+            }
+        };
+    }
+
+    // Counts every entity Hibernate materializes, whether from a query, a lazy load or a fetch join
+    @PostConstruct
+    void countEntityLoads() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RequestQueryStats.entityLoaded());
+    }
+
+    // Wraps each connection pool. Runs after VirtualThreadConfig's permits, so in that mode
+    // it wraps the permit wrapper and the time spent waiting for a permit is not counted as query time.
+    static final class QueryMetricsPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Duration infoThreshold;
+        private final Duration warnThreshold;
+
+        QueryMetricsPostProcessor(Duration infoThreshold, Duration warnThreshold) {
+            this.infoThreshold = infoThreshold;
+            this.warnThreshold = warnThreshold;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource || bean instanceof PermitBoundedDataSource) {
+                return new QueryMetricsDataSource((DataSource) bean, beanName, infoThreshold, warnThreshold);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
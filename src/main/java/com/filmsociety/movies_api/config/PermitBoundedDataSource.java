@@ -0,0 +1,120 @@
+package com.filmsociety.movies_api.config;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+// Admits at most as many callers into a Hikari pool as it has connections.
+// The rest wait on a fair semaphore, where a virtual thread parks and frees its carrier.
+// Inside the pool, and inside sqlite-jdbc's synchronized native calls, a waiting virtual
+// thread would stay pinned to its carrier. The permit is returned when the connection is closed.
+class PermitBoundedDataSource extends DelegatingDataSource implements Closeable {
+
+    private final HikariDataSource pool;
+    private final Semaphore permits;
+    // Time spent queueing here; Hikari's own hikaricp.connections.acquire only starts once a permit is held
+    private final Timer permitWait;
+
+    PermitBoundedDataSource(HikariDataSource pool, String name) {
+        super(pool);
+        this.pool = pool;
+        this.permits = new Semaphore(pool.getMaximumPoolSize(), true);
+        this.permitWait = Timer.builder("jdbc.connections.permit.wait")
+                .description("Time waiting for a connection permit")
+                .tag("datasource", name)
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(pool.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(pool.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Stands in for the pool bean, so the container still shuts the pool down
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private void acquire() throws SQLException {
+        long timeout = pool.getConnectionTimeout();
+        long start = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw new SQLTransientConnectionException(
+                        pool.getPoolName() + " - Connection is not available, request timed out after " + timeout + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(pool.getPoolName() + " - Interrupted during connection acquisition", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection target) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (closed.compareAndSet(false, true)) {
+                                try {
+                                    target.close();
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        }
+                        case "getTargetConnection" -> {
+                            return target;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        }
+                    }
+                });
+    }
+}
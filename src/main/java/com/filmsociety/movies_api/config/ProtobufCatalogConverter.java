@@ -0,0 +1,174 @@
+package com.filmsociety.movies_api.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.filmsociety.movies_api.dto.ActorDto;
+import com.filmsociety.movies_api.dto.CursorSlice;
+import com.filmsociety.movies_api.dto.GenreDto;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.dto.MultiGet;
+
+// Protobuf responses of the catalog read models, against the messages of proto/catalog.proto.
+// Written by Jackson like the JSON, so ?fields= filters apply and relations not included stay absent.
+// Properties the schema does not know yet are skipped rather than failing the response. Other bodies (entities,
+// delete jobs, graph results) have no message, so asking for them as protobuf gets a 406.
+final class ProtobufCatalogConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Message name of each element type; a container adds the suffix of its shape (see catalog.proto)
+    private static final Map<Class<?>, String> ELEMENTS = Map.of(
+            MovieDto.class, "Movie",
+            ActorDto.class, "Actor",
+            GenreDto.class, "Genre",
+            ActorRef.class, "ActorRef",
+            GenreRef.class, "GenreRef");
+
+    private final ObjectMapper mapper;
+    private final NativeProtobufSchema messages;
+    private final Map<String, ProtobufSchema> schemas = new ConcurrentHashMap<>();
+
+    // mapper: the application's mapper settings on a ProtobufFactory
+    ProtobufCatalogConverter(ObjectMapper mapper) {
+        super(PROTOBUF);
+        this.mapper = mapper;
+        try (InputStream proto = new ClassPathResource("proto/catalog.proto").getInputStream()) {
+            this.messages = ProtobufSchemaLoader.std.loadNative(proto, true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load proto/catalog.proto", e);
+        }
+    }
+
+    // Response types are known up front except inside a MappingJacksonValue, which only wraps listings
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (clazz == MappingJacksonValue.class || messageName(type, clazz) != null);
+    }
+
+    // Also asked with only the raw class (MappingJacksonValue, List) when listing the producible
+    // types; canWrite above, which sees the element type, decides
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Protobuf is a response format only");
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Protobuf is a response format only");
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Object value = body;
+        ObjectWriter writer = mapper.writer().with(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        if (body instanceof MappingJacksonValue wrapped) {
+            value = wrapped.getValue();
+            if (wrapped.getFilters() != null) {
+                writer = writer.with(wrapped.getFilters());
+            }
+        }
+        String name = messageName(value);
+        if (name == null) {
+            throw new HttpMessageNotWritableException("No protobuf message for " + value.getClass().getName());
+        }
+        writer.with(schemas.computeIfAbsent(name, messages::forType))
+                .writeValue(StreamUtils.nonClosing(outputMessage.getBody()), message(value));
+    }
+
+    // A page's fields of MoviePage (the writer cannot skip a nested object such as pageable),
+    // a list as the items of its message, anything else as it is
+    private static Object message(Object value) {
+        if (value instanceof Page<?> page) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("content", page.getContent());
+            fields.put("totalElements", page.getTotalElements());
+            fields.put("totalPages", page.getTotalPages());
+            fields.put("number", page.getNumber());
+            fields.put("size", page.getSize());
+            fields.put("numberOfElements", page.getNumberOfElements());
+            fields.put("first", page.isFirst());
+            fields.put("last", page.isLast());
+            fields.put("empty", page.isEmpty());
+            return fields;
+        }
+        return value instanceof List<?> list ? Map.of("items", list) : value;
+    }
+
+    // The root message of a body, null if it has none; an empty container takes the movie one,
+    // as it encodes the same
+    private String messageName(Object value) {
+        if (value instanceof Page<?> page) {
+            return message(element(page.getContent()), "Page");
+        }
+        if (value instanceof CursorSlice<?> slice) {
+            return message(element(slice.content()), "Slice");
+        }
+        if (value instanceof MultiGet<?> multiGet) {
+            return message(element(multiGet.items()), "s");
+        }
+        if (value instanceof List<?> list) {
+            return message(element(list), "s");
+        }
+        return ELEMENTS.get(value.getClass());
+    }
+
+    private static String element(List<?> items) {
+        return items.isEmpty() ? "Movie" : ELEMENTS.get(items.get(0).getClass());
+    }
+
+    private String message(String element, String suffix) {
+        return element != null && messages.hasMessageType(element + suffix) ? element + suffix : null;
+    }
+
+    // From the declared response type: a read model, or a List of one
+    private String messageName(Type type, Class<?> clazz) {
+        if (ELEMENTS.containsKey(clazz)) {
+            return ELEMENTS.get(clazz);
+        }
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == List.class
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+            return message(ELEMENTS.get(element), "s");
+        }
+        return null;
+    }
+}
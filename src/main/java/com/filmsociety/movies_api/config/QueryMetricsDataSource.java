@@ -0,0 +1,137 @@
+package com.filmsociety.movies_api.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+// Times every statement executed through a pool, JPA and JdbcTemplate alike:
+// - the jdbc.statements timer (tagged with the data source bean name)
+// - the per-request statement count (RequestQueryStats)
+// - the slow-query log: statements slower than the info threshold are logged with their SQL,
+//   at WARN above the warn threshold
+// Meters go to the global registry: this wraps pools while the context is still being built,
+// before the MeterRegistry bean exists. Spring Boot adds its registries to the global one.
+class QueryMetricsDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetricsDataSource.class);
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Timer timer;
+    private final long infoNanos;
+    private final long warnNanos;
+
+    QueryMetricsDataSource(DataSource target, String name, Duration infoThreshold, Duration warnThreshold) {
+        super(target);
+        this.timer = Timer.builder("jdbc.statements")
+                .description("SQL statement execution time")
+                .tag("datasource", name)
+                .register(Metrics.globalRegistry);
+        this.infoNanos = infoThreshold.toNanos();
+        this.warnNanos = warnThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timing(getTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timing(getTargetDataSource().getConnection(username, password));
+    }
+
+    // Stands in for the pool bean, so the container still shuts the pool down
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable pool) {
+            pool.close();
+        }
+    }
+
+    private Connection timing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTargetConnection" -> {
+                            return target;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            Object result = invoke(method, target, args);
+                            if (result instanceof Statement statement) {
+                                // prepareStatement/prepareCall carry their SQL; plain statements get it per execute
+                                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                                return timing(statement, method.getReturnType(), sql);
+                            }
+                            return result;
+                        }
+                    }
+                });
+    }
+
+    private Statement timing(Statement target, Class<?> type, String preparedSql) {
+        Class<?> statementType = type == CallableStatement.class || type == PreparedStatement.class ? type : Statement.class;
+        return (Statement) Proxy.newProxyInstance(QueryMetricsDataSource.class.getClassLoader(),
+                new Class<?>[] {statementType}, (proxy, method, args) -> {
+                    if (!EXECUTE_METHODS.contains(method.getName())) {
+                        return invoke(method, target, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(method, target, args);
+                    } finally {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                        executed(System.nanoTime() - start, sql, method.getName());
+                    }
+                });
+    }
+
+    private void executed(long nanos, String sql, String methodName) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestQueryStats.statementExecuted();
+        if (nanos >= infoNanos) {
+            long millis = nanos / 1_000_000;
+            String statement = methodName.contains("Batch") ? "batch of " + sql : sql;
+            if (nanos >= warnNanos) {
+                log.warn("Slow query ({} ms): {}", millis, statement);
+            } else {
+                log.info("Slow query ({} ms): {}", millis, statement);
+            }
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
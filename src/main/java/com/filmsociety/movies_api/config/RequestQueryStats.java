@@ -0,0 +1,46 @@
+package com.filmsociety.movies_api.config;
+
+// Tally of the SQL statements executed and entities loaded while serving one request.
+// Kept per thread: the request thread does all of its database work itself, except for
+// streamed response bodies (the CSV export), whose statements are not attributed to the request.
+final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entitiesLoaded;
+
+    private RequestQueryStats() {}
+
+    static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static void statementExecuted() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    int entitiesLoaded() {
+        return entitiesLoaded;
+    }
+}
@@ -0,0 +1,93 @@
+package com.filmsociety.movies_api.config;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Binary response formats for service-to-service clients, chosen with the Accept header:
+// application/x-jackson-smile, application/cbor and application/x-protobuf (catalog read models only,
+// see ProtobufCatalogConverter). JSON stays first, so a client that accepts anything still gets JSON.
+// Each format is written with the application's Jackson settings (JacksonConfig), so the bodies
+// hold the same properties as the JSON, ?fields= included.
+// Compression (gzip, Accept-Encoding) is Tomcat's, from server.compression.* in application.properties.
+@Configuration
+public class ResponseFormatConfig implements WebMvcConfigurer {
+
+    // Prototype: a new builder, with Boot's and JacksonConfig's customizations, per call
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public ResponseFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    // Lets Tomcat's compression threshold apply to the API's responses (see SmallResponseFilter)
+    @Bean
+    @ConditionalOnProperty("server.compression.enabled")
+    static SmallResponseFilter smallResponseFilter(
+            @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        return new SmallResponseFilter((int) minResponseSize.toBytes());
+    }
+
+    // The same URL answers in any of the formats, so shared caches must key on Accept too
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    // Replaces Spring's default Smile and CBOR converters (added when the formats are on the classpath):
+    // their mappers have no default filter, so the DTOs' @JsonFilter would fail outside a listing
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        List<HttpMessageConverter<?>> binary = binaryConverters(builders::getObject);
+        int json = indexOf(converters, MappingJackson2HttpMessageConverter.class);
+        converters.addAll(json + 1, binary.subList(0, 2));
+        converters.add(binary.get(2));
+    }
+
+    // Smile, CBOR and protobuf, each on a mapper from its own builder
+    public static List<HttpMessageConverter<?>> binaryConverters(Supplier<Jackson2ObjectMapperBuilder> builders) {
+        return List.of(
+                new MappingJackson2SmileHttpMessageConverter(builders.get().factory(new SmileFactory()).build()),
+                new MappingJackson2CborHttpMessageConverter(builders.get().factory(new CBORFactory()).build()),
+                new ProtobufCatalogConverter(builders.get().factory(new ProtobufFactory()).build()));
+    }
+
+    private static int indexOf(List<HttpMessageConverter<?>> converters, Class<?> type) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (type.isInstance(converters.get(i))) {
+                return i;
+            }
+        }
+        return converters.size() - 1;
+    }
+}
@@ -0,0 +1,182 @@
+package com.filmsociety.movies_api.config;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Holds back the first bytes of each response, up to server.compression.min-response-size. A response
+// that ends within them is sent with a Content-Length: Tomcat only applies the compression threshold to
+// responses of known length, and Spring writes its JSON (and the binary formats) without one.
+// Longer responses go out as they are written; so do streaming ones (exports), once they flush,
+// and non-blocking ones (setWriteListener), from the start.
+final class SmallResponseFilter extends OncePerRequestFilter {
+
+    private final int threshold;
+
+    SmallResponseFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HeldResponse held = new HeldResponse(request, response, threshold);
+        chain.doFilter(request, held);
+        // Async bodies are written by another thread, which releases them with its flushes
+        if (!request.isAsyncStarted()) {
+            held.finish();
+        }
+    }
+
+    private static final class HeldResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final byte[] held;
+        private int count;
+        private boolean released;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        HeldResponse(HttpServletRequest request, HttpServletResponse response, int threshold) {
+            super(response);
+            this.request = request;
+            this.held = new byte[threshold];
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (stream == null) {
+                stream = new HeldStream();
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            if (request.isAsyncStarted()) {
+                release();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            count = 0;
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            count = 0;
+            super.reset();
+        }
+
+        // The whole body was held: send it with its length
+        void finish() throws IOException {
+            if (stream == null) {
+                return;
+            }
+            flushWriter();
+            if (!released) {
+                released = true;
+                super.setContentLength(count);
+                super.getOutputStream().write(held, 0, count);
+            }
+        }
+
+        private void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        private void release() throws IOException {
+            if (!released) {
+                released = true;
+                if (count > 0) {
+                    super.getOutputStream().write(held, 0, count);
+                }
+            }
+        }
+
+        private final class HeldStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (!released && count + length <= held.length) {
+                    System.arraycopy(bytes, offset, held, count, length);
+                    count += length;
+                    return;
+                }
+                release();
+                HeldResponse.super.getOutputStream().write(bytes, offset, length);
+            }
+
+            // Spring flushes after every body it writes; only a streaming (async) body means it.
+            // The same goes for flushBuffer above.
+            @Override
+            public void flush() throws IOException {
+                if (request.isAsyncStarted()) {
+                    release();
+                    HeldResponse.super.getOutputStream().flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                HeldResponse.super.getOutputStream().close();
+            }
+
+            // Held bytes are in memory, so writing more is always possible until they are released
+            @Override
+            public boolean isReady() {
+                if (!released) {
+                    return true;
+                }
+                try {
+                    return HeldResponse.super.getOutputStream().isReady();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            // A non-blocking writer goes straight to the container's stream: whatever it wrote before
+            // (in blocking mode) is released first, and nothing is held from then on
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                try {
+                    release();
+                    HeldResponse.super.getOutputStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
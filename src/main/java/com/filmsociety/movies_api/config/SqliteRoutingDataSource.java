@@ -0,0 +1,30 @@
+package com.filmsociety.movies_api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Picks the writer or a reader connection for each unit of work (see SqliteWalConfig).
+// Only read-write transactions get the writer; read-only transactions and work outside a
+// transaction (lazy loads while rendering a response, plain JdbcTemplate reads) go to the
+// readers. Until the application is ready everything goes to the writer, because schema
+// update, migrations and seeding write outside Spring transactions.
+class SqliteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { WRITER, READER }
+
+    private volatile boolean serving;
+
+    void startServing() {
+        serving = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!serving) {
+            return Route.WRITER;
+        }
+        boolean writeTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return writeTransaction ? Route.WRITER : Route.READER;
+    }
+}
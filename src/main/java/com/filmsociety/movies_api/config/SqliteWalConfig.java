@@ -0,0 +1,100 @@
+package com.filmsociety.movies_api.config;
+
+import java.sql.Connection;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Production storage mode (--spring.profiles.active=wal, settings in application-wal.properties).
+// The database runs in WAL mode, so readers never wait for the writer and the writer
+// never waits for readers. Two pools share the file:
+//  - one writer connection: every read-write transaction queues for it, so writes are
+//    serialized in the application instead of failing with SQLITE_BUSY inside SQLite;
+//  - several read-only connections for everything else.
+// With synchronous=NORMAL a commit only appends to the WAL (no fsync); the WAL is synced
+// at checkpoints, which batches durability work across many commits.
+@Configuration
+@Profile("wal")
+public class SqliteWalConfig {
+
+    private final SqliteRoutingDataSource routingDataSource = new SqliteRoutingDataSource();
+
+    @Bean
+    public HikariDataSource writerDataSource(DataSourceProperties properties,
+                                             @Value("${app.sqlite.busy-timeout}") int busyTimeout,
+                                             @Value("${app.sqlite.writer-queue-timeout}") long queueTimeout) {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        sqlite.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqlite.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqlite.setBusyTimeout(busyTimeout);
+        HikariConfig pool = pool("sqlite-writer", properties, sqlite, 1);
+        // How long a write transaction may wait for its turn
+        pool.setConnectionTimeout(queueTimeout);
+        return new HikariDataSource(pool);
+    }
+
+    // Created after the writer, which switches the file to WAL before any reader opens it
+    @Bean
+    public HikariDataSource readerDataSource(DataSourceProperties properties,
+                                             @Qualifier("writerDataSource") DataSource writerDataSource,
+                                             @Value("${app.sqlite.busy-timeout}") int busyTimeout,
+                                             @Value("${app.sqlite.readers}") int readers) {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        // Lets the pool mark connections read-only after opening them (PRAGMA query_only)
+        sqlite.setExplicitReadOnly(true);
+        sqlite.setBusyTimeout(busyTimeout);
+        HikariConfig pool = pool("sqlite-reader", properties, sqlite, readers);
+        pool.setReadOnly(true);
+        return new HikariDataSource(pool);
+    }
+
+    // What JPA, JdbcTemplate and the repositories use. The lazy proxy hands out a
+    // connection handle first and only picks the real connection at the first statement,
+    // once the transaction (and whether it is read-only) is known.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writerDataSource") DataSource writerDataSource,
+                                 @Qualifier("readerDataSource") DataSource readerDataSource) {
+        routingDataSource.setTargetDataSources(Map.of(
+                SqliteRoutingDataSource.Route.WRITER, writerDataSource,
+                SqliteRoutingDataSource.Route.READER, readerDataSource));
+        routingDataSource.setDefaultTargetDataSource(writerDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routingDataSource);
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        return lazy;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startServingReads() {
+        routingDataSource.startServing();
+    }
+
+    private static HikariConfig pool(String name, DataSourceProperties properties, SQLiteConfig sqlite, int size) {
+        HikariConfig pool = new HikariConfig();
+        pool.setPoolName(name);
+        pool.setDriverClassName(properties.determineDriverClassName());
+        pool.setJdbcUrl(properties.determineUrl());
+        pool.setDataSourceProperties(sqlite.toProperties());
+        pool.setMaximumPoolSize(size);
+        pool.setMinimumIdle(size);
+        return pool;
+    }
+}
@@ -0,0 +1,40 @@
+package com.filmsociety.movies_api.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Virtual-thread mode (spring.threads.virtual.enabled=true): Tomcat runs each request, and
+// the transactional service calls it makes, on its own virtual thread. Streaming responses
+// like the CSV export run on virtual threads too. Thousands of requests can be in flight;
+// the ones waiting for a database connection park behind PermitBoundedDataSource.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static ConnectionPermits connectionPermits() {
+        return new ConnectionPermits();
+    }
+
+    // Goes first, so the pool itself is what gets the permits and other wrappers
+    // (MetricsConfig's query metrics) wrap the result
+    static final class ConnectionPermits implements BeanPostProcessor, PriorityOrdered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof HikariDataSource pool ? new PermitBoundedDataSource(pool, beanName) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.filmsociety.movies_api.controller;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping; // For the Movie entity
@@ -15,10 +17,23 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.filmsociety.movies_api.dto.ActorDto;
+import com.filmsociety.movies_api.dto.ActorPath;
+import com.filmsociety.movies_api.dto.CoStar;
+import com.filmsociety.movies_api.dto.DeleteJob;
+import com.filmsociety.movies_api.dto.MultiGet;
+import com.filmsociety.movies_api.dto.Versioned;
 import com.filmsociety.movies_api.entity.Actor;
 import com.filmsociety.movies_api.entity.Movie;
 import com.filmsociety.movies_api.service.ActorService;
+import com.filmsociety.movies_api.service.CatalogGraphService;
+import com.filmsociety.movies_api.service.CatalogSnapshot;
+import com.filmsociety.movies_api.service.CatalogSnapshotService;
+import com.filmsociety.movies_api.service.CatalogVersionService;
+import com.filmsociety.movies_api.service.DeleteJobService;
+import com.filmsociety.movies_api.service.Projection;
 
 import jakarta.validation.Valid;
 
@@ -27,22 +42,102 @@ import jakarta.validation.Valid;
 public class ActorController {
 
     private final ActorService actorService;
+    private final CatalogVersionService versionService;
+    private final DeleteJobService deleteJobService;
+    private final CatalogGraphService graphService;
+    private final CatalogSnapshotService snapshotService;
 
-    public ActorController(ActorService actorService) {
+    public ActorController(ActorService actorService, CatalogVersionService versionService,
+                           DeleteJobService deleteJobService, CatalogGraphService graphService,
+                           CatalogSnapshotService snapshotService) {
         this.actorService = actorService;
+        this.versionService = versionService;
+        this.deleteJobService = deleteJobService;
+        this.graphService = graphService;
+        this.snapshotService = snapshotService;
     }
 
+    // ?fields=id,name,birthDate and ?include=movies (see Projection); ?fields=name alone is one narrow query.
+    // Searching by name always goes to the database (full-text index); the rest reads the snapshot when enabled.
     @GetMapping
-    public List<Actor> getAllActors(@RequestParam(required = false) String name) {
-        if (name != null) {
-            return actorService.searchActorsByName(name);
+    public MappingJacksonValue getAllActors(
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "0") int page,  // Only used when searching by name
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest request
+    ) {
+        CatalogSnapshot snapshot = name == null ? snapshotService.current() : null;
+        if (request.checkNotModified(catalogETag(snapshot))) {
+            return null;
         }
-        return actorService.getAllActors();
+        Projection projection = Projection.actors(fields, include);
+        List<ActorDto> actors = name != null ? actorService.searchActorsByName(name, page, size, projection)
+                : snapshot != null ? snapshot.getAllActors(projection)
+                : actorService.getAllActors(projection);
+        return FieldFilters.select(actors, ActorDto.FIELDS_FILTER, projection);
+    }
+
+    // Many actors at once, in the order given: ?ids=3,1,2 (at most 1000); unknown ids are listed in "missing"
+    @GetMapping(params = "ids")
+    public MappingJacksonValue getActorsByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest request
+    ) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (request.checkNotModified(catalogETag(snapshot))) {
+            return null;
+        }
+        Projection projection = Projection.actors(fields, include);
+        return FieldFilters.select(actorsByIds(snapshot, ids, projection), ActorDto.FIELDS_FILTER, projection);
+    }
+
+    // The same for id lists too long for a URL: a JSON array of ids as the body
+    @PostMapping("/batch")
+    public MappingJacksonValue getActorsByIdList(
+            @RequestBody List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include
+    ) {
+        Projection projection = Projection.actors(fields, include);
+        return FieldFilters.select(actorsByIds(snapshotService.current(), ids, projection), ActorDto.FIELDS_FILTER, projection);
+    }
+
+    private MultiGet<ActorDto> actorsByIds(CatalogSnapshot snapshot, List<Long> ids, Projection projection) {
+        return snapshot != null ? snapshot.getActorsByIds(ids, projection) : actorService.getActorsByIds(ids, projection);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Actor> getActorById(@PathVariable Long id) {
-        return ResponseEntity.ok(actorService.getActorById(id));
+    public ResponseEntity<ActorDto> getActorById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (snapshot != null) {
+            return Conditional.ok(snapshot.getActor(id), request);
+        }
+        if (versionService.getActorETag(id).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        Versioned<ActorDto> actor = actorService.getActorDto(id);
+        return ResponseEntity.ok().eTag(actor.etag()).body(actor.body());
+    }
+
+    private String catalogETag(CatalogSnapshot snapshot) {
+        return snapshot != null ? snapshot.etag() : versionService.getCatalogETag();
+    }
+
+    // Actors who shared the most movies with this one, from the in-memory graph
+    @GetMapping("/{id}/costars")
+    public ResponseEntity<List<CoStar>> getCoStars(@PathVariable Long id, @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(graphService.coStars(id, limit));
+    }
+
+    // Shortest chain of shared movies between two actors (404 if none within maxDegrees movies)
+    @GetMapping("/{id}/path/{otherId}")
+    public ResponseEntity<ActorPath> getPath(@PathVariable Long id, @PathVariable Long otherId,
+                                             @RequestParam(defaultValue = "6") int maxDegrees) {
+        return ResponseEntity.ok(graphService.path(id, otherId, maxDegrees));
     }
 
     @PostMapping
@@ -62,8 +157,14 @@ public class ActorController {
         return ResponseEntity.ok(updatedActor);
     }
 
+    // ?background=true (with force) unlinks the movies in chunks as a background job: 202 with the job to poll
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteActor(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean force) {
+    public ResponseEntity<DeleteJob> deleteActor(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean force,
+                                                 @RequestParam(defaultValue = "false") boolean background) {
+        if (force && background) {
+            DeleteJob job = deleteJobService.deleteActor(id);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.id())).body(job);
+        }
         actorService.deleteActor(id, force);
         return ResponseEntity.noContent().build();
     }
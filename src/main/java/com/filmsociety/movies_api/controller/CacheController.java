@@ -0,0 +1,27 @@
+package com.filmsociety.movies_api.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.filmsociety.movies_api.dto.CacheStats;
+import com.filmsociety.movies_api.service.CacheStatsService;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheStatsService cacheStatsService;
+
+    public CacheController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    // Hits, misses and evictions per cache, for sizing app.cache.spec
+    @GetMapping("/stats")
+    public List<CacheStats> getStats() {
+        return cacheStatsService.getStats();
+    }
+}
@@ -0,0 +1,20 @@
+package com.filmsociety.movies_api.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.filmsociety.movies_api.dto.Versioned;
+
+// A versioned body with its ETag, or a 304 (null) when If-None-Match already names it.
+// For bodies that cost no more to build than their version to read, such as snapshot reads.
+final class Conditional {
+
+    private Conditional() {}
+
+    static <T> ResponseEntity<T> ok(Versioned<T> versioned, WebRequest request) {
+        if (request.checkNotModified(versioned.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(versioned.etag()).body(versioned.body());
+    }
+}
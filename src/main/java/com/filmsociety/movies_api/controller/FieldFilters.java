@@ -0,0 +1,22 @@
+package com.filmsociety.movies_api.controller;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.filmsociety.movies_api.service.Projection;
+
+// Writes a listing with only the properties of a Projection: the DTO type named by filterId
+// keeps those, everything else (page metadata, nested movies) is written in full
+final class FieldFilters {
+
+    private FieldFilters() {}
+
+    static MappingJacksonValue select(Object body, String filterId, Projection projection) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .addFilter(filterId, SimpleBeanPropertyFilter.filterOutAllExcept(projection.properties())));
+        return value;
+    }
+}
@@ -1,12 +1,24 @@
 package com.filmsociety.movies_api.controller;
 
+import com.filmsociety.movies_api.dto.DeleteJob;
+import com.filmsociety.movies_api.dto.GenreDto;
+import com.filmsociety.movies_api.dto.Versioned;
 import com.filmsociety.movies_api.entity.Genre;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.service.CatalogSnapshot;
+import com.filmsociety.movies_api.service.CatalogSnapshotService;
+import com.filmsociety.movies_api.service.CatalogVersionService;
+import com.filmsociety.movies_api.service.DeleteJobService;
 import com.filmsociety.movies_api.service.GenreService;
+import com.filmsociety.movies_api.service.Projection;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -14,19 +26,59 @@ import java.util.List;
 public class GenreController {
 
     private final GenreService genreService;
+    private final CatalogVersionService versionService;
+    private final DeleteJobService deleteJobService;
+    private final CatalogSnapshotService snapshotService;
 
-    public GenreController(GenreService genreService) {
+    public GenreController(GenreService genreService, CatalogVersionService versionService,
+                           DeleteJobService deleteJobService, CatalogSnapshotService snapshotService) {
         this.genreService = genreService;
+        this.versionService = versionService;
+        this.deleteJobService = deleteJobService;
+        this.snapshotService = snapshotService;
     }
 
+    // ?fields=id,name and ?include=movies (see Projection); without movies, no movie is read.
+    // With movies, each genre lists one page of them by id: ?page=0&size=20 (/api/movies?genre= has them all)
     @GetMapping
-    public List<Genre> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<MappingJacksonValue> getAllGenres(@RequestParam(required = false) String fields,
+                                                            @RequestParam(required = false) String include,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            WebRequest request) {
+        if (page < 0 || size < 1) {
+            throw new BadRequestException("page must be at least 0 and size at least 1");
+        }
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (snapshot != null) {
+            if (request.checkNotModified(snapshot.etag())) {
+                return null;
+            }
+            Projection projection = Projection.genres(fields, include);
+            return ResponseEntity.ok(FieldFilters.select(snapshot.getAllGenres(projection, page, size), GenreDto.FIELDS_FILTER, projection));
+        }
+        if (request.checkNotModified(versionService.getCatalogETag())) {
+            return null;
+        }
+        Projection projection = Projection.genres(fields, include);
+        if (!projection.includes("movies")) {
+            return ResponseEntity.ok(FieldFilters.select(genreService.getAllGenreSummaries(), GenreDto.FIELDS_FILTER, projection));
+        }
+        Versioned<List<GenreDto>> genres = genreService.getAllGenreDtos(page, size);
+        return ResponseEntity.ok().eTag(genres.etag()).body(FieldFilters.select(genres.body(), GenreDto.FIELDS_FILTER, projection));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Genre> getGenreById(@PathVariable Long id) {
-        return ResponseEntity.ok(genreService.getGenreById(id));
+    public ResponseEntity<GenreDto> getGenreById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (snapshot != null) {
+            return Conditional.ok(snapshot.getGenre(id), request);
+        }
+        if (versionService.getGenreETag(id).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        Versioned<GenreDto> genre = genreService.getGenreDto(id);
+        return ResponseEntity.ok().eTag(genre.etag()).body(genre.body());
     }
 
     @PostMapping
@@ -39,9 +91,15 @@ public class GenreController {
         return ResponseEntity.ok(genreService.updateGenre(id, genre));
     }
 
-    // Implements the force delete requirement
+    // Implements the force delete requirement;
+    // ?background=true (with force) unlinks the movies in chunks as a background job: 202 with the job to poll
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteGenre(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean force) {
+    public ResponseEntity<DeleteJob> deleteGenre(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean force,
+                                                 @RequestParam(defaultValue = "false") boolean background) {
+        if (force && background) {
+            DeleteJob job = deleteJobService.deleteGenre(id);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.id())).body(job);
+        }
         genreService.deleteGenre(id, force);
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,44 @@
+package com.filmsociety.movies_api.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.filmsociety.movies_api.service.CatalogImportService;
+import com.filmsociety.movies_api.service.ImportSummary;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final CatalogImportService catalogImportService;
+
+    public ImportController(CatalogImportService catalogImportService) {
+        this.catalogImportService = catalogImportService;
+    }
+
+    // CSV in the same formats as the files in resources/data; "type" picks which one
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<ImportSummary> importCsv(
+            InputStream body,  // read incrementally, never buffered whole
+            @RequestParam(defaultValue = "movies") String type,
+            @RequestParam(required = false) Integer batchSize
+    ) throws IOException {
+        return ResponseEntity.ok(catalogImportService.importCsv(body, type, batchSize));
+    }
+
+    // Newline-delimited JSON, one genre/actor/movie object per line
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportSummary> importNdjson(
+            InputStream body,
+            @RequestParam(required = false) Integer batchSize
+    ) throws IOException {
+        return ResponseEntity.ok(catalogImportService.importNdjson(body, batchSize));
+    }
+}
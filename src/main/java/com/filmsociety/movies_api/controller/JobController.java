@@ -0,0 +1,27 @@
+package com.filmsociety.movies_api.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.filmsociety.movies_api.dto.DeleteJob;
+import com.filmsociety.movies_api.service.DeleteJobService;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final DeleteJobService deleteJobService;
+
+    public JobController(DeleteJobService deleteJobService) {
+        this.deleteJobService = deleteJobService;
+    }
+
+    // Progress of a background delete started with ?force=true&background=true
+    @GetMapping("/{id}")
+    public ResponseEntity<DeleteJob> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(deleteJobService.getJob(id));
+    }
+}
@@ -3,11 +3,11 @@ package com.filmsociety.movies_api.controller;
 import java.util.List;
 import java.util.Set;
 
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -17,11 +17,31 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.filmsociety.movies_api.dto.CastChange;
+import com.filmsociety.movies_api.dto.LinkUpdateSummary;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MultiGet;
+import com.filmsociety.movies_api.dto.SimilarMovie;
+import com.filmsociety.movies_api.dto.TrendingMovie;
+import com.filmsociety.movies_api.dto.Versioned;
 import com.filmsociety.movies_api.entity.Actor;
-import com.filmsociety.movies_api.entity.Genre;
 import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.service.CatalogGraphService;
+import com.filmsociety.movies_api.service.CatalogSnapshot;
+import com.filmsociety.movies_api.service.CatalogSnapshotService;
+import com.filmsociety.movies_api.service.CatalogVersionService;
+import com.filmsociety.movies_api.service.MovieExportService;
+import com.filmsociety.movies_api.service.MovieFilter;
 import com.filmsociety.movies_api.service.MovieService;
+import com.filmsociety.movies_api.service.MovieViewService;
+import com.filmsociety.movies_api.service.MovieSort;
+import com.filmsociety.movies_api.service.Projection;
+import com.filmsociety.movies_api.service.SyncToken;
 
 import jakarta.validation.Valid;
 
@@ -29,89 +49,200 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/movies")
 public class MovieController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final MovieService movieService;
+    private final MovieExportService movieExportService;
+    private final CatalogVersionService versionService;
+    private final CatalogGraphService graphService;
+    private final CatalogSnapshotService snapshotService;
+    private final MovieViewService viewService;
 
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, MovieExportService movieExportService,
+                           CatalogVersionService versionService, CatalogGraphService graphService,
+                           CatalogSnapshotService snapshotService, MovieViewService viewService) {
         this.movieService = movieService;
+        this.movieExportService = movieExportService;
+        this.versionService = versionService;
+        this.graphService = graphService;
+        this.snapshotService = snapshotService;
+        this.viewService = viewService;
     }
 
+    // Listings carry the catalog-wide ETag; a matching If-None-Match gets a 304 without running the query.
+    // In snapshot read mode (app.snapshot.enabled) reads are answered from memory, ETag included;
+    // only the title search, the CSV export and the change stream still go to the database.
+
+    // Filters combine: ?genre=1&actor=7&yearFrom=1990&yearTo=1999&minDuration=90&maxDuration=150
+    // Sort with ?sort=title|releaseYear|duration|id[,desc] (default: id)
+    // Every listing takes ?fields=id,title,releaseYear,duration and ?include=genres,actors (see Projection)
     @GetMapping
-    public Page<Movie> getAllMovies(
-            @RequestParam(required = false) Long genre,
-            @RequestParam(required = false) Integer year,
-            @RequestParam(required = false) Long actor,
+    public MappingJacksonValue getAllMovies(
+            MovieFilter filter,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,  // Default to first page
-            @RequestParam(defaultValue = "10") int size  // Default to 10 items
+            @RequestParam(defaultValue = "10") int size,  // Default to 10 items
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest request
     ) {
-        
-        if (genre != null) {
-            return movieService.getMoviesByGenre(genre, page, size);
-        } else if (year != null) {
-            return movieService.getMoviesByYear(year, page, size);
-        } else if (actor != null) {
-            return movieService.getMoviesByActor(actor, page, size);
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (request.checkNotModified(catalogETag(snapshot))) {
+            return null;
         }
-        
-        return movieService.getAllMovies(page, size);
+        Projection projection = Projection.movies(fields, include);
+        MovieSort movieSort = MovieSort.parse(sort);
+        return FieldFilters.select(snapshot != null
+                        ? snapshot.findMovies(filter, movieSort, page, size, projection)
+                        : movieService.findMovies(filter, movieSort, page, size, projection),
+                MovieDto.FIELDS_FILTER, projection);
+    }
+
+    // Cursor mode (opt in with ?after=, empty for the first window): no total count,
+    // follow "nextCursor" from each response. Latency stays flat however deep you go.
+    @GetMapping(params = "after")
+    public MappingJacksonValue getMoviesAfter(
+            MovieFilter filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest request
+    ) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (request.checkNotModified(catalogETag(snapshot))) {
+            return null;
+        }
+        Projection projection = Projection.movies(fields, include);
+        MovieSort movieSort = MovieSort.parse(sort);
+        return FieldFilters.select(snapshot != null
+                        ? snapshot.scrollMovies(filter, movieSort, after, size, projection)
+                        : movieService.scrollMovies(filter, movieSort, after, size, projection),
+                MovieDto.FIELDS_FILTER, projection);
+    }
+
+    // ?ids= and ?after= pick two different modes, and neither mapping is more specific than the other:
+    // asking for both is a 400 here rather than an ambiguous-handler 500
+    @GetMapping(params = {"ids", "after"})
+    public MappingJacksonValue getMoviesByIdsAfter() {
+        throw new BadRequestException("ids and after cannot be combined");
+    }
+
+    // Many movies at once, in the order given: ?ids=3,1,2 (at most 1000). Unknown ids are listed in
+    // "missing" instead of failing the request. Takes fields= and include= like the listings.
+    @GetMapping(params = "ids")
+    public MappingJacksonValue getMoviesByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest request
+    ) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (request.checkNotModified(catalogETag(snapshot))) {
+            return null;
+        }
+        Projection projection = Projection.movies(fields, include);
+        return FieldFilters.select(moviesByIds(snapshot, ids, projection), MovieDto.FIELDS_FILTER, projection);
+    }
+
+    // The same for id lists too long for a URL: a JSON array of ids as the body
+    @PostMapping("/batch")
+    public MappingJacksonValue getMoviesByIdList(
+            @RequestBody List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include
+    ) {
+        Projection projection = Projection.movies(fields, include);
+        return FieldFilters.select(moviesByIds(snapshotService.current(), ids, projection), MovieDto.FIELDS_FILTER, projection);
+    }
+
+    private MultiGet<MovieDto> moviesByIds(CatalogSnapshot snapshot, List<Long> ids, Projection projection) {
+        return snapshot != null ? snapshot.getMoviesByIds(ids, projection) : movieService.getMoviesByIds(ids, projection);
     }
-    
-    
+
     @GetMapping("/search")
-    public List<Movie> searchMovies(@RequestParam String title) {
-        return movieService.searchMoviesByTitle(title);
+    public MappingJacksonValue searchMovies(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(versionService.getCatalogETag())) {
+            return null;
+        }
+        Projection projection = Projection.movies(fields, include);
+        return FieldFilters.select(movieService.searchMoviesByTitle(title, page, size, projection),
+                MovieDto.FIELDS_FILTER, projection);
+    }
+
+    // Most viewed movies lately (views of GET /api/movies/{id}, decaying over app.trending.half-life),
+    // as of the last flush of the view counters
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingMovie>> getTrendingMovies(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(viewService.trending(limit));
     }
 
+    // Every answer for an existing movie counts as a view, 304s included
     @GetMapping("/{id}")
-    public ResponseEntity<Movie> getMovieById(@PathVariable Long id) {
-        return ResponseEntity.ok(movieService.getMovieById(id));
+    public ResponseEntity<MovieDto> getMovieById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        if (snapshot != null) {
+            Versioned<MovieDto> movie = snapshot.getMovie(id);
+            viewService.viewed(id);
+            return Conditional.ok(movie, request);
+        }
+        // Revalidation reads only the version column; the body is built (or cached) on a miss
+        if (versionService.getMovieETag(id).map(request::checkNotModified).orElse(false)) {
+            viewService.viewed(id);
+            return null;
+        }
+        Versioned<MovieDto> movie = movieService.getMovieDto(id);
+        viewService.viewed(id);
+        return ResponseEntity.ok().eTag(movie.etag()).body(movie.body());
     }
 
     @GetMapping("/{id}/actors")
-    public ResponseEntity<Set<Actor>> getActorsByMovie(@PathVariable Long id) {
-        return ResponseEntity.ok(movieService.getMovieById(id).getActors());
+    public ResponseEntity<List<ActorRef>> getActorsByMovie(@PathVariable Long id) {
+        CatalogSnapshot snapshot = snapshotService.current();
+        return ResponseEntity.ok(snapshot != null ? snapshot.getActorsOfMovie(id) : movieService.getActorsOfMovie(id));
     }
 
-    @GetMapping("/export/csv")
-    public ResponseEntity<String> exportMoviesToCsv() {
-        // 1. Get all movies (ignoring pagination for the full export)
-        List<Movie> movies = movieService.getAllMovies(0, Integer.MAX_VALUE).getContent();
-
-        // 2. Build the CSV content string
-        StringBuilder csvContent = new StringBuilder();
-        
-        // Add Header Row
-        csvContent.append("ID,Title,ReleaseYear,Duration,Genres,Actors\n");
-
-        // Add Data Rows
-        for (Movie movie : movies) {
-            // Get pipe-separated lists of names for relationships
-            String genreNames = movie.getGenres().stream()
-                    .map(Genre::getName)
-                    .collect(java.util.stream.Collectors.joining("|"));
-
-            String actorNames = movie.getActors().stream()
-                    .map(Actor::getName)
-                    .collect(java.util.stream.Collectors.joining("|"));
-
-            // Append movie data
-            csvContent.append(String.format("%d,\"%s\",%d,%d,\"%s\",\"%s\"\n", 
-                    movie.getId(), 
-                    movie.getTitle().replace("\"", "\"\""), // Handle embedded quotes
-                    movie.getReleaseYear(), 
-                    movie.getDuration(), 
-                    genreNames, 
-                    actorNames));
-        }
+    // Movies sharing the most actors and genres with this one, from the in-memory graph
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarMovie>> getSimilarMovies(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(graphService.similarMovies(id, limit));
+    }
+
+    private String catalogETag(CatalogSnapshot snapshot) {
+        return snapshot != null ? snapshot.etag() : versionService.getCatalogETag();
+    }
 
-        // 3. Set HTTP Headers for file download
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportMoviesToCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+        // 1. Set HTTP Headers for file download
         HttpHeaders headers = new HttpHeaders();
         // This tells the browser/client to download a file
-        headers.setContentDispositionFormData("attachment", "movies_data.csv");
+        headers.setContentDispositionFormData("attachment", gzip ? "movies_data.csv.gz" : "movies_data.csv");
         // This tells the browser/client the file type
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentType(MediaType.parseMediaType(gzip ? "application/gzip" : "text/csv"));
 
-        // 4. Return the content as a ResponseEntity
-        return new ResponseEntity<>(csvContent.toString(), headers, HttpStatus.OK);
+        // 2. Stream the rows as they are read instead of building the whole file in memory
+        StreamingResponseBody body = out -> movieExportService.writeMoviesCsv(out, gzip);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // Catalog mirroring: newline-delimited JSON of every movie (genres and actors included) and deletion
+    // after ?since=<token>, in one response read in keyset pages. Each line's "since" resumes right
+    // after it; the final "end" line's is the token for the next incremental sync.
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamMovieChanges(@RequestParam(required = false) String since) {
+        // Decoded up front, so a bad token is a 400 rather than a broken stream
+        SyncToken token = SyncToken.decode(since);
+        StreamingResponseBody body = out -> movieExportService.writeMovieChanges(out, token);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @PostMapping
@@ -133,6 +264,14 @@ public class MovieController {
         return ResponseEntity.ok(updatedMovie);
     }
 
+    // Cast changes for many movies in one transaction, e.g.
+    // [{"movieId": 1, "add": [5, 6]}, {"movieId": 2, "remove": [7]}, {"movieId": 3, "set": [5, 8]}]
+    // All or nothing: any unknown movie or actor id fails the whole request (404, listing every missing id)
+    @PatchMapping("/cast")
+    public ResponseEntity<LinkUpdateSummary> updateCasts(@RequestBody List<CastChange> changes) {
+        return ResponseEntity.ok(movieService.updateCasts(changes));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMovie(@PathVariable Long id) {
         movieService.deleteMovie(id);
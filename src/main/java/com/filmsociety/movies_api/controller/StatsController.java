@@ -0,0 +1,48 @@
+package com.filmsociety.movies_api.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.filmsociety.movies_api.dto.CatalogStats;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.service.CatalogStatsService;
+
+// Served from in-memory aggregates: no database access per request
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final CatalogStatsService statsService;
+
+    public StatsController(CatalogStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    // Movie count, duration mean/percentiles, movies per genre and per release year
+    @GetMapping
+    public ResponseEntity<CatalogStats> getStats() {
+        return ResponseEntity.ok(statsService.getStats());
+    }
+
+    // Actors with the most movies
+    @GetMapping("/actors")
+    public ResponseEntity<List<CatalogStats.ActorCount>> getTopActors(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return ResponseEntity.ok(statsService.getTopActors(limit));
+    }
+
+    @GetMapping("/actors/{id}")
+    public ResponseEntity<CatalogStats.ActorCount> getActor(@PathVariable Long id) {
+        return ResponseEntity.ok(statsService.getActor(id));
+    }
+}
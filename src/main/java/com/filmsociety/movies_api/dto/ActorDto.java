@@ -0,0 +1,23 @@
+package com.filmsociety.movies_api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.entity.Actor;
+
+// Read-only copy of an Actor and its filmography; in listings, movies is null unless included
+@JsonFilter(ActorDto.FIELDS_FILTER)
+public record ActorDto(Long id, String name, LocalDate birthDate, List<MovieDto> movies) {
+
+    public static final String FIELDS_FILTER = "actorFields";
+
+    public static ActorDto from(Actor actor, List<MovieDto> movies) {
+        return new ActorDto(actor.getId(), actor.getName(), actor.getBirthDate(), movies);
+    }
+
+    public static ActorDto of(ActorRef actor, List<MovieDto> movies) {
+        return new ActorDto(actor.id(), actor.name(), actor.birthDate(), movies);
+    }
+}
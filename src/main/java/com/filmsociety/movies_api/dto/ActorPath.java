@@ -0,0 +1,11 @@
+package com.filmsociety.movies_api.dto;
+
+import java.util.List;
+
+// GET /api/actors/{id}/path/{otherId}: a shortest chain of actors, each linked to the previous
+// one by a movie they were both in. degrees = number of movies in the chain.
+public record ActorPath(long fromActorId, long toActorId, int degrees, List<Step> steps) {
+
+    // viaMovieId is null for the first actor
+    public record Step(long actorId, Long viaMovieId) {}
+}
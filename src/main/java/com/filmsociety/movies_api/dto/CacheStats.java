@@ -0,0 +1,5 @@
+package com.filmsociety.movies_api.dto;
+
+// Counters of one read cache since startup (GET /api/cache/stats)
+public record CacheStats(String name, long size, long hits, long misses, double hitRate,
+                         long evictions, long loadFailures) {}
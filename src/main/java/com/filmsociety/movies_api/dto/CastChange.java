@@ -0,0 +1,7 @@
+package com.filmsociety.movies_api.dto;
+
+import java.util.Set;
+
+// One movie's entry in PATCH /api/movies/cast: either the whole cast ("set"),
+// or actor ids to add and/or remove
+public record CastChange(Long movieId, Set<Long> set, Set<Long> add, Set<Long> remove) {}
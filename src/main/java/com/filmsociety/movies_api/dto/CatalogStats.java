@@ -0,0 +1,21 @@
+package com.filmsociety.movies_api.dto;
+
+import java.util.List;
+
+// GET /api/stats: catalog-wide aggregates, kept in memory (see CatalogStatsService)
+public record CatalogStats(
+        long movies,
+        Durations duration,
+        List<GenreCount> genres,
+        List<YearCount> years) {
+
+    // Minutes; percentiles are nearest-rank, to the minute
+    public record Durations(double mean, int min, int max, int p50, int p90, int p95, int p99) {}
+
+    public record GenreCount(long genreId, String name, long movies) {}
+
+    public record YearCount(int year, long movies) {}
+
+    // GET /api/stats/actors
+    public record ActorCount(long actorId, long movies) {}
+}
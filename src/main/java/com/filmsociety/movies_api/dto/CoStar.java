@@ -0,0 +1,4 @@
+package com.filmsociety.movies_api.dto;
+
+// GET /api/actors/{id}/costars
+public record CoStar(long actorId, int sharedMovies) {}
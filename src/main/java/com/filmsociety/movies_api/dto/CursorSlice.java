@@ -0,0 +1,7 @@
+package com.filmsociety.movies_api.dto;
+
+import java.util.List;
+
+// One window of a cursor-paginated listing. There is no total count:
+// clients follow nextCursor (passed back as ?after=) until hasNext is false.
+public record CursorSlice<T>(List<T> content, int size, boolean hasNext, String nextCursor) {}
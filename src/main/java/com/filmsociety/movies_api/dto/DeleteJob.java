@@ -0,0 +1,20 @@
+package com.filmsociety.movies_api.dto;
+
+import java.time.Instant;
+
+// Progress of a background force delete (GET /api/jobs/{id}).
+// links is the count when the job started; linksDeleted can end up higher if links were added meanwhile.
+public record DeleteJob(
+        String id,
+        String type,
+        long targetId,
+        State state,
+        long links,
+        long linksDeleted,
+        int chunks,
+        Instant startedAt,
+        Instant finishedAt,
+        String error) {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+}
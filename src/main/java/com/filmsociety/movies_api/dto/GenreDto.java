@@ -0,0 +1,22 @@
+package com.filmsociety.movies_api.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.entity.Genre;
+
+// Read-only copy of a Genre and its movies; in listings, movies is null unless included
+@JsonFilter(GenreDto.FIELDS_FILTER)
+public record GenreDto(Long id, String name, List<MovieDto> movies) {
+
+    public static final String FIELDS_FILTER = "genreFields";
+
+    public static GenreDto from(Genre genre, List<MovieDto> movies) {
+        return new GenreDto(genre.getId(), genre.getName(), movies);
+    }
+
+    public static GenreDto of(GenreRef genre, List<MovieDto> movies) {
+        return new GenreDto(genre.id(), genre.name(), movies);
+    }
+}
@@ -0,0 +1,4 @@
+package com.filmsociety.movies_api.dto;
+
+// Result of a set-based relationship edit: movies whose links changed, join rows inserted and deleted
+public record LinkUpdateSummary(int movies, int linksAdded, int linksRemoved) {}
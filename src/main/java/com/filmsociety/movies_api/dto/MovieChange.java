@@ -0,0 +1,22 @@
+package com.filmsociety.movies_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One line of GET /api/movies/stream (NDJSON). op is "upsert" (movie holds the current movie, genres and
+// actors included), "delete" (id only) or "end", the last line of a complete stream. since resumes the
+// stream right after this line.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MovieChange(String op, Long id, Long version, MovieDto movie, String since) {
+
+    public static MovieChange upsert(MovieDto movie, long version, String since) {
+        return new MovieChange("upsert", movie.id(), version, movie, since);
+    }
+
+    public static MovieChange delete(long id, long version, String since) {
+        return new MovieChange("delete", id, version, null, since);
+    }
+
+    public static MovieChange end(String since) {
+        return new MovieChange("end", null, null, null, since);
+    }
+}
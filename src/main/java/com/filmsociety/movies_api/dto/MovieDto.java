@@ -0,0 +1,53 @@
+package com.filmsociety.movies_api.dto;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.filmsociety.movies_api.entity.Actor;
+import com.filmsociety.movies_api.entity.Genre;
+import com.filmsociety.movies_api.entity.Movie;
+
+// Read-only copy of a Movie with its genres and actors, detached from any session.
+// Serializes to the same JSON as the entity, so it can be cached and returned instead.
+// In listings, genres and actors are null unless included (see Projection).
+@JsonFilter(MovieDto.FIELDS_FILTER)
+public record MovieDto(Long id, String title, Integer releaseYear, Integer duration,
+                       List<GenreRef> genres, List<ActorRef> actors) {
+
+    // Jackson filter id: listings trim the JSON to the requested fields with it
+    public static final String FIELDS_FILTER = "movieFields";
+
+    public record GenreRef(Long id, String name) {}
+
+    public record ActorRef(Long id, String name, LocalDate birthDate) {}
+
+    // Genres and actors must already be loaded (see MovieRepository.findAllWithRelations)
+    public static MovieDto from(Movie movie) {
+        return new MovieDto(movie.getId(), movie.getTitle(), movie.getReleaseYear(), movie.getDuration(),
+                movie.getGenres().stream().sorted(Comparator.comparing(Genre::getId)).map(MovieDto::genreRef).toList(),
+                movie.getActors().stream().sorted(Comparator.comparing(Actor::getId)).map(MovieDto::actorRef).toList());
+    }
+
+    // From a listing row and the relations loaded for the whole page; a null map means not included
+    public static MovieDto of(MovieSummary movie, Map<Long, List<GenreRef>> genres, Map<Long, List<ActorRef>> actors) {
+        return new MovieDto(movie.id(), movie.title(), movie.releaseYear(), movie.duration(),
+                genres == null ? null : genres.getOrDefault(movie.id(), List.of()),
+                actors == null ? null : actors.getOrDefault(movie.id(), List.of()));
+    }
+
+    public static List<MovieDto> fromAll(Collection<Movie> movies) {
+        return movies.stream().map(MovieDto::from).toList();
+    }
+
+    private static GenreRef genreRef(Genre genre) {
+        return new GenreRef(genre.getId(), genre.getName());
+    }
+
+    private static ActorRef actorRef(Actor actor) {
+        return new ActorRef(actor.getId(), actor.getName(), actor.getBirthDate());
+    }
+}
@@ -0,0 +1,4 @@
+package com.filmsociety.movies_api.dto;
+
+// The columns of a movie row alone: what listings select, relations come separately (see MovieDto.of)
+public record MovieSummary(Long id, String title, Integer releaseYear, Integer duration) {}
@@ -0,0 +1,6 @@
+package com.filmsociety.movies_api.dto;
+
+import java.util.List;
+
+// Result of a lookup by id list: what was found, in the order asked for, and the ids that don't exist
+public record MultiGet<T>(List<T> items, List<Long> missing) {}
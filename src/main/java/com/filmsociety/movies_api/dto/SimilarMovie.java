@@ -0,0 +1,4 @@
+package com.filmsociety.movies_api.dto;
+
+// GET /api/movies/{id}/similar: score = shared actors and shared genres, each times its weight
+public record SimilarMovie(long movieId, double score, int sharedActors, int sharedGenres) {}
@@ -0,0 +1,4 @@
+package com.filmsociety.movies_api.dto;
+
+// GET /api/movies/trending: score = views of GET /api/movies/{id}, each halved every app.trending.half-life
+public record TrendingMovie(long movieId, String title, double score) {}
@@ -0,0 +1,20 @@
+package com.filmsociety.movies_api.dto;
+
+// A response body with the version it was read at. The ETag travels with the cached
+// body, so a client never gets a newer ETag on an older body.
+public record Versioned<T>(T body, String etag) {
+
+    public static <T> Versioned<T> of(T body, long version) {
+        return new Versioned<>(body, etag(version));
+    }
+
+    public static String etag(long version) {
+        return etag(String.valueOf(version));
+    }
+
+    // Weak: one version is served in several formats (JSON, Smile, CBOR, protobuf), gzipped or not.
+    // Tomcat also never compresses a response with a strong ETag.
+    public static String etag(String version) {
+        return "W/\"" + version + "\"";
+    }
+}
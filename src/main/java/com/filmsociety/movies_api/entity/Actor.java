@@ -1,6 +1,8 @@
 package com.filmsociety.movies_api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDate;
@@ -20,6 +22,15 @@ public class Actor {
 
     private LocalDate birthDate; // ISO 8601 format (YYYY-MM-DD)
 
+    // Stamped by database triggers whenever the row or its relationships change
+    // (see SchemaMigrator); Hibernate never writes it
+    @JsonIgnore
+    @Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private long version;
+
+    // Accepted in PATCH bodies, never written out: responses that show a filmography build it
+    // from projections (ActorDto), so serializing an actor can't lazy-load its movies
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @ManyToMany(mappedBy = "actors")
     private Set<Movie> movies = new HashSet<>();
 
@@ -34,6 +45,8 @@ public class Actor {
     // Getters and Setters
     public Long getId() { return id; }
 
+    public long getVersion() { return version; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
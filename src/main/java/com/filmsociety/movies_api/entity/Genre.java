@@ -1,5 +1,6 @@
 package com.filmsociety.movies_api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -18,6 +19,14 @@ public class Genre {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // Stamped by database triggers whenever the row or its relationships change
+    // (see SchemaMigrator); Hibernate never writes it
+    @JsonIgnore
+    @Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private long version;
+
+    // Never serialized: GenreDto carries the movies, loaded in bulk
+    @JsonIgnore
     @ManyToMany(mappedBy = "genres")
     private Set<Movie> movies = new HashSet<>();
 
@@ -32,6 +41,8 @@ public class Genre {
     public Long getId() { return id; }
     // No setter for ID to make it immutable once set by DB
 
+    public long getVersion() { return version; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
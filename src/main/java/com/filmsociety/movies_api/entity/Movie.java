@@ -1,5 +1,6 @@
 package com.filmsociety.movies_api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -24,6 +25,12 @@ public class Movie {
     @NotNull
     private Integer duration; // in minutes
 
+    // Stamped by database triggers whenever the row or its relationships change
+    // (see SchemaMigrator); Hibernate never writes it
+    @JsonIgnore
+    @Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private long version;
+
     
 
     @ManyToMany
@@ -58,6 +65,8 @@ public class Movie {
     // Getters and Setters
     public Long getId() { return id; }
 
+    public long getVersion() { return version; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
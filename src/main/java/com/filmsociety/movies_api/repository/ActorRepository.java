@@ -1,12 +1,72 @@
 package com.filmsociety.movies_api.repository;
 
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
 import com.filmsociety.movies_api.entity.Actor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public interface ActorRepository extends JpaRepository<Actor, Long> {
-    // This method allows searching for actors by name (case insensitive)
-    List<Actor> findByNameContainingIgnoreCase(String name);
+
+    // One row per (actor, movie) of the join table
+    interface MovieRow {
+        Long getActorId();
+        Long getMovieId();
+    }
+
+    // The actor columns alone, without the entity or its filmography
+    @Query("select new com.filmsociety.movies_api.dto.MovieDto$ActorRef(a.id, a.name, a.birthDate) from Actor a order by a.id")
+    List<ActorRef> findAllRefs();
+
+    @Query("select new com.filmsociety.movies_api.dto.MovieDto$ActorRef(a.id, a.name, a.birthDate) from Actor a where a.id in :ids")
+    List<ActorRef> findRefsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Actor columns by id, one query per chunk of ids; unknown ids have no entry
+    default Map<Long, ActorRef> findRefs(List<Long> ids) {
+        Map<Long, ActorRef> actors = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MovieRepository.FETCH_CHUNK_SIZE) {
+            findRefsByIdIn(ids.subList(from, Math.min(ids.size(), from + MovieRepository.FETCH_CHUNK_SIZE)))
+                    .forEach(actor -> actors.put(actor.id(), actor));
+        }
+        return actors;
+    }
+
+    @Query("select a.id as actorId, m.id as movieId from Actor a join a.movies m where a.id in :ids order by m.id")
+    List<MovieRow> findMovieRows(@Param("ids") Collection<Long> ids);
+
+    // Movie ids of each of these actors; actors without movies have no entry
+    default Map<Long, List<Long>> findMovieIds(List<Long> ids) {
+        Map<Long, List<Long>> movieIds = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MovieRepository.FETCH_CHUNK_SIZE) {
+            for (MovieRow row : findMovieRows(ids.subList(from, Math.min(ids.size(), from + MovieRepository.FETCH_CHUNK_SIZE)))) {
+                movieIds.computeIfAbsent(row.getActorId(), k -> new ArrayList<>()).add(row.getMovieId());
+            }
+        }
+        return movieIds;
+    }
+
+    // Which of these ids exist, without loading the actors
+    @Query("select a.id from Actor a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Full-text search on actor names (actors_fts index), best BM25 match first.
+    // "query" is an FTS5 MATCH expression, see FullTextQuery.
+    @Query(value = """
+            SELECT a.* FROM actors a JOIN actors_fts ON actors_fts.rowid = a.id
+             WHERE actors_fts MATCH :query
+             ORDER BY actors_fts.rank, a.id
+            """,
+            countQuery = "SELECT count(*) FROM actors_fts WHERE actors_fts MATCH :query",
+            nativeQuery = true)
+    Page<Actor> searchByName(@Param("query") String query, Pageable pageable);
 }
\ No newline at end of file
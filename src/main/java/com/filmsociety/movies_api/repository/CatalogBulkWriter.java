@@ -0,0 +1,365 @@
+package com.filmsociety.movies_api.repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Bulk write path for genres, actors, movies and their join rows.
+// JPA cannot batch inserts for IDENTITY ids, so this writes with plain JDBC batches
+// inside one transaction, with SQLite tuned for a large write while it runs.
+@Repository
+public class CatalogBulkWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    // Manages its own transactions on a raw connection, so in WAL mode it takes the
+    // writer connection directly (see SqliteWalConfig)
+    public CatalogBulkWriter(DataSource dataSource,
+                             @Qualifier("writerDataSource") Optional<DataSource> writerDataSource,
+                             @Value("${app.bulk.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(writerDataSource.orElse(dataSource));
+        this.batchSize = batchSize;
+    }
+
+    @FunctionalInterface
+    public interface BulkWork<T> {
+        T run(Batch batch) throws SQLException;
+    }
+
+    // Runs the work in a single write transaction and commits once at the end.
+    public <T> T write(BulkWork<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) con -> inTransaction(con, work));
+    }
+
+    // Same as write, with SQLite tuned for one large load (used when seeding an empty database).
+    // Must not be called from inside a Spring transaction: the pragmas below
+    // can only be changed while no transaction is open on the connection.
+    public <T> T load(BulkWork<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) con -> {
+            String synchronous = readPragma(con, "synchronous");
+            String cacheSize = readPragma(con, "cache_size");
+            String tempStore = readPragma(con, "temp_store");
+
+            // No fsync per write, a larger page cache and in-memory temp tables while loading.
+            // A crash mid-load only loses the uncommitted load itself.
+            setPragma(con, "synchronous", "OFF");
+            setPragma(con, "cache_size", "-65536");
+            setPragma(con, "temp_store", "MEMORY");
+            try {
+                return inTransaction(con, work);
+            } finally {
+                setPragma(con, "synchronous", synchronous);
+                setPragma(con, "cache_size", cacheSize);
+                setPragma(con, "temp_store", tempStore);
+            }
+        });
+    }
+
+    private <T> T inTransaction(Connection con, BulkWork<T> work) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (Batch batch = new Batch(con, batchSize)) {
+            T result = work.run(batch);
+            batch.finish();
+            con.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String readPragma(Connection con, String name) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private static void setPragma(Connection con, String name, String value) throws SQLException {
+        if (value == null) {
+            return;
+        }
+        try (Statement st = con.createStatement()) {
+            st.execute("PRAGMA " + name + " = " + value);
+        }
+    }
+
+    // A movie as stored, with the ids it is linked to
+    public record StoredMovie(long id, int duration, Set<Long> genreIds, Set<Long> actorIds) {}
+
+    // Collects inserts into prepared-statement batches and sends them every batchSize rows.
+    // Ids are assigned here (continuing from the current max id) so callers can link
+    // rows to each other before anything has been sent to the database.
+    // The per-row version triggers are off while it runs; finish() stamps every row it wrote at once.
+    public static final class Batch implements AutoCloseable {
+
+        private static final String NOW = "(SELECT version FROM catalog_clock)";
+
+        private final PreparedStatement genres;
+        private final PreparedStatement actors;
+        private final PreparedStatement movies;
+        private final PreparedStatement movieDurations;
+        private final PreparedStatement movieGenres;
+        private final PreparedStatement movieActors;
+        private final PreparedStatement unlinkGenres;
+        private final PreparedStatement unlinkActors;
+        private final PreparedStatement findMovie;
+        private final PreparedStatement findGenreIds;
+        private final PreparedStatement findActorIds;
+        private final int batchSize;
+        private final Connection con;
+        // Rows from these ids on are new; rows below them it changed are listed in the sets
+        private final long firstGenreId;
+        private final long firstActorId;
+        private final long firstMovieId;
+        private final Set<Long> changedGenres = new HashSet<>();
+        private final Set<Long> changedActors = new HashSet<>();
+        private final Set<Long> changedMovies = new HashSet<>();
+        private boolean written;
+
+        private long nextGenreId;
+        private long nextActorId;
+        private long nextMovieId;
+        private int pending;
+
+        private Batch(Connection con, int batchSize) throws SQLException {
+            this.batchSize = batchSize;
+            this.con = con;
+            // The marker row switches the version triggers off for this transaction only (see SchemaMigrator).
+            // Being a write, it also takes SQLite's write lock now, so no other writer can insert
+            // between reading the max ids and using them.
+            try (Statement st = con.createStatement()) {
+                st.executeUpdate("INSERT OR REPLACE INTO catalog_bulk_write (id) VALUES (1)");
+            }
+            this.nextGenreId = maxId(con, "genres") + 1;
+            this.nextActorId = maxId(con, "actors") + 1;
+            this.nextMovieId = maxId(con, "movies") + 1;
+            this.firstGenreId = nextGenreId;
+            this.firstActorId = nextActorId;
+            this.firstMovieId = nextMovieId;
+            this.genres = con.prepareStatement("INSERT INTO genres (id, name) VALUES (?, ?)");
+            this.actors = con.prepareStatement("INSERT INTO actors (id, name, birth_date) VALUES (?, ?, ?)");
+            this.movies = con.prepareStatement(
+                    "INSERT INTO movies (id, title, release_year, duration) VALUES (?, ?, ?, ?)");
+            this.movieDurations = con.prepareStatement("UPDATE movies SET duration = ? WHERE id = ?");
+            this.movieGenres = con.prepareStatement("INSERT INTO movie_genres (movie_id, genre_id) VALUES (?, ?)");
+            this.movieActors = con.prepareStatement("INSERT INTO movie_actors (movie_id, actor_id) VALUES (?, ?)");
+            this.unlinkGenres = con.prepareStatement("DELETE FROM movie_genres WHERE movie_id = ? AND genre_id = ?");
+            this.unlinkActors = con.prepareStatement("DELETE FROM movie_actors WHERE movie_id = ? AND actor_id = ?");
+            // Served by idx_movies_title_release_year
+            this.findMovie = con.prepareStatement(
+                    "SELECT id, duration FROM movies WHERE title = ? AND release_year = ? ORDER BY id LIMIT 1");
+            this.findGenreIds = con.prepareStatement("SELECT genre_id FROM movie_genres WHERE movie_id = ?");
+            this.findActorIds = con.prepareStatement("SELECT actor_id FROM movie_actors WHERE movie_id = ?");
+        }
+
+        public long addGenre(String name) throws SQLException {
+            long id = nextGenreId++;
+            genres.setLong(1, id);
+            genres.setString(2, name);
+            genres.addBatch();
+            added();
+            return id;
+        }
+
+        public long addActor(String name, LocalDate birthDate) throws SQLException {
+            long id = nextActorId++;
+            actors.setLong(1, id);
+            actors.setString(2, name);
+            // Same representation Hibernate uses for LocalDate columns
+            actors.setDate(3, birthDate != null ? Date.valueOf(birthDate) : null);
+            actors.addBatch();
+            added();
+            return id;
+        }
+
+        public long addMovie(String title, int releaseYear, int duration) throws SQLException {
+            long id = nextMovieId++;
+            movies.setLong(1, id);
+            movies.setString(2, title);
+            movies.setInt(3, releaseYear);
+            movies.setInt(4, duration);
+            movies.addBatch();
+            added();
+            return id;
+        }
+
+        public void updateDuration(long movieId, int duration) throws SQLException {
+            movieDurations.setInt(1, duration);
+            movieDurations.setLong(2, movieId);
+            movieDurations.addBatch();
+            changed(changedMovies, movieId, firstMovieId);
+            added();
+        }
+
+        public void linkGenre(long movieId, long genreId) throws SQLException {
+            movieGenres.setLong(1, movieId);
+            movieGenres.setLong(2, genreId);
+            movieGenres.addBatch();
+            changed(changedMovies, movieId, firstMovieId);
+            changed(changedGenres, genreId, firstGenreId);
+            added();
+        }
+
+        public void linkActor(long movieId, long actorId) throws SQLException {
+            movieActors.setLong(1, movieId);
+            movieActors.setLong(2, actorId);
+            movieActors.addBatch();
+            changed(changedMovies, movieId, firstMovieId);
+            changed(changedActors, actorId, firstActorId);
+            added();
+        }
+
+        public void unlinkGenre(long movieId, long genreId) throws SQLException {
+            unlinkGenres.setLong(1, movieId);
+            unlinkGenres.setLong(2, genreId);
+            unlinkGenres.addBatch();
+            changed(changedMovies, movieId, firstMovieId);
+            changed(changedGenres, genreId, firstGenreId);
+            added();
+        }
+
+        public void unlinkActor(long movieId, long actorId) throws SQLException {
+            unlinkActors.setLong(1, movieId);
+            unlinkActors.setLong(2, actorId);
+            unlinkActors.addBatch();
+            changed(changedMovies, movieId, firstMovieId);
+            changed(changedActors, actorId, firstActorId);
+            added();
+        }
+
+        // The oldest movie with this title and release year, or null.
+        // Reads the database, so a movie still queued in this batch is only found after a flush.
+        public StoredMovie findMovie(String title, int releaseYear) throws SQLException {
+            findMovie.setString(1, title);
+            findMovie.setInt(2, releaseYear);
+            long id;
+            int duration;
+            try (ResultSet rs = findMovie.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                id = rs.getLong(1);
+                duration = rs.getInt(2);
+            }
+            return new StoredMovie(id, duration, linkedIds(findGenreIds, id), linkedIds(findActorIds, id));
+        }
+
+        // Sends everything collected so far, parents before join rows
+        public void flush() throws SQLException {
+            if (pending == 0) {
+                return;
+            }
+            genres.executeBatch();
+            actors.executeBatch();
+            movies.executeBatch();
+            movieDurations.executeBatch();
+            unlinkGenres.executeBatch();
+            unlinkActors.executeBatch();
+            movieGenres.executeBatch();
+            movieActors.executeBatch();
+            pending = 0;
+        }
+
+        private void added() throws SQLException {
+            written = true;
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        private static void changed(Set<Long> changed, long id, long firstNewId) {
+            if (id < firstNewId) {
+                changed.add(id);
+            }
+        }
+
+        // Sends the rest, then one clock tick for the whole batch: new rows are stamped by id range,
+        // existing ones it changed by id. Removing the marker turns the triggers back on before the commit.
+        private void finish() throws SQLException {
+            flush();
+            if (written) {
+                try (Statement st = con.createStatement()) {
+                    st.executeUpdate("UPDATE catalog_clock SET version = version + 1");
+                    st.executeUpdate("UPDATE genres SET version = " + NOW + " WHERE id >= " + firstGenreId);
+                    st.executeUpdate("UPDATE actors SET version = " + NOW + " WHERE id >= " + firstActorId);
+                    st.executeUpdate("UPDATE movies SET version = " + NOW + " WHERE id >= " + firstMovieId);
+                }
+                stamp("genres", changedGenres);
+                stamp("actors", changedActors);
+                stamp("movies", changedMovies);
+            }
+            try (Statement st = con.createStatement()) {
+                st.executeUpdate("DELETE FROM catalog_bulk_write");
+            }
+        }
+
+        private void stamp(String table, Set<Long> ids) throws SQLException {
+            if (ids.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement st = con.prepareStatement("UPDATE " + table + " SET version = " + NOW + " WHERE id = ?")) {
+                int queued = 0;
+                for (long id : ids) {
+                    st.setLong(1, id);
+                    st.addBatch();
+                    if (++queued % batchSize == 0) {
+                        st.executeBatch();
+                    }
+                }
+                st.executeBatch();
+            }
+        }
+
+        private static Set<Long> linkedIds(PreparedStatement query, long movieId) throws SQLException {
+            query.setLong(1, movieId);
+            Set<Long> ids = new HashSet<>();
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+            return ids;
+        }
+
+        private static long maxId(Connection con, String table) throws SQLException {
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT coalesce(max(id), 0) FROM " + table)) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            genres.close();
+            actors.close();
+            movies.close();
+            movieDurations.close();
+            movieGenres.close();
+            movieActors.close();
+            unlinkGenres.close();
+            unlinkActors.close();
+            findMovie.close();
+            findGenreIds.close();
+            findActorIds.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.filmsociety.movies_api.repository;
+
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Version lookups for conditional GETs: indexed reads of the trigger-maintained
+// version columns, so revalidating a resource never loads its entity graph.
+// Each version covers exactly what the matching DTO shows.
+@Repository
+public class CatalogVersionRepository {
+
+    // An actor's page lists its movies; a movie's version already covers its genres and actors
+    private static final String ACTOR_VERSION_SQL = """
+            SELECT max(version) FROM (
+                SELECT version FROM actors WHERE id = ?
+                UNION ALL
+                SELECT m.version FROM movie_actors ma JOIN movies m ON m.id = ma.movie_id WHERE ma.actor_id = ?)
+            """;
+
+    private static final String GENRE_VERSION_SQL = """
+            SELECT max(version) FROM (
+                SELECT version FROM genres WHERE id = ?
+                UNION ALL
+                SELECT m.version FROM movie_genres mg JOIN movies m ON m.id = mg.movie_id WHERE mg.genre_id = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Long> findMovieVersion(long id) {
+        return jdbcTemplate.queryForList("SELECT version FROM movies WHERE id = ?", Long.class, id)
+                .stream().findFirst();
+    }
+
+    public Optional<Long> findActorVersion(long id) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(ACTOR_VERSION_SQL, Long.class, id, id));
+    }
+
+    public Optional<Long> findGenreVersion(long id) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(GENRE_VERSION_SQL, Long.class, id, id));
+    }
+
+    // Advanced by every insert, update and delete in the catalog (including deletes,
+    // which leave no row version behind), so it versions any listing
+    public long getCatalogVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM catalog_clock", Long.class);
+    }
+}
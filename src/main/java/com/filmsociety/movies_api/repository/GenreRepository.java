@@ -1,9 +1,22 @@
 package com.filmsociety.movies_api.repository;
 
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
 import com.filmsociety.movies_api.entity.Genre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface GenreRepository extends JpaRepository<Genre, Long> {
+    // Which of these ids exist, without loading the genres
+    @Query("select g.id from Genre g where g.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // The genre columns alone, without the entity or its movies
+    @Query("select new com.filmsociety.movies_api.dto.MovieDto$GenreRef(g.id, g.name) from Genre g order by g.id")
+    List<GenreRef> findAllRefs();
 }
\ No newline at end of file
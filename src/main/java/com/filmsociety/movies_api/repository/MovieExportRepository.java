@@ -0,0 +1,82 @@
+package com.filmsociety.movies_api.repository;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class MovieExportRepository {
+
+    // One row per movie with the genre/actor names already joined by the database, a page of movies
+    // after a given id at a time. No entities, no persistence context and no lazy collection loads
+    // per movie; each page is an index range scan on the primary key.
+    private static final String MOVIE_ROWS_SQL = """
+            SELECT m.id, m.title, m.release_year, m.duration,
+                   (SELECT group_concat(g.name, '|')
+                      FROM movie_genres mg JOIN genres g ON g.id = mg.genre_id
+                     WHERE mg.movie_id = m.id) AS genre_names,
+                   (SELECT group_concat(a.name, '|')
+                      FROM movie_actors ma JOIN actors a ON a.id = ma.actor_id
+                     WHERE ma.movie_id = m.id) AS actor_names
+              FROM movies m
+             WHERE m.id > ?
+             ORDER BY m.id
+             LIMIT ?
+            """;
+
+    // Live movies and deletions (SchemaMigrator's movie_tombstones) changed after a (version, id) position
+    // and up to a catalog version, merged in (version, id) order, one bounded page at a time. Both arms are
+    // read off their (version, id) indexes, so a page costs its own rows whatever the catalog size.
+    // Genres and actors come as JSON arrays of [id, name] / [id, name, birth_date], ordered by id.
+    private static final String CHANGE_ROWS_SQL = """
+            SELECT m.version, m.id, 0 AS deleted, m.title, m.release_year, m.duration,
+                   (SELECT json_group_array(json_array(g.id, g.name) ORDER BY g.id)
+                      FROM movie_genres mg JOIN genres g ON g.id = mg.genre_id
+                     WHERE mg.movie_id = m.id) AS genres,
+                   (SELECT json_group_array(json_array(a.id, a.name, a.birth_date) ORDER BY a.id)
+                      FROM movie_actors ma JOIN actors a ON a.id = ma.actor_id
+                     WHERE ma.movie_id = m.id) AS actors
+              FROM movies m
+             WHERE (m.version, m.id) > (?, ?) AND m.version <= ?
+            UNION ALL
+            SELECT t.version, t.movie_id, 1, NULL, NULL, NULL, NULL, NULL
+              FROM movie_tombstones t
+             WHERE (t.version, t.movie_id) > (?, ?) AND t.version <= ?
+             ORDER BY 1, 2
+             LIMIT ?
+            """;
+
+    // A row of MOVIE_ROWS_SQL; genre and actor names are '|'-separated, null when there are none
+    public record MovieRow(long id, String title, int releaseYear, int duration, String genreNames, String actorNames) {}
+
+    // A row of CHANGE_ROWS_SQL; only version and id are set on a deletion
+    public record ChangeRow(long version, long id, boolean deleted, String title, int releaseYear, int duration,
+                            String genres, String actors) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieExportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // Up to limit movies with an id above afterId, in id order; read in full before returning
+    public List<MovieRow> findMovieRows(long afterId, int limit) {
+        return jdbcTemplate.query(MOVIE_ROWS_SQL, (rs, rowNum) -> new MovieRow(rs.getLong(1), rs.getString(2),
+                rs.getInt(3), rs.getInt(4), rs.getString(5), rs.getString(6)), afterId, limit);
+    }
+
+    // Read in full before returning: no statement stays open while the caller writes the rows out
+    public List<ChangeRow> findChanges(long sinceVersion, long sinceId, long upToVersion, int limit) {
+        return jdbcTemplate.query(CHANGE_ROWS_SQL, (rs, rowNum) -> new ChangeRow(rs.getLong(1), rs.getLong(2),
+                        rs.getInt(3) == 1, rs.getString(4), rs.getInt(5), rs.getInt(6), rs.getString(7), rs.getString(8)),
+                sinceVersion, sinceId, upToVersion, sinceVersion, sinceId, upToVersion, limit);
+    }
+
+    public long currentVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM catalog_clock", Long.class);
+        return version != null ? version : 0;
+    }
+}
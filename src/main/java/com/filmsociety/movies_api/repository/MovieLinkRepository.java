@@ -0,0 +1,115 @@
+package com.filmsociety.movies_api.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Direct access to the movie_actors / movie_genres join tables, for set-based relationship
+// edits: read the current links of many movies at once, then insert or delete only the rows
+// that change, in JDBC batches. Runs on the connection of the surrounding JPA transaction.
+// The version triggers still fire per row, so ETags stay exact.
+@Repository
+public class MovieLinkRepository {
+
+    public enum Link {
+        ACTORS("movie_actors", "actor_id"),
+        GENRES("movie_genres", "genre_id");
+
+        private final String table;
+        private final String column;
+
+        Link(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieLinkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Linked ids per movie; every requested movie has an entry, empty if it has no links
+    public Map<Long, Set<Long>> findLinks(Link link, Collection<Long> movieIds) {
+        Map<Long, Set<Long>> links = new HashMap<>();
+        movieIds.forEach(id -> links.put(id, new HashSet<>()));
+        List<Long> ids = new ArrayList<>(movieIds);
+        for (int from = 0; from < ids.size(); from += MovieRepository.FETCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MovieRepository.FETCH_CHUNK_SIZE));
+            String sql = "SELECT movie_id, " + link.column + " FROM " + link.table
+                    + " WHERE movie_id IN (" + placeholders(chunk.size()) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                links.get(rs.getLong(1)).add(rs.getLong(2));
+            }, chunk.toArray());
+        }
+        return links;
+    }
+
+    // The other direction: movies linked to one actor or genre
+    public Set<Long> findMovieIds(Link link, long linkedId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT movie_id FROM " + link.table + " WHERE " + link.column + " = ?", Long.class, linkedId));
+    }
+
+    // One page of them, by movie id, off the (genre_id, movie_id) / (actor_id, movie_id) index
+    public List<Long> findMovieIds(Link link, long linkedId, long offset, int limit) {
+        return jdbcTemplate.queryForList("SELECT movie_id FROM " + link.table + " WHERE " + link.column + " = ?"
+                + " ORDER BY movie_id LIMIT ? OFFSET ?", Long.class, linkedId, limit, offset);
+    }
+
+    public long countMovies(Link link, long linkedId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + link.table + " WHERE " + link.column + " = ?", Long.class, linkedId);
+        return count != null ? count : 0;
+    }
+
+    // Unlinks one actor or genre from every movie, in one statement
+    public int deleteAll(Link link, long linkedId) {
+        return jdbcTemplate.update("DELETE FROM " + link.table + " WHERE " + link.column + " = ?", linkedId);
+    }
+
+    // Unlinks one actor or genre from at most limit movies, so a chunked delete keeps each write transaction short.
+    // Returns the movies unlinked, for the in-memory indexes.
+    public List<Long> deleteSome(Link link, long linkedId, int limit) {
+        List<Long> movieIds = jdbcTemplate.queryForList(
+                "SELECT movie_id FROM " + link.table + " WHERE " + link.column + " = ? LIMIT ?", Long.class, linkedId, limit);
+        if (!movieIds.isEmpty()) {
+            List<Object> args = new ArrayList<>(movieIds.size() + 1);
+            args.add(linkedId);
+            args.addAll(movieIds);
+            jdbcTemplate.update("DELETE FROM " + link.table + " WHERE " + link.column + " = ? AND movie_id IN ("
+                    + placeholders(movieIds.size()) + ")", args.toArray());
+        }
+        return movieIds;
+    }
+
+    public int insert(Link link, Map<Long, Set<Long>> linksByMovie) {
+        return batch("INSERT INTO " + link.table + " (movie_id, " + link.column + ") VALUES (?, ?)", linksByMovie);
+    }
+
+    public int delete(Link link, Map<Long, Set<Long>> linksByMovie) {
+        return batch("DELETE FROM " + link.table + " WHERE movie_id = ? AND " + link.column + " = ?", linksByMovie);
+    }
+
+    private int batch(String sql, Map<Long, Set<Long>> linksByMovie) {
+        List<Object[]> rows = new ArrayList<>();
+        linksByMovie.forEach((movieId, linkedIds) -> linkedIds.forEach(linkedId -> rows.add(new Object[] {movieId, linkedId})));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+        return rows.size();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,22 @@
+package com.filmsociety.movies_api.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.filmsociety.movies_api.dto.MovieSummary;
+import com.filmsociety.movies_api.entity.Movie;
+
+// Listing queries built from Specifications: one narrow SELECT of the movie columns for a page
+// or keyset window, no entities and no joins beyond the filters. The service then adds the
+// relations a request includes, one query each.
+public interface MovieListingQueries {
+
+    Page<MovieSummary> findSummaries(Specification<Movie> spec, Pageable pageable);
+
+    // Without a count: for keyset windows
+    List<MovieSummary> findSummaries(Specification<Movie> spec, Sort sort, int limit);
+}
@@ -0,0 +1,73 @@
+package com.filmsociety.movies_api.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.filmsociety.movies_api.dto.MovieSummary;
+import com.filmsociety.movies_api.entity.Movie;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+class MovieListingQueriesImpl implements MovieListingQueries {
+
+    private final EntityManager entityManager;
+
+    MovieListingQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<MovieSummary> findSummaries(Specification<Movie> spec, Pageable pageable) {
+        List<MovieSummary> movies = entityManager.createQuery(summaryQuery(spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // The count only runs when the page alone can't tell the total
+        return PageableExecutionUtils.getPage(movies, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<MovieSummary> findSummaries(Specification<Movie> spec, Sort sort, int limit) {
+        return entityManager.createQuery(summaryQuery(spec, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private CriteriaQuery<MovieSummary> summaryQuery(Specification<Movie> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MovieSummary> query = cb.createQuery(MovieSummary.class);
+        Root<Movie> root = query.from(Movie.class);
+        query.select(cb.construct(MovieSummary.class,
+                root.get("id"), root.get("title"), root.get("releaseYear"), root.get("duration")));
+        where(query, spec.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return query;
+    }
+
+    private long count(Specification<Movie> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Movie> root = query.from(Movie.class);
+        query.select(cb.count(root));
+        where(query, spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // No filters at all gives no predicate
+    private static void where(AbstractQuery<?> query, Predicate predicate) {
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
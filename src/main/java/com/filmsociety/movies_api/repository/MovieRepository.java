@@ -1,22 +1,152 @@
 package com.filmsociety.movies_api.repository;
 
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.dto.MovieSummary;
 import com.filmsociety.movies_api.entity.Movie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long> {
+public interface MovieRepository extends JpaRepository<Movie, Long>, MovieListingQueries {
 
-    // --- PAGINATION METHODS (For the Controller/API) ---
-    
-    Page<Movie> findByReleaseYear(Integer releaseYear, Pageable pageable);
+    // Ids per IN list when batch-fetching movies
+    int FETCH_CHUNK_SIZE = 500;
+
+    // --- LISTING METHODS (For the Controller/API) ---
+    // findSummaries(...) from MovieListingQueries selects the columns of one page or keyset
+    // window, filtered with MovieSpecifications. The service then adds the genres and actors
+    // a request includes through the projections below: no entities, no lazy loading.
+
+    // Interface projections of the join tables, one row per (movie, genre) or (movie, actor)
+    interface GenreRow {
+        Long getMovieId();
+        Long getId();
+        String getName();
+    }
+
+    interface ActorRow {
+        Long getMovieId();
+        Long getId();
+        String getName();
+        LocalDate getBirthDate();
+    }
+
+    @Query("select new com.filmsociety.movies_api.dto.MovieSummary(m.id, m.title, m.releaseYear, m.duration)"
+            + " from Movie m where m.id in :ids")
+    List<MovieSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select m.id as movieId, g.id as id, g.name as name from Movie m join m.genres g"
+            + " where m.id in :ids order by g.id")
+    List<GenreRow> findGenreRows(@Param("ids") Collection<Long> ids);
+
+    @Query("select m.id as movieId, a.id as id, a.name as name, a.birthDate as birthDate from Movie m join m.actors a"
+            + " where m.id in :ids order by a.id")
+    List<ActorRow> findActorRows(@Param("ids") Collection<Long> ids);
+
+    // Genres of each of these movies, by id; movies without genres have no entry
+    default Map<Long, List<GenreRef>> findGenreRefs(List<Long> ids) {
+        Map<Long, List<GenreRef>> genres = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            for (GenreRow row : findGenreRows(ids.subList(from, Math.min(ids.size(), from + FETCH_CHUNK_SIZE)))) {
+                genres.computeIfAbsent(row.getMovieId(), k -> new ArrayList<>()).add(new GenreRef(row.getId(), row.getName()));
+            }
+        }
+        return genres;
+    }
+
+    // Actors of each of these movies, by id; movies without actors have no entry
+    default Map<Long, List<ActorRef>> findActorRefs(List<Long> ids) {
+        Map<Long, List<ActorRef>> actors = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            for (ActorRow row : findActorRows(ids.subList(from, Math.min(ids.size(), from + FETCH_CHUNK_SIZE)))) {
+                actors.computeIfAbsent(row.getMovieId(), k -> new ArrayList<>())
+                        .add(new ActorRef(row.getId(), row.getName(), row.getBirthDate()));
+            }
+        }
+        return actors;
+    }
 
-    Page<Movie> findByGenres_Id(Long genreId, Pageable pageable);
+    // Movie columns by id, one query per chunk of ids; unknown ids have no entry
+    default Map<Long, MovieSummary> findSummaries(List<Long> ids) {
+        Map<Long, MovieSummary> moviesById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            findSummariesByIdIn(ids.subList(from, Math.min(ids.size(), from + FETCH_CHUNK_SIZE)))
+                    .forEach(movie -> moviesById.put(movie.id(), movie));
+        }
+        return moviesById;
+    }
 
-    Page<Movie> findByActors_Id(Long actorId, Pageable pageable);
+    // Full read model of these movies, in the order of the ids, from three narrow queries per chunk
+    default List<MovieDto> findDtos(List<Long> ids) {
+        Map<Long, MovieSummary> moviesById = findSummaries(ids);
+        Map<Long, List<GenreRef>> genres = findGenreRefs(ids);
+        Map<Long, List<ActorRef>> actors = findActorRefs(ids);
+        List<MovieDto> movies = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MovieSummary movie = moviesById.get(id);
+            if (movie != null) {
+                movies.add(MovieDto.of(movie, genres, actors));
+            }
+        }
+        return movies;
+    }
+
+    // --- BATCH FETCH METHODS ---
+    // Fetching both collections in one query would multiply the rows (genres x actors),
+    // so each collection gets its own query. Both run in the same persistence context,
+    // which leaves every movie fully initialised.
+
+    @Query("select m from Movie m left join fetch m.genres where m.id in :ids")
+    List<Movie> findWithGenresByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select m from Movie m left join fetch m.actors where m.id in :ids")
+    List<Movie> findWithActorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Loads the movies with these ids, genres and actors included, in the order of the ids.
+    // Two queries per chunk of ids, whatever their number (chunks stay below SQLite's bind limit).
+    default List<Movie> findAllWithRelations(List<Long> ids) {
+        Map<Long, Movie> moviesById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + FETCH_CHUNK_SIZE));
+            for (Movie movie : findWithGenresByIdIn(chunk)) {
+                moviesById.put(movie.getId(), movie);
+            }
+            // Same persistence context: this initialises the actors of the movies loaded above
+            findWithActorsByIdIn(chunk);
+        }
+
+        List<Movie> movies = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Movie movie = moviesById.get(id);
+            if (movie != null) {
+                movies.add(movie);
+            }
+        }
+        return movies;
+    }
+
+    // Which of these ids exist, without loading the movies
+    @Query("select m.id from Movie m where m.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // One movie with genres and actors: the same two queries as findAllWithRelations, not one
+    // fetch join over both collections (genres x actors rows)
+    default Optional<Movie> findWithRelationsById(Long id) {
+        return findAllWithRelations(List.of(id)).stream().findFirst();
+    }
 
     // --- STANDARD LIST METHODS (For Service Logic / Deletion Checks) ---
     // We need these because ActorService and GenreService use them to check 
@@ -26,7 +156,16 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
 
     List<Movie> findByActors_Id(Long actorId);
     
-    // --- SEARCH METHOD (Restoring the missing method) ---
-    
-    List<Movie> findByTitleContainingIgnoreCase(String title);
-}
\ No newline at end of file
+    // --- SEARCH METHOD ---
+    // Full-text search on the movies_fts index (see SchemaMigrator), best BM25 match first.
+    // "query" is an FTS5 MATCH expression, see FullTextQuery.
+
+    @Query(value = """
+            SELECT m.* FROM movies m JOIN movies_fts ON movies_fts.rowid = m.id
+             WHERE movies_fts MATCH :query
+             ORDER BY movies_fts.rank, m.id
+            """,
+            countQuery = "SELECT count(*) FROM movies_fts WHERE movies_fts MATCH :query",
+            nativeQuery = true)
+    Page<Movie> searchByTitle(@Param("query") String query, Pageable pageable);
+}
@@ -0,0 +1,55 @@
+package com.filmsociety.movies_api.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.filmsociety.movies_api.entity.Movie;
+
+// Building blocks for movie listings. Each one is a single predicate, so any
+// subset can be combined with Specification.allOf(...). Each filter is backed by an
+// index: movies(release_year, id), movies(duration, id), movie_genres(genre_id, movie_id)
+// and movie_actors(actor_id, movie_id) (see SchemaMigrator).
+public final class MovieSpecifications {
+
+    private MovieSpecifications() {}
+
+    public static Specification<Movie> hasGenre(Long genreId) {
+        return (root, query, cb) -> cb.equal(root.join("genres").get("id"), genreId);
+    }
+
+    public static Specification<Movie> hasActor(Long actorId) {
+        return (root, query, cb) -> cb.equal(root.join("actors").get("id"), actorId);
+    }
+
+    public static Specification<Movie> releasedIn(Integer year) {
+        return (root, query, cb) -> cb.equal(root.get("releaseYear"), year);
+    }
+
+    public static Specification<Movie> releasedFrom(Integer year) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("releaseYear"), year);
+    }
+
+    public static Specification<Movie> releasedUntil(Integer year) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("releaseYear"), year);
+    }
+
+    public static Specification<Movie> lastingAtLeast(Integer minutes) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("duration"), minutes);
+    }
+
+    public static Specification<Movie> lastingAtMost(Integer minutes) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("duration"), minutes);
+    }
+
+    // Keyset condition: rows strictly after (value, id) in "ORDER BY property [DESC], id ASC"
+    public static <T extends Comparable<? super T>> Specification<Movie> after(
+            String property, boolean descending, T value, long lastId) {
+        return (root, query, cb) -> {
+            if (property.equals("id")) {
+                return descending ? cb.lessThan(root.get("id"), lastId) : cb.greaterThan(root.get("id"), lastId);
+            }
+            var path = root.<T>get(property);
+            var beyond = descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+            return cb.or(beyond, cb.and(cb.equal(path, value), cb.greaterThan(root.get("id"), lastId)));
+        };
+    }
+}
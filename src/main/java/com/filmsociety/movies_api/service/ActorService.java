@@ -1,32 +1,65 @@
 package com.filmsociety.movies_api.service;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.filmsociety.movies_api.config.CacheConfig;
+import com.filmsociety.movies_api.dto.ActorDto;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MultiGet;
+import com.filmsociety.movies_api.dto.Versioned;
 import com.filmsociety.movies_api.entity.Actor;
 import com.filmsociety.movies_api.entity.Movie;
 import com.filmsociety.movies_api.exception.BadRequestException;
 import com.filmsociety.movies_api.exception.ResourceNotFoundException;  // For the Movie entity
 import com.filmsociety.movies_api.repository.ActorRepository;        // For the Set collection type
+import com.filmsociety.movies_api.repository.MovieLinkRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
 import com.filmsociety.movies_api.repository.MovieRepository;         // For the HashSet implementation
+import com.filmsociety.movies_api.service.MovieLinkService.Edit;
 
 @Service
 public class ActorService {
 
     private final ActorRepository actorRepository;
     private final MovieRepository movieRepository;
-
-    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository) {
+    private final MovieLinkRepository linkRepository;
+    private final MovieLinkService linkService;
+    private final CatalogCacheInvalidator cacheInvalidator;
+    private final CatalogStatsService statsService;
+    private final CatalogGraphService graphService;
+    private final MovieFilterIndex filterIndex;
+    private final CatalogSnapshotService snapshotService;
+
+    public ActorService(ActorRepository actorRepository, MovieRepository movieRepository,
+                        MovieLinkRepository linkRepository, MovieLinkService linkService,
+                        CatalogCacheInvalidator cacheInvalidator, CatalogStatsService statsService,
+                        CatalogGraphService graphService, MovieFilterIndex filterIndex,
+                        CatalogSnapshotService snapshotService) {
         this.actorRepository = actorRepository;
         this.movieRepository = movieRepository;
+        this.linkRepository = linkRepository;
+        this.linkService = linkService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.statsService = statsService;
+        this.graphService = graphService;
+        this.filterIndex = filterIndex;
+        this.snapshotService = snapshotService;
     }
 
-    public List<Actor> getAllActors() {
-        return actorRepository.findAll();
+    // GET /api/actors: every actor, each filmography only if included (see withMovies)
+    @Transactional(readOnly = true)
+    public List<ActorDto> getAllActors(Projection projection) {
+        return withMovies(actorRepository.findAllRefs(), projection);
     }
 
     public Actor getActorById(Long id) {
@@ -34,14 +67,57 @@ public class ActorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Actor not found with id: " + id));
     }
 
-    public List<Actor> searchActorsByName(String name) {
-        return actorRepository.findByNameContainingIgnoreCase(name);
+    // Cached read model of GET /api/actors/{id}: the actor and its movies, loaded in three queries
+    @Cacheable(cacheNames = CacheConfig.ACTORS, key = "#id")
+    @Transactional(readOnly = true)
+    public Versioned<ActorDto> getActorDto(Long id) {
+        Actor actor = getActorById(id);
+        List<Long> movieIds = movieRepository.findByActors_Id(id).stream().map(Movie::getId).sorted().toList();
+        List<Movie> movies = movieRepository.findAllWithRelations(movieIds);
+        // Same rule as CatalogVersionRepository.findActorVersion
+        long version = movies.stream().mapToLong(Movie::getVersion).reduce(actor.getVersion(), Math::max);
+        return Versioned.of(ActorDto.from(actor, MovieDto.fromAll(movies)), version);
+    }
+
+    // Full-text search on names (prefix and multi-word, best match first)
+    @Transactional(readOnly = true)
+    public List<ActorDto> searchActorsByName(String name, int page, int size, Projection projection) {
+        List<ActorRef> matches = actorRepository.searchByName(FullTextQuery.prefixMatch(name), PageRequest.of(page, size))
+                .map(actor -> new ActorRef(actor.getId(), actor.getName(), actor.getBirthDate()))
+                .getContent();
+        return withMovies(matches, projection);
+    }
+
+    // GET /api/actors?ids=3,1,2
+    @Transactional(readOnly = true)
+    public MultiGet<ActorDto> getActorsByIds(List<Long> ids, Projection projection) {
+        List<Long> requested = IdList.distinct(ids);
+        return IdList.collect(requested, actorRepository.findRefs(requested), actors -> withMovies(actors, projection));
+    }
+
+    // Filmographies for a whole list of actors at once: their movie ids, then each movie once
+    // (see MovieRepository.findDtos), instead of one lazy load per actor and per movie
+    private List<ActorDto> withMovies(List<ActorRef> actors, Projection projection) {
+        if (!projection.includes("movies")) {
+            return actors.stream().map(actor -> ActorDto.of(actor, null)).toList();
+        }
+        Map<Long, List<Long>> movieIds = actorRepository.findMovieIds(actors.stream().map(ActorRef::id).toList());
+        Map<Long, MovieDto> movies = new HashMap<>();
+        for (MovieDto movie : movieRepository.findDtos(movieIds.values().stream().flatMap(List::stream).distinct().toList())) {
+            movies.put(movie.id(), movie);
+        }
+        return actors.stream()
+                .map(actor -> ActorDto.of(actor, movieIds.getOrDefault(actor.id(), List.of()).stream().map(movies::get).toList()))
+                .toList();
     }
 
     public Actor createActor(Actor actor) {
-        return actorRepository.save(actor);
+        Actor saved = actorRepository.save(actor);
+        snapshotService.linkedChanged(Link.ACTORS, saved.getId());
+        return saved;
     }
 
+    @Transactional
     public Actor updateActor(Long id, Actor actorDetails) {
         Actor actor = getActorById(id);
         if (actorDetails.getName() != null) {
@@ -61,53 +137,66 @@ public class ActorService {
         }
 
 
-        // --- ADD LOGIC TO HANDLE MOVIES RELATIONSHIP ---
-        if (actorDetails.getMovies() != null) {
-            // This line replaces the actor's entire filmography with the set provided in the JSON.
-            actor.setMovies(actorDetails.getMovies());
+        // Replacing the filmography goes through the join table (Movie owns the relationship).
+        // A body without "movies" binds to an empty set, so like updateMovie, empty means "leave as is".
+        if (actorDetails.getMovies() != null && !actorDetails.getMovies().isEmpty()) {
+            replaceMovies(id, actorDetails.getMovies());
         }
-        // ------------------------------------------------
 
+        cacheInvalidator.actorChanged(id);
+        snapshotService.linkedChanged(Link.ACTORS, id);
         return actorRepository.save(actor);
     }
 
     @Transactional
     public Actor setActorMovies(Long actorId, Set<Movie> finalMovieList) {
-        // 1. Retrieve the existing Actor.
+        // 1. Retrieve the existing Actor (404 if the id is bad).
         Actor actor = getActorById(actorId);
 
-        // 2. Look up the Movie IDs provided in the list and convert them to managed entities.
-        Set<Movie> moviesToSet = new HashSet<>();
-        for (Movie movie : finalMovieList) {
+        // 2. Simple replacement: only the links that differ are written, and the movie ids are checked in one query
+        replaceMovies(actorId, finalMovieList);
+        return actor;
+    }
+
+    // Links the actor to exactly these movies: one edit per movie gaining or losing the actor
+    private void replaceMovies(Long actorId, Set<Movie> movies) {
+        Set<Long> wanted = new HashSet<>();
+        for (Movie movie : movies) {
             if (movie.getId() != null) {
-                // Find the persistent Movie entity
-                Movie foundMovie = movieRepository.findById(movie.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + movie.getId()));
-                moviesToSet.add(foundMovie);
+                wanted.add(movie.getId());
             }
         }
-        
-        // 3. Simple replacement: Overwrite the old list entirely.
-        actor.setMovies(moviesToSet);
-        
-        // 4. Save and return the updated actor.
-        return actorRepository.save(actor);
+        Set<Long> current = linkRepository.findMovieIds(Link.ACTORS, actorId);
+
+        Map<Long, Edit> edits = new HashMap<>();
+        for (Long movieId : wanted) {
+            if (!current.contains(movieId)) {
+                edits.put(movieId, Edit.add(Set.of(actorId)));
+            }
+        }
+        for (Long movieId : current) {
+            if (!wanted.contains(movieId)) {
+                edits.put(movieId, Edit.remove(Set.of(actorId)));
+            }
+        }
+        linkService.apply(Link.ACTORS, edits);
     }
 
+    // The guard counts join rows and force unlinks in one statement: no movie is loaded either way.
+    // For actors in very many movies, DeleteJobService does the same in chunks, in the background.
     @Transactional
     public void deleteActor(Long id, boolean force) {
         Actor actor = getActorById(id);
-        List<Movie> movies = movieRepository.findByActors_Id(id);
+        long movies = linkRepository.countMovies(Link.ACTORS, id);
 
-        if (!movies.isEmpty()) {
-            if (!force) {
-                throw new BadRequestException("Unable to delete actor '" + actor.getName() + "' as they are associated with " + movies.size() + " movies");
-            }
-            for (Movie movie : movies) {
-                movie.getActors().remove(actor);
-                movieRepository.save(movie);
-            }
+        if (movies > 0 && !force) {
+            throw new BadRequestException("Unable to delete actor '" + actor.getName() + "' as they are associated with " + movies + " movies");
         }
+        cacheInvalidator.actorChanged(id);  // Only applied if the delete commits
+        statsService.linksRemoved(Link.ACTORS, id, linkRepository.deleteAll(Link.ACTORS, id));
+        graphService.linkedRemoved(Link.ACTORS, id);
+        filterIndex.linkedRemoved(Link.ACTORS, id);
+        snapshotService.linkedChanged(Link.ACTORS, id);
         actorRepository.delete(actor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// One direction of a CatalogGraph relationship in CSR form: the sorted neighbours of vertex v are
+// targets[offsets[v]] .. targets[offsets[v + 1] - 1]. Two int arrays, whatever the edge count.
+// Rows changed since the build live in a side map (whole rows, still sorted) until compact()
+// folds them back into fresh arrays. Not thread-safe: CatalogGraphService guards it.
+final class Adjacency {
+
+    private static final int[] NONE = new int[0];
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final Map<Integer, int[]> replaced = new HashMap<>();
+
+    private Adjacency(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    // From an edge list: sources[i] -> destinations[i] for i < edges (a counting sort)
+    static Adjacency of(int vertices, int[] sources, int[] destinations, int edges) {
+        int[] offsets = new int[vertices + 1];
+        for (int i = 0; i < edges; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int v = 0; v < vertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, vertices);
+        int[] targets = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            targets[next[sources[i]]++] = destinations[i];
+        }
+        for (int v = 0; v < vertices; v++) {
+            Arrays.sort(targets, offsets[v], offsets[v + 1]);
+        }
+        return new Adjacency(offsets, targets);
+    }
+
+    int degree(int v) {
+        int[] row = replaced.get(v);
+        if (row != null) {
+            return row.length;
+        }
+        return v + 1 < offsets.length ? offsets[v + 1] - offsets[v] : 0;
+    }
+
+    void forEach(int v, IntConsumer action) {
+        int[] row = replaced.get(v);
+        if (row != null) {
+            for (int target : row) {
+                action.accept(target);
+            }
+        } else if (v + 1 < offsets.length) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                action.accept(targets[i]);
+            }
+        }
+    }
+
+    // A sorted copy of the row
+    int[] row(int v) {
+        int[] row = replaced.get(v);
+        if (row != null) {
+            return row.clone();
+        }
+        return v + 1 < offsets.length ? Arrays.copyOfRange(targets, offsets[v], offsets[v + 1]) : NONE;
+    }
+
+    // Neighbours of v also in values (sorted), by merging: no copy of the row
+    int countCommon(int v, int[] values) {
+        int[] row = replaced.get(v);
+        int[] array = row != null ? row : targets;
+        int from = row != null ? 0 : v + 1 < offsets.length ? offsets[v] : 0;
+        int to = row != null ? row.length : v + 1 < offsets.length ? offsets[v + 1] : 0;
+        int common = 0;
+        for (int i = from, j = 0; i < to && j < values.length; ) {
+            if (array[i] < values[j]) {
+                i++;
+            } else if (array[i] > values[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+
+    void edit(int v, Collection<Integer> add, Collection<Integer> remove) {
+        int[] row = IntStream.concat(
+                        Arrays.stream(row(v)).filter(target -> !remove.contains(target)),
+                        add.stream().mapToInt(Integer::intValue))
+                .distinct().sorted().toArray();
+        replaced.put(v, row);
+    }
+
+    void clear(int v) {
+        replaced.put(v, NONE);
+    }
+
+    int replacedRows() {
+        return replaced.size();
+    }
+
+    Adjacency compact(int vertices) {
+        int[] offsets = new int[vertices + 1];
+        for (int v = 0; v < vertices; v++) {
+            offsets[v + 1] = offsets[v] + degree(v);
+        }
+        int[] targets = new int[offsets[vertices]];
+        for (int v = 0; v < vertices; v++) {
+            int[] row = replaced.get(v);
+            if (row != null) {
+                System.arraycopy(row, 0, targets, offsets[v], row.length);
+            } else if (v + 1 < this.offsets.length) {
+                System.arraycopy(this.targets, this.offsets[v], targets, offsets[v], offsets[v + 1] - offsets[v]);
+            }
+        }
+        return new Adjacency(offsets, targets);
+    }
+}
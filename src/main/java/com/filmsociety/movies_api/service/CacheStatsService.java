@@ -0,0 +1,39 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import com.filmsociety.movies_api.dto.CacheStats;
+
+// Reads the native Caffeine statistics (enabled by recordStats in app.cache.spec)
+@Service
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    public CacheStatsService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public List<CacheStats> getStats() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(name -> stats(name, cacheManager.getCache(name)))
+                .toList();
+    }
+
+    private static CacheStats stats(String name, Cache cache) {
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine = ((CaffeineCache) cache).getNativeCache();
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = caffeine.stats();
+        return new CacheStats(name, caffeine.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount(), stats.loadFailureCount());
+    }
+}
@@ -0,0 +1,115 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.filmsociety.movies_api.config.CacheConfig;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.repository.MovieLinkRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// Works out which cached DTOs a write makes stale. The DTOs embed each other:
+// a movie shows its genres and actors, and actors and genres show their movies.
+// So touching a movie evicts the movie, every actor and genre it lists, and the genre list.
+// Touching an actor or genre evicts it plus everything its movies touch (found by id in the join tables).
+// Call it with the state before and after the change, so old and new relations are covered.
+// Evictions are deferred to commit by the transaction-aware caches (see CacheConfig).
+@Component
+public class CatalogCacheInvalidator {
+
+    private final MovieLinkRepository linkRepository;
+    private final Cache movies;
+    private final Cache actors;
+    private final Cache genres;
+    private final Cache genreList;
+    // Past this many movies it is cheaper to drop the caches than to evict entry by entry
+    private final int maxPreciseMovies;
+
+    public CatalogCacheInvalidator(MovieLinkRepository linkRepository, CacheManager cacheManager,
+                                   @Value("${app.cache.max-precise-evictions}") int maxPreciseMovies) {
+        this.linkRepository = linkRepository;
+        this.movies = cacheManager.getCache(CacheConfig.MOVIES);
+        this.actors = cacheManager.getCache(CacheConfig.ACTORS);
+        this.genres = cacheManager.getCache(CacheConfig.GENRES);
+        this.genreList = cacheManager.getCache(CacheConfig.GENRE_LIST);
+        this.maxPreciseMovies = maxPreciseMovies;
+    }
+
+    public void movieChanged(Movie movie) {
+        moviesChanged(List.of(movie));
+    }
+
+    // The movies' genres and actors must be loaded, or are lazily loaded one by one
+    public void moviesChanged(Collection<Movie> changed) {
+        genreList.clear();
+        if (changed.size() > maxPreciseMovies) {
+            clearAll();
+            return;
+        }
+        Set<Long> actorIds = new HashSet<>();
+        Set<Long> genreIds = new HashSet<>();
+        for (Movie movie : changed) {
+            movies.evict(movie.getId());
+            movie.getActors().forEach(actor -> actorIds.add(actor.getId()));
+            movie.getGenres().forEach(genre -> genreIds.add(genre.getId()));
+        }
+        actorIds.forEach(actors::evict);
+        genreIds.forEach(genres::evict);
+    }
+
+    // For set-based link edits (MovieLinkService), which know every id involved without loading entities:
+    // the movies, and all actors and genres linked to them before or after the edit
+    public void linksChanged(Collection<Long> movieIds, Collection<Long> actorIds, Collection<Long> genreIds) {
+        genreList.clear();
+        if (movieIds.size() > maxPreciseMovies) {
+            clearAll();
+            return;
+        }
+        movieIds.forEach(movies::evict);
+        actorIds.forEach(actors::evict);
+        genreIds.forEach(genres::evict);
+    }
+
+    public void actorChanged(Long actorId) {
+        actors.evict(actorId);
+        linkedMoviesChanged(Link.ACTORS, actorId);
+    }
+
+    public void genreChanged(Long genreId) {
+        genres.evict(genreId);
+        linkedMoviesChanged(Link.GENRES, genreId);
+    }
+
+    public void genreListChanged() {
+        genreList.clear();
+    }
+
+    // Works from the join tables, so a genre with tens of thousands of movies costs id lookups, not entity loads
+    private void linkedMoviesChanged(Link link, long linkedId) {
+        Set<Long> movieIds = linkRepository.findMovieIds(link, linkedId);
+        if (movieIds.size() > maxPreciseMovies) {
+            clearAll();
+            return;
+        }
+        Set<Long> actorIds = new HashSet<>();
+        Set<Long> genreIds = new HashSet<>();
+        linkRepository.findLinks(Link.ACTORS, movieIds).values().forEach(actorIds::addAll);
+        linkRepository.findLinks(Link.GENRES, movieIds).values().forEach(genreIds::addAll);
+        linksChanged(movieIds, actorIds, genreIds);
+    }
+
+    // For writes that bypass the services (bulk import)
+    public void clearAll() {
+        movies.clear();
+        actors.clear();
+        genres.clear();
+        genreList.clear();
+    }
+}
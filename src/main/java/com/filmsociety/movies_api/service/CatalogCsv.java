@@ -0,0 +1,62 @@
+package com.filmsociety.movies_api.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// Parses the CSV line formats of src/main/resources/data:
+//   genres.csv  Action
+//   actors.csv  Leonardo DiCaprio,1974-11-11
+//   movies.csv  Inception,2010,148,Action|Sci-Fi,Leonardo DiCaprio|Tom Hardy
+public final class CatalogCsv {
+
+    private CatalogCsv() {}
+
+    public static CatalogRecord.GenreRow parseGenre(String line) {
+        String name = line.trim();
+        if (name.isEmpty()) {
+            throw new BadRequestException("Genre name is mandatory");
+        }
+        return new CatalogRecord.GenreRow(name);
+    }
+
+    public static CatalogRecord.ActorRow parseActor(String line) {
+        String[] parts = line.split(",");
+        String name = parts[0].trim();
+        if (name.isEmpty()) {
+            throw new BadRequestException("Actor name is mandatory");
+        }
+        // Convert String date to LocalDate object (the date is optional)
+        LocalDate birthDate = parts.length > 1 && !parts[1].isBlank() ? LocalDate.parse(parts[1].trim()) : null;
+        return new CatalogRecord.ActorRow(name, birthDate);
+    }
+
+    public static CatalogRecord.MovieRow parseMovie(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 3) {
+            throw new BadRequestException("Expected Title,Year,Duration[,Genres[,Actors]] but got: " + line);
+        }
+        String title = parts[0].trim();
+        // We must convert Strings to Integers for numbers
+        int year = Integer.parseInt(parts[1].trim());
+        int duration = Integer.parseInt(parts[2].trim());
+
+        // Split "Action|Sci-Fi" and "Leonardo DiCaprio|Tom Hardy" by the pipe symbol
+        List<String> genres = parts.length > 3 ? splitNames(parts[3]) : List.of();
+        List<String> actors = parts.length > 4 ? splitNames(parts[4]) : List.of();
+        return new CatalogRecord.MovieRow(title, year, duration, genres, actors);
+    }
+
+    private static List<String> splitNames(String value) {
+        List<String> names = new ArrayList<>();
+        for (String name : value.split("\\|")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+        return names;
+    }
+}
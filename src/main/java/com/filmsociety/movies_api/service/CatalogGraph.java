@@ -0,0 +1,277 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import com.filmsociety.movies_api.dto.ActorPath;
+import com.filmsociety.movies_api.dto.CoStar;
+import com.filmsociety.movies_api.dto.SimilarMovie;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// The movie/actor and movie/genre relationships as an in-memory graph: int vertex indexes
+// (VertexIndex) and both directions of each relationship as CSR adjacency (Adjacency).
+// Queries walk primitive arrays only. Not thread-safe: CatalogGraphService guards it.
+final class CatalogGraph {
+
+    private static final long NO_PARENT = -1;
+
+    final VertexIndex movies;
+    final VertexIndex actors;
+    final VertexIndex genres;
+    private Adjacency movieActors;
+    private Adjacency actorMovies;
+    private Adjacency movieGenres;
+    private Adjacency genreMovies;
+
+    CatalogGraph(VertexIndex movies, VertexIndex actors, VertexIndex genres,
+                 Adjacency movieActors, Adjacency actorMovies, Adjacency movieGenres, Adjacency genreMovies) {
+        this.movies = movies;
+        this.actors = actors;
+        this.genres = genres;
+        this.movieActors = movieActors;
+        this.actorMovies = actorMovies;
+        this.movieGenres = movieGenres;
+        this.genreMovies = genreMovies;
+    }
+
+    // --- Updates
+
+    // Link edits as movie id -> linked ids; each changed row is rewritten once
+    void link(Link link, Map<Long, Set<Long>> inserted, Map<Long, Set<Long>> deleted) {
+        VertexIndex linked = link == Link.ACTORS ? actors : genres;
+        Map<Integer, Set<Integer>> forwardAdd = new HashMap<>();
+        Map<Integer, Set<Integer>> forwardRemove = new HashMap<>();
+        Map<Integer, Set<Integer>> backwardAdd = new HashMap<>();
+        Map<Integer, Set<Integer>> backwardRemove = new HashMap<>();
+        inserted.forEach((movieId, linkedIds) -> {
+            int movie = movies.getOrAdd(movieId);
+            for (long linkedId : linkedIds) {
+                int other = linked.getOrAdd(linkedId);
+                forwardAdd.computeIfAbsent(movie, k -> new HashSet<>()).add(other);
+                backwardAdd.computeIfAbsent(other, k -> new HashSet<>()).add(movie);
+            }
+        });
+        deleted.forEach((movieId, linkedIds) -> {
+            int movie = movies.indexOf(movieId);
+            for (long linkedId : linkedIds) {
+                int other = linked.indexOf(linkedId);
+                if (movie >= 0 && other >= 0) {
+                    forwardRemove.computeIfAbsent(movie, k -> new HashSet<>()).add(other);
+                    backwardRemove.computeIfAbsent(other, k -> new HashSet<>()).add(movie);
+                }
+            }
+        });
+        apply(link == Link.ACTORS ? movieActors : movieGenres, forwardAdd, forwardRemove);
+        apply(link == Link.ACTORS ? actorMovies : genreMovies, backwardAdd, backwardRemove);
+    }
+
+    void removeMovie(long movieId) {
+        int movie = movies.indexOf(movieId);
+        if (movie < 0) {
+            return;
+        }
+        unlink(movie, movieActors, actorMovies);
+        unlink(movie, movieGenres, genreMovies);
+        movies.remove(movie);
+    }
+
+    void removeLinked(Link link, long linkedId) {
+        VertexIndex linked = link == Link.ACTORS ? actors : genres;
+        int vertex = linked.indexOf(linkedId);
+        if (vertex < 0) {
+            return;
+        }
+        if (link == Link.ACTORS) {
+            unlink(vertex, actorMovies, movieActors);
+        } else {
+            unlink(vertex, genreMovies, movieGenres);
+        }
+        linked.remove(vertex);
+    }
+
+    int replacedRows() {
+        return movieActors.replacedRows() + actorMovies.replacedRows()
+                + movieGenres.replacedRows() + genreMovies.replacedRows();
+    }
+
+    void compact() {
+        movieActors = movieActors.compact(movies.size());
+        actorMovies = actorMovies.compact(actors.size());
+        movieGenres = movieGenres.compact(movies.size());
+        genreMovies = genreMovies.compact(genres.size());
+    }
+
+    private static void apply(Adjacency adjacency, Map<Integer, Set<Integer>> add, Map<Integer, Set<Integer>> remove) {
+        Set<Integer> vertices = new HashSet<>(add.keySet());
+        vertices.addAll(remove.keySet());
+        for (int v : vertices) {
+            adjacency.edit(v, add.getOrDefault(v, Set.of()), remove.getOrDefault(v, Set.of()));
+        }
+    }
+
+    private static void unlink(int vertex, Adjacency forward, Adjacency backward) {
+        Collection<Integer> self = List.of(vertex);
+        forward.forEach(vertex, other -> backward.edit(other, List.of(), self));
+        forward.clear(vertex);
+    }
+
+    // --- Queries (take indexes from the VertexIndex fields)
+
+    // Movies sharing actors (weighted per shared actor) and genres (per shared genre), best first.
+    // Every movie sharing an actor is scored; if that gives fewer than limit, movies sharing only
+    // genres fill the rest, taken from the movie's smallest genre.
+    List<SimilarMovie> similar(int movie, int limit, double actorWeight, double genreWeight) {
+        int[] reach = {0};
+        movieActors.forEach(movie, actor -> reach[0] += actorMovies.degree(actor));
+        LongCountMap sharedActors = new LongCountMap(reach[0]);
+        movieActors.forEach(movie, actor -> actorMovies.forEach(actor, other -> {
+            if (other != movie) {
+                sharedActors.add(other, 1);
+            }
+        }));
+        int[] ownGenres = movieGenres.row(movie);
+        Comparator<SimilarMovie> order = Comparator.comparingDouble(SimilarMovie::score)
+                .thenComparing(Comparator.comparingLong(SimilarMovie::movieId).reversed());
+        PriorityQueue<SimilarMovie> best = new PriorityQueue<>(limit + 1, order);
+        sharedActors.forEach((other, actorCount) -> {
+            int genreCount = movieGenres.countCommon((int) other, ownGenres);
+            double score = actorWeight * actorCount + genreWeight * genreCount;
+            if (best.size() < limit || score >= best.peek().score()) {
+                offer(best, limit, new SimilarMovie(movies.id((int) other), score, (int) actorCount, genreCount));
+            }
+        });
+        if (best.size() < limit && ownGenres.length > 0) {
+            int narrowest = ownGenres[0];
+            for (int genre : ownGenres) {
+                if (genreMovies.degree(genre) < genreMovies.degree(narrowest)) {
+                    narrowest = genre;
+                }
+            }
+            PriorityQueue<SimilarMovie> fill = new PriorityQueue<>(limit + 1, order);
+            for (int other : genreMovies.row(narrowest)) {
+                if (other != movie && !sharedActors.contains(other)) {
+                    int genreCount = movieGenres.countCommon(other, ownGenres);
+                    if (fill.size() < limit - best.size() || genreWeight * genreCount >= fill.peek().score()) {
+                        offer(fill, limit - best.size(), new SimilarMovie(movies.id(other), genreWeight * genreCount, 0, genreCount));
+                    }
+                }
+            }
+            best.addAll(fill);
+        }
+        return descending(best, order);
+    }
+
+    // Actors sharing movies with this one, most shared movies first
+    List<CoStar> coStars(int actor, int limit) {
+        int[] reach = {0};
+        actorMovies.forEach(actor, movie -> reach[0] += movieActors.degree(movie));
+        LongCountMap shared = new LongCountMap(reach[0]);
+        actorMovies.forEach(actor, movie -> movieActors.forEach(movie, other -> {
+            if (other != actor) {
+                shared.add(other, 1);
+            }
+        }));
+        Comparator<CoStar> order = Comparator.comparingInt(CoStar::sharedMovies)
+                .thenComparing(Comparator.comparingLong(CoStar::actorId).reversed());
+        PriorityQueue<CoStar> best = new PriorityQueue<>(limit + 1, order);
+        shared.forEach((other, count) -> {
+            // Most candidates can't make the list: compare before allocating
+            if (best.size() < limit || count >= best.peek().sharedMovies()) {
+                offer(best, limit, new CoStar(actors.id((int) other), (int) count));
+            }
+        });
+        return descending(best, order);
+    }
+
+    // Bidirectional breadth-first search over actor -> movie -> actor hops, expanding the smaller
+    // frontier each round. Null if the actors aren't connected within maxDegrees movies.
+    ActorPath path(int from, int to, int maxDegrees) {
+        if (from == to) {
+            return new ActorPath(actors.id(from), actors.id(to), 0, List.of(new ActorPath.Step(actors.id(from), null)));
+        }
+        // actor -> (movie << 32 | previous actor), towards the start of each side
+        LongCountMap forward = new LongCountMap(64);
+        LongCountMap backward = new LongCountMap(64);
+        forward.put(from, NO_PARENT);
+        backward.put(to, NO_PARENT);
+        int[] forwardFrontier = {from};
+        int[] backwardFrontier = {to};
+        for (int degrees = 1; degrees <= maxDegrees && forwardFrontier.length > 0 && backwardFrontier.length > 0; degrees++) {
+            boolean forwards = forwardFrontier.length <= backwardFrontier.length;
+            LongCountMap parents = forwards ? forward : backward;
+            LongCountMap other = forwards ? backward : forward;
+            IntStream.Builder next = IntStream.builder();
+            int[] meeting = {-1};
+            for (int actor : forwards ? forwardFrontier : backwardFrontier) {
+                actorMovies.forEach(actor, movie -> movieActors.forEach(movie, reached -> {
+                    if (meeting[0] < 0 && !parents.contains(reached)) {
+                        parents.put(reached, (long) movie << 32 | actor);
+                        if (other.contains(reached)) {
+                            meeting[0] = reached;
+                        }
+                        next.add(reached);
+                    }
+                }));
+                if (meeting[0] >= 0) {
+                    return path(from, to, meeting[0], forward, backward);
+                }
+            }
+            if (forwards) {
+                forwardFrontier = next.build().toArray();
+            } else {
+                backwardFrontier = next.build().toArray();
+            }
+        }
+        return null;
+    }
+
+    private ActorPath path(int from, int to, int meeting, LongCountMap forward, LongCountMap backward) {
+        List<ActorPath.Step> steps = new ArrayList<>();
+        // Meeting actor back to the start, then reversed
+        for (int actor = meeting; ; ) {
+            long parent = forward.get(actor);
+            steps.add(new ActorPath.Step(actors.id(actor), parent == NO_PARENT ? null : movies.id((int) (parent >>> 32))));
+            if (parent == NO_PARENT) {
+                break;
+            }
+            actor = (int) parent;
+        }
+        Collections.reverse(steps);
+        // Then on from the meeting actor to the end: each step's movie is the one towards the meeting side
+        for (int actor = meeting; ; ) {
+            long parent = backward.get(actor);
+            if (parent == NO_PARENT) {
+                break;
+            }
+            int next = (int) parent;
+            steps.add(new ActorPath.Step(actors.id(next), movies.id((int) (parent >>> 32))));
+            actor = next;
+        }
+        return new ActorPath(actors.id(from), actors.id(to), steps.size() - 1, List.copyOf(steps));
+    }
+
+    private static <T> void offer(PriorityQueue<T> best, int limit, T candidate) {
+        if (limit <= 0) {
+            return;
+        }
+        best.add(candidate);
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static <T> List<T> descending(PriorityQueue<T> best, Comparator<T> order) {
+        List<T> result = new ArrayList<>(best);
+        result.sort(order.reversed());
+        return result;
+    }
+}
@@ -0,0 +1,270 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.filmsociety.movies_api.dto.ActorPath;
+import com.filmsociety.movies_api.dto.CoStar;
+import com.filmsociety.movies_api.dto.SimilarMovie;
+import com.filmsociety.movies_api.entity.Actor;
+import com.filmsociety.movies_api.entity.Genre;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.exception.ResourceNotFoundException;
+import com.filmsociety.movies_api.repository.ActorRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+import com.filmsociety.movies_api.repository.MovieRepository;
+
+// Similar movies, co-stars and actor-to-actor paths, answered from CatalogGraph.
+// - Built from the join tables once the application is ready, and again after bulk imports.
+// - Kept current like CatalogStatsService: the services report link changes, applied on commit.
+// - Rows changed since the build are held aside; past app.graph.compact-after of them the
+//   graph is rewritten into fresh CSR arrays (under the write lock, so queries wait for it).
+// The database is only asked about ids the graph doesn't know: an existing movie or actor
+// without any links gets empty results, an unknown id a 404.
+@Service
+public class CatalogGraphService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogGraphService.class);
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_DEGREES = 12;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final double actorWeight;
+    private final double genreWeight;
+    private final int compactAfter;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private CatalogGraph graph = build(new long[0], new long[0], new long[0], new int[2][0], new int[2][0]);
+
+    public CatalogGraphService(JdbcTemplate jdbcTemplate, MovieRepository movieRepository, ActorRepository actorRepository,
+                               @Value("${app.graph.similar.actor-weight:2}") double actorWeight,
+                               @Value("${app.graph.similar.genre-weight:1}") double genreWeight,
+                               @Value("${app.graph.compact-after:50000}") int compactAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movieRepository = movieRepository;
+        this.actorRepository = actorRepository;
+        this.actorWeight = actorWeight;
+        this.genreWeight = genreWeight;
+        this.compactAfter = compactAfter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        CatalogGraph fresh;
+        lock.writeLock().lock();
+        try {
+            long[] movieIds = ids("movies");
+            long[] actorIds = ids("actors");
+            long[] genreIds = ids("genres");
+            fresh = build(movieIds, actorIds, genreIds,
+                    edges("movie_actors", "actor_id", movieIds, actorIds),
+                    edges("movie_genres", "genre_id", movieIds, genreIds));
+            graph = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catalog graph built in {} ms ({} movies, {} actors)",
+                (System.nanoTime() - start) / 1_000_000, fresh.movies.size(), fresh.actors.size());
+    }
+
+    // --- Changes, reported by the services inside their write transactions
+
+    // The movie's genres and actors as saved with it
+    public void movieAdded(Movie movie) {
+        Map<Long, Set<Long>> actors = Map.of(movie.getId(), idsOf(movie.getActors().stream().map(Actor::getId).toList()));
+        Map<Long, Set<Long>> genres = Map.of(movie.getId(), idsOf(movie.getGenres().stream().map(Genre::getId).toList()));
+        update(graph -> {
+            graph.link(Link.ACTORS, actors, Map.of());
+            graph.link(Link.GENRES, genres, Map.of());
+        });
+    }
+
+    public void movieRemoved(long movieId) {
+        update(graph -> graph.removeMovie(movieId));
+    }
+
+    // Join rows written by MovieLinkService, as movie id -> linked ids
+    public void linksChanged(Link link, Map<Long, Set<Long>> inserted, Map<Long, Set<Long>> deleted) {
+        Map<Long, Set<Long>> insertedCopy = copy(inserted);
+        Map<Long, Set<Long>> deletedCopy = copy(deleted);
+        update(graph -> graph.link(link, insertedCopy, deletedCopy));
+    }
+
+    // An actor or genre deleted along with all its links
+    public void linkedRemoved(Link link, long linkedId) {
+        update(graph -> graph.removeLinked(link, linkedId));
+    }
+
+    // --- Queries
+
+    public List<SimilarMovie> similarMovies(long movieId, int limit) {
+        requireLimit(limit);
+        List<SimilarMovie> similar = read(() -> {
+            int movie = graph.movies.indexOf(movieId);
+            return movie >= 0 ? graph.similar(movie, limit, actorWeight, genreWeight) : null;
+        });
+        if (similar == null) {
+            requireMovie(movieId);
+            return List.of();
+        }
+        return similar;
+    }
+
+    public List<CoStar> coStars(long actorId, int limit) {
+        requireLimit(limit);
+        List<CoStar> coStars = read(() -> {
+            int actor = graph.actors.indexOf(actorId);
+            return actor >= 0 ? graph.coStars(actor, limit) : null;
+        });
+        if (coStars == null) {
+            requireActor(actorId);
+            return List.of();
+        }
+        return coStars;
+    }
+
+    public ActorPath path(long fromActorId, long toActorId, int maxDegrees) {
+        if (maxDegrees < 1 || maxDegrees > MAX_DEGREES) {
+            throw new BadRequestException("maxDegrees must be between 1 and " + MAX_DEGREES);
+        }
+        ActorPath path = read(() -> {
+            int from = graph.actors.indexOf(fromActorId);
+            int to = graph.actors.indexOf(toActorId);
+            return from >= 0 && to >= 0 ? graph.path(from, to, maxDegrees) : null;
+        });
+        if (path == null) {
+            requireActor(fromActorId);
+            requireActor(toActorId);
+            throw new ResourceNotFoundException("No path between actors " + fromActorId + " and " + toActorId
+                    + " within " + maxDegrees + " movies");
+        }
+        return path;
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private interface Change {
+        void apply(CatalogGraph graph);
+    }
+
+    private void update(Change change) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                change.apply(graph);
+                if (graph.replacedRows() > compactAfter) {
+                    long start = System.nanoTime();
+                    graph.compact();
+                    log.info("Catalog graph compacted in {} ms", (System.nanoTime() - start) / 1_000_000);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private static void requireLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    private void requireMovie(long movieId) {
+        if (!movieRepository.existsById(movieId)) {
+            throw new ResourceNotFoundException("Movie not found with id: " + movieId);
+        }
+    }
+
+    private void requireActor(long actorId) {
+        if (!actorRepository.existsById(actorId)) {
+            throw new ResourceNotFoundException("Actor not found with id: " + actorId);
+        }
+    }
+
+    private static Set<Long> idsOf(List<Long> ids) {
+        Set<Long> result = new HashSet<>();
+        ids.stream().filter(Objects::nonNull).forEach(result::add);
+        return result;
+    }
+
+    private static Map<Long, Set<Long>> copy(Map<Long, Set<Long>> links) {
+        Map<Long, Set<Long>> copy = new HashMap<>();
+        links.forEach((movieId, linkedIds) -> copy.put(movieId, Set.copyOf(linkedIds)));
+        return copy;
+    }
+
+    // --- Building from the database
+
+    private long[] ids(String table) {
+        long[][] ids = {new long[1024]};
+        int[] count = {0};
+        jdbcTemplate.query("SELECT id FROM " + table + " ORDER BY id", rs -> {
+            if (count[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+            }
+            ids[0][count[0]++] = rs.getLong(1);
+        });
+        return Arrays.copyOf(ids[0], count[0]);
+    }
+
+    // The join table as {movie indexes, linked indexes}; rows pointing at missing ids are skipped
+    private int[][] edges(String table, String column, long[] movieIds, long[] linkedIds) {
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+        int capacity = Math.toIntExact(rows != null ? rows : 0);
+        int[][] edges = {new int[capacity], new int[capacity]};
+        int[] count = {0};
+        jdbcTemplate.query("SELECT movie_id, " + column + " FROM " + table, rs -> {
+            int movie = Arrays.binarySearch(movieIds, rs.getLong(1));
+            int linked = Arrays.binarySearch(linkedIds, rs.getLong(2));
+            if (movie >= 0 && linked >= 0) {
+                if (count[0] == edges[0].length) {
+                    edges[0] = Arrays.copyOf(edges[0], count[0] * 2 + 16);
+                    edges[1] = Arrays.copyOf(edges[1], count[0] * 2 + 16);
+                }
+                edges[0][count[0]] = movie;
+                edges[1][count[0]++] = linked;
+            }
+        });
+        return new int[][] {Arrays.copyOf(edges[0], count[0]), Arrays.copyOf(edges[1], count[0])};
+    }
+
+    private static CatalogGraph build(long[] movieIds, long[] actorIds, long[] genreIds, int[][] actorEdges, int[][] genreEdges) {
+        int[] movieToActor = actorEdges[0];
+        int[] actorOfMovie = actorEdges[1];
+        int[] movieToGenre = genreEdges[0];
+        int[] genreOfMovie = genreEdges[1];
+        return new CatalogGraph(new VertexIndex(movieIds), new VertexIndex(actorIds), new VertexIndex(genreIds),
+                Adjacency.of(movieIds.length, movieToActor, actorOfMovie, movieToActor.length),
+                Adjacency.of(actorIds.length, actorOfMovie, movieToActor, movieToActor.length),
+                Adjacency.of(movieIds.length, movieToGenre, genreOfMovie, movieToGenre.length),
+                Adjacency.of(genreIds.length, genreOfMovie, movieToGenre, movieToGenre.length));
+    }
+}
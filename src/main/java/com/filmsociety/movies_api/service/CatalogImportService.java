@@ -0,0 +1,460 @@
+package com.filmsociety.movies_api.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.repository.CatalogBulkWriter;
+import com.filmsociety.movies_api.repository.CatalogBulkWriter.StoredMovie;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// Streams a CSV or NDJSON upload into the catalog.
+// The body is read line by line and written in batches of batchSize records,
+// each batch in its own transaction, so memory stays bounded by one batch.
+// Movies are matched on title and release year: a stored match is brought in line with the
+// record (duration, genres, actors) instead of being inserted again, so re-running a sync is harmless.
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    public enum CsvType { MOVIES, ACTORS, GENRES }
+
+    private final CatalogBulkWriter bulkWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CatalogCacheInvalidator cacheInvalidator;
+    private final CatalogStatsService statsService;
+    private final CatalogGraphService graphService;
+    private final MovieFilterIndex filterIndex;
+    private final CatalogSnapshotService snapshotService;
+    private final int defaultBatchSize;
+    private final int rebuildThreshold;
+
+    public CatalogImportService(CatalogBulkWriter bulkWriter, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                CatalogCacheInvalidator cacheInvalidator, CatalogStatsService statsService,
+                                CatalogGraphService graphService, MovieFilterIndex filterIndex,
+                                CatalogSnapshotService snapshotService,
+                                @Value("${app.import.batch-size:1000}") int defaultBatchSize,
+                                @Value("${app.import.rebuild-threshold:10000}") int rebuildThreshold) {
+        this.bulkWriter = bulkWriter;
+        this.cacheInvalidator = cacheInvalidator;
+        this.statsService = statsService;
+        this.graphService = graphService;
+        this.filterIndex = filterIndex;
+        this.snapshotService = snapshotService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.defaultBatchSize = defaultBatchSize;
+        this.rebuildThreshold = rebuildThreshold;
+    }
+
+    public ImportSummary importCsv(InputStream body, String type, Integer batchSize) throws IOException {
+        CsvType csvType = parseType(type);
+        Function<String, CatalogRecord> parser = switch (csvType) {
+            case MOVIES -> CatalogCsv::parseMovie;
+            case ACTORS -> CatalogCsv::parseActor;
+            case GENRES -> CatalogCsv::parseGenre;
+        };
+        return run(body, batchSize, parser);
+    }
+
+    // One JSON object per line:
+    //   {"type":"genre","name":"Western"}
+    //   {"type":"actor","name":"Tom Hardy","birthDate":"1977-09-15"}
+    //   {"title":"Inception","releaseYear":2010,"duration":148,"genres":["Action"],"actors":["Tom Hardy"]}
+    // "type" defaults to "movie".
+    public ImportSummary importNdjson(InputStream body, Integer batchSize) throws IOException {
+        return run(body, batchSize, this::parseJsonLine);
+    }
+
+    private ImportSummary run(InputStream body, Integer batchSize, Function<String, CatalogRecord> parser) throws IOException {
+        int size = batchSize != null ? batchSize : defaultBatchSize;
+        if (size < 1) {
+            throw new BadRequestException("batchSize must be at least 1");
+        }
+
+        Import job = new Import(loadNames("genres"), loadNames("actors"));
+        long start = System.nanoTime();
+        List<CatalogRecord> pending = new ArrayList<>(size);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                job.lines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    pending.add(parser.apply(line));
+                } catch (RuntimeException e) {
+                    // A bad line is reported and skipped; the rest of the upload still goes in
+                    job.skip("line " + job.lines + ": " + e.getMessage());
+                    continue;
+                }
+                if (pending.size() == size) {
+                    job.commit(pending);
+                    pending.clear();
+                }
+            }
+            job.commit(pending);
+        } catch (DataAccessException e) {
+            // Batches committed so far stay in; report where it stopped
+            log.warn("Import stopped after {} batches", job.batches.size(), e);
+            job.errors.add("import stopped at line " + job.lines + ": " + e.getMostSpecificCause().getMessage());
+            return job.summary(false, start);
+        } finally {
+            // A large import stopped reporting its batches (see Import.commit): recount once
+            if (job.rebuild) {
+                statsService.rebuild();
+                graphService.rebuild();
+                filterIndex.rebuild();
+                snapshotService.rebuild();
+                cacheInvalidator.clearAll();
+            }
+        }
+        return job.summary(true, start);
+    }
+
+    private CatalogRecord parseJsonLine(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new BadRequestException("invalid JSON");
+        }
+        String type = node.path("type").asText("movie");
+        return switch (type) {
+            case "genre" -> CatalogCsv.parseGenre(node.path("name").asText(""));
+            case "actor" -> new CatalogRecord.ActorRow(requiredText(node, "name"),
+                    node.hasNonNull("birthDate") ? LocalDate.parse(node.get("birthDate").asText()) : null);
+            case "movie" -> new CatalogRecord.MovieRow(requiredText(node, "title"),
+                    requiredInt(node, "releaseYear"), requiredInt(node, "duration"),
+                    textList(node.path("genres")), textList(node.path("actors")));
+            default -> throw new BadRequestException("unknown type '" + type + "'");
+        };
+    }
+
+    private static String requiredText(JsonNode node, String field) {
+        String value = node.path(field).asText("").trim();
+        if (value.isEmpty()) {
+            throw new BadRequestException(field + " is mandatory");
+        }
+        return value;
+    }
+
+    private static int requiredInt(JsonNode node, String field) {
+        if (!node.path(field).canConvertToInt()) {
+            throw new BadRequestException(field + " must be a number");
+        }
+        return node.get(field).asInt();
+    }
+
+    private static List<String> textList(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode item : array) {
+            // Accept plain names as well as {"name": ...} objects
+            String name = (item.isObject() ? item.path("name") : item).asText("").trim();
+            if (!name.isEmpty()) {
+                values.add(name);
+            }
+        }
+        return values;
+    }
+
+    private static CsvType parseType(String type) {
+        try {
+            return CsvType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown import type '" + type + "', expected movies, actors or genres");
+        }
+    }
+
+    // Name -> id for every existing row, read once per import in a single scan
+    private Map<String, Long> loadNames(String table) {
+        Map<String, Long> names = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table + " ORDER BY id",
+                rs -> { names.put(rs.getString(2), rs.getLong(1)); });
+        return names;
+    }
+
+    // State of one running import
+    private final class Import {
+
+        private final Map<String, Long> genreIds;
+        private final Map<String, Long> actorIds;
+        private final List<ImportSummary.BatchProgress> batches = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long lines;
+        private long moviesCreated;
+        private long moviesUpdated;
+        private long moviesUnchanged;
+        private long actors;
+        private long genres;
+        private long skipped;
+        // Set once the movies written exceed rebuildThreshold
+        private boolean rebuild;
+
+        private Import(Map<String, Long> genreIds, Map<String, Long> actorIds) {
+            this.genreIds = genreIds;
+            this.actorIds = actorIds;
+        }
+
+        private void skip(String error) {
+            skipped++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private void commit(List<CatalogRecord> records) {
+            if (records.isEmpty()) {
+                return;
+            }
+            long batchStart = System.nanoTime();
+            // Names created in this batch only become visible to later batches once it commits
+            BatchChanges changes = new BatchChanges();
+            bulkWriter.write(batch -> {
+                write(batch, records, changes);
+                return null;
+            });
+
+            genreIds.putAll(changes.newGenres);
+            actorIds.putAll(changes.newActors);
+            moviesCreated += changes.created.size();
+            moviesUpdated += changes.updated;
+            moviesUnchanged += changes.unchanged;
+            actors += changes.newActors.size();
+            genres += changes.newGenres.size();
+
+            // Small imports patch the in-memory indexes and evict what they touched, batch by batch;
+            // past the threshold one rebuild at the end is cheaper than that many deltas
+            if (!rebuild && moviesCreated + moviesUpdated > rebuildThreshold) {
+                rebuild = true;
+            }
+            if (!rebuild) {
+                changes.report();
+            }
+
+            long millis = (System.nanoTime() - batchStart) / 1_000_000;
+            batches.add(new ImportSummary.BatchProgress(batches.size() + 1, lines, records.size(), millis));
+            log.info("Import batch {} committed: {} records up to line {} in {} ms",
+                    batches.size(), records.size(), lines, millis);
+        }
+
+        private void write(CatalogBulkWriter.Batch batch, List<CatalogRecord> records,
+                           BatchChanges changes) throws SQLException {
+            for (CatalogRecord record : records) {
+                switch (record) {
+                    case CatalogRecord.GenreRow genre -> genreId(batch, genre.name(), changes.newGenres);
+                    case CatalogRecord.ActorRow actor -> {
+                        // Actors are matched by name: an already known name is not inserted twice
+                        if (!actorIds.containsKey(actor.name()) && !changes.newActors.containsKey(actor.name())) {
+                            changes.newActors.put(actor.name(), batch.addActor(actor.name(), actor.birthDate()));
+                        }
+                    }
+                    case CatalogRecord.MovieRow movie -> writeMovie(batch, movie, changes);
+                }
+            }
+        }
+
+        private void writeMovie(CatalogBulkWriter.Batch batch, CatalogRecord.MovieRow movie,
+                                BatchChanges changes) throws SQLException {
+            Set<Long> genreIds = new LinkedHashSet<>();
+            for (String name : movie.genres()) {
+                genreIds.add(genreId(batch, name, changes.newGenres));
+            }
+            Set<Long> actorIds = new LinkedHashSet<>();
+            for (String name : movie.actors()) {
+                actorIds.add(actorId(batch, name, changes.newActors));
+            }
+
+            String key = movie.title() + '\n' + movie.releaseYear();
+            if (changes.movieKeys.contains(key)) {
+                // Listed twice in one batch: the first one is still queued
+                batch.flush();
+            }
+            StoredMovie stored = batch.findMovie(movie.title(), movie.releaseYear());
+            if (stored == null) {
+                long movieId = batch.addMovie(movie.title(), movie.releaseYear(), movie.duration());
+                for (long genreId : genreIds) {
+                    batch.linkGenre(movieId, genreId);
+                }
+                for (long actorId : actorIds) {
+                    batch.linkActor(movieId, actorId);
+                }
+                changes.movieKeys.add(key);
+                changes.created.add(new long[] {movieId, movie.releaseYear(), movie.duration()});
+                changes.linked(movieId, Set.of(), genreIds, Set.of(), actorIds);
+                return;
+            }
+
+            long movieId = stored.id();
+            if (stored.duration() == movie.duration()
+                    && stored.genreIds().equals(genreIds) && stored.actorIds().equals(actorIds)) {
+                changes.unchanged++;
+                return;
+            }
+            if (stored.duration() != movie.duration()) {
+                batch.updateDuration(movieId, movie.duration());
+                changes.durations.add(new long[] {movieId, movie.releaseYear(), stored.duration(), movie.duration()});
+            }
+            // The record lists the movie's genres and actors in full: links it no longer names are removed
+            for (long genreId : minus(stored.genreIds(), genreIds)) {
+                batch.unlinkGenre(movieId, genreId);
+            }
+            for (long genreId : minus(genreIds, stored.genreIds())) {
+                batch.linkGenre(movieId, genreId);
+            }
+            for (long actorId : minus(stored.actorIds(), actorIds)) {
+                batch.unlinkActor(movieId, actorId);
+            }
+            for (long actorId : minus(actorIds, stored.actorIds())) {
+                batch.linkActor(movieId, actorId);
+            }
+            changes.movieKeys.add(key);
+            changes.updated++;
+            changes.linked(movieId, stored.genreIds(), genreIds, stored.actorIds(), actorIds);
+        }
+
+        // Unknown genre and actor names referenced by a movie are created on the fly
+        private long genreId(CatalogBulkWriter.Batch batch, String name, Map<String, Long> newGenres) throws SQLException {
+            Long id = genreIds.get(name);
+            if (id == null) {
+                id = newGenres.get(name);
+            }
+            if (id == null) {
+                id = batch.addGenre(name);
+                newGenres.put(name, id);
+            }
+            return id;
+        }
+
+        private long actorId(CatalogBulkWriter.Batch batch, String name, Map<String, Long> newActors) throws SQLException {
+            Long id = actorIds.get(name);
+            if (id == null) {
+                id = newActors.get(name);
+            }
+            if (id == null) {
+                id = batch.addActor(name, null);
+                newActors.put(name, id);
+            }
+            return id;
+        }
+
+        private ImportSummary summary(boolean completed, long start) {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            return new ImportSummary(completed, lines, moviesCreated, moviesUpdated, moviesUnchanged,
+                    actors, genres, skipped, millis, batches, errors);
+        }
+    }
+
+    // What one batch wrote, reported to the in-memory indexes and the cache once it has committed
+    private final class BatchChanges {
+
+        private final Map<String, Long> newGenres = new HashMap<>();
+        private final Map<String, Long> newActors = new HashMap<>();
+        // Title and year of every movie written, to spot one listed twice
+        private final Set<String> movieKeys = new HashSet<>();
+        // {id, year, duration}
+        private final List<long[]> created = new ArrayList<>();
+        // {id, year, old duration, new duration}
+        private final List<long[]> durations = new ArrayList<>();
+        private final Map<Long, Set<Long>> genresBefore = new HashMap<>();
+        private final Map<Long, Set<Long>> actorsBefore = new HashMap<>();
+        private final Map<Long, Set<Long>> genresInserted = new HashMap<>();
+        private final Map<Long, Set<Long>> genresDeleted = new HashMap<>();
+        private final Map<Long, Set<Long>> actorsInserted = new HashMap<>();
+        private final Map<Long, Set<Long>> actorsDeleted = new HashMap<>();
+        // Every movie written, and every actor and genre linked to one before or after
+        private final Set<Long> movieIds = new HashSet<>();
+        private final Set<Long> touchedGenres = new HashSet<>();
+        private final Set<Long> touchedActors = new HashSet<>();
+        private long updated;
+        private long unchanged;
+
+        private void linked(long movieId, Set<Long> oldGenres, Set<Long> genres, Set<Long> oldActors, Set<Long> actors) {
+            movieIds.add(movieId);
+            touchedGenres.addAll(oldGenres);
+            touchedGenres.addAll(genres);
+            touchedActors.addAll(oldActors);
+            touchedActors.addAll(actors);
+            // A movie listed twice in the batch is diffed against what it linked before the batch
+            diff(movieId, genresBefore.computeIfAbsent(movieId, id -> oldGenres), genres, genresInserted, genresDeleted);
+            diff(movieId, actorsBefore.computeIfAbsent(movieId, id -> oldActors), actors, actorsInserted, actorsDeleted);
+        }
+
+        private void report() {
+            newGenres.forEach((name, id) -> {
+                statsService.genreSaved(id, name);
+                snapshotService.linkedChanged(Link.GENRES, id);
+            });
+            newActors.values().forEach(id -> snapshotService.linkedChanged(Link.ACTORS, id));
+            for (long[] movie : created) {
+                statsService.movieAdded((int) movie[1], (int) movie[2]);
+                filterIndex.movieAdded(movie[0], (int) movie[1], (int) movie[2]);
+            }
+            for (long[] movie : durations) {
+                int year = (int) movie[1];
+                statsService.movieUpdated(year, (int) movie[2], year, (int) movie[3]);
+                filterIndex.movieUpdated(movie[0], year, (int) movie[2], year, (int) movie[3]);
+            }
+            statsService.linksChanged(Link.GENRES, genresInserted, genresDeleted);
+            statsService.linksChanged(Link.ACTORS, actorsInserted, actorsDeleted);
+            graphService.linksChanged(Link.GENRES, genresInserted, genresDeleted);
+            graphService.linksChanged(Link.ACTORS, actorsInserted, actorsDeleted);
+            filterIndex.linksChanged(Link.GENRES, genresInserted, genresDeleted);
+            filterIndex.linksChanged(Link.ACTORS, actorsInserted, actorsDeleted);
+            if (!movieIds.isEmpty()) {
+                snapshotService.moviesChanged(movieIds);
+                cacheInvalidator.linksChanged(movieIds, touchedActors, touchedGenres);
+            } else if (!newGenres.isEmpty()) {
+                cacheInvalidator.genreListChanged();
+            }
+        }
+    }
+
+    private static void diff(long movieId, Set<Long> before, Set<Long> after,
+                             Map<Long, Set<Long>> inserted, Map<Long, Set<Long>> deleted) {
+        Set<Long> added = minus(after, before);
+        Set<Long> removed = minus(before, after);
+        inserted.remove(movieId);
+        deleted.remove(movieId);
+        if (!added.isEmpty()) {
+            inserted.put(movieId, added);
+        }
+        if (!removed.isEmpty()) {
+            deleted.put(movieId, removed);
+        }
+    }
+
+    private static Set<Long> minus(Set<Long> from, Set<Long> removed) {
+        Set<Long> rest = new LinkedHashSet<>(from);
+        rest.removeAll(removed);
+        return rest;
+    }
+}
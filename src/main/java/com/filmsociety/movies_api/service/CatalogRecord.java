@@ -0,0 +1,24 @@
+package com.filmsociety.movies_api.service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// One parsed line of catalog data, as read by DataLoader and the bulk import.
+// Relationships are given by name and resolved to ids when the rows are written.
+public sealed interface CatalogRecord {
+
+    record GenreRow(String name) implements CatalogRecord {}
+
+    record ActorRow(String name, LocalDate birthDate) implements CatalogRecord {}
+
+    record MovieRow(String title, int releaseYear, int duration,
+                    List<String> genres, List<String> actors) implements CatalogRecord {
+
+        public MovieRow {
+            // A name listed twice must not produce a duplicate join row
+            genres = List.copyOf(new LinkedHashSet<>(genres));
+            actors = List.copyOf(new LinkedHashSet<>(actors));
+        }
+    }
+}
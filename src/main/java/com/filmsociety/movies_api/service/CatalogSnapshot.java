@@ -0,0 +1,767 @@
+package com.filmsociety.movies_api.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.filmsociety.movies_api.dto.ActorDto;
+import com.filmsociety.movies_api.dto.CursorSlice;
+import com.filmsociety.movies_api.dto.GenreDto;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.dto.MovieSummary;
+import com.filmsociety.movies_api.dto.MultiGet;
+import com.filmsociety.movies_api.dto.Versioned;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.exception.ResourceNotFoundException;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// An immutable copy of the catalog for the read endpoints (app.snapshot.enabled): movies, actors,
+// genres and both directions of their links as columns indexed by int slots, with titles and names
+// interned. Slots follow id order; a deleted row keeps its slot, marked by a negative version,
+// until the next full build. Nothing is modified once built: a change produces a new snapshot
+// (patched, which shares the tables it doesn't touch) and CatalogSnapshotService publishes it
+// through a volatile field, so a request reads one consistent catalog without locks or database.
+// Answers the same as the database path: same filters, orders, 404s and row versions.
+public final class CatalogSnapshot {
+
+    // Current database rows of the ids being refreshed; an id without a row has been deleted
+    record Reload(Set<Long> movieIds, List<MovieRow> movies,
+                  Set<Long> actorIds, List<LinkedRow> actors,
+                  Set<Long> genreIds, List<LinkedRow> genres) {}
+
+    record MovieRow(long id, String title, Integer releaseYear, Integer duration, long version,
+                    long[] genreIds, long[] actorIds) {}
+
+    // An actor or a genre (no birth date). Its movies come from the movie rows' links.
+    record LinkedRow(long id, String name, LocalDate birthDate, long version) {}
+
+    // A missing year, duration or birth date: below every value, like NULL in SQLite's order
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int[] NO_SLOTS = new int[0];
+    private static final Comparator<String> TITLE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    // Every listing order is kept, both directions
+    private static final List<MovieSort> SORTS = Stream.of("id", "title", "releaseYear", "duration")
+            .flatMap(property -> Stream.of(new MovieSort(property, false), new MovieSort(property, true)))
+            .toList();
+    // A genre's or actor's movies are filtered and sorted on their own when this many times fewer
+    // than the whole catalog; otherwise the listing order is walked
+    private static final int CANDIDATE_RATIO = 8;
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, 0, Movies.NONE, Linked.NONE, Linked.NONE,
+            emptyOrders());
+
+    // Movie columns by slot; a negative version marks a deleted movie
+    private record Movies(long[] ids, String[] titles, int[] years, int[] durations, long[] versions,
+                          int[][] genres, int[][] actors) {
+
+        static final Movies NONE = new Movies(new long[0], new String[0], new int[0], new int[0], new long[0],
+                new int[0][], new int[0][]);
+
+        boolean live(int slot) {
+            return versions[slot] >= 0;
+        }
+
+        // Writable copy for a patch, grown to the new ids; new slots start deleted
+        Movies copy(long[] newIds) {
+            Movies copy = new Movies(newIds, Arrays.copyOf(titles, newIds.length), Arrays.copyOf(years, newIds.length),
+                    Arrays.copyOf(durations, newIds.length), Arrays.copyOf(versions, newIds.length),
+                    Arrays.copyOf(genres, newIds.length), Arrays.copyOf(actors, newIds.length));
+            for (int slot = ids.length; slot < newIds.length; slot++) {
+                copy.remove(slot);
+            }
+            return copy;
+        }
+
+        void remove(int slot) {
+            titles[slot] = null;
+            years[slot] = NULL_INT;
+            durations[slot] = NULL_INT;
+            versions[slot] = -1;
+            genres[slot] = NO_SLOTS;
+            actors[slot] = NO_SLOTS;
+        }
+    }
+
+    // Actor or genre columns by slot (birth dates are the actors'); a negative version marks a deleted row
+    private record Linked(long[] ids, String[] names, int[] birthDays, long[] versions, int[][] movies) {
+
+        static final Linked NONE = new Linked(new long[0], new String[0], new int[0], new long[0], new int[0][]);
+
+        boolean live(int slot) {
+            return versions[slot] >= 0;
+        }
+
+        Linked copy(long[] newIds) {
+            Linked copy = new Linked(newIds, Arrays.copyOf(names, newIds.length), Arrays.copyOf(birthDays, newIds.length),
+                    Arrays.copyOf(versions, newIds.length), Arrays.copyOf(movies, newIds.length));
+            for (int slot = ids.length; slot < newIds.length; slot++) {
+                copy.remove(slot);
+            }
+            return copy;
+        }
+
+        void remove(int slot) {
+            names[slot] = null;
+            birthDays[slot] = NULL_INT;
+            versions[slot] = -1;
+            movies[slot] = NO_SLOTS;
+        }
+    }
+
+    // The catalog clock at the last full build, and the patches applied since (see etag)
+    private final long clock;
+    private final long generation;
+    private final Movies movies;
+    private final Linked actors;
+    private final Linked genres;
+    // Live movie slots in listing order, per sort (ties by id, ascending)
+    private final Map<MovieSort, int[]> orders;
+
+    private CatalogSnapshot(long clock, long generation, Movies movies, Linked actors, Linked genres,
+                            Map<MovieSort, int[]> orders) {
+        this.clock = clock;
+        this.generation = generation;
+        this.movies = movies;
+        this.actors = actors;
+        this.genres = genres;
+        this.orders = orders;
+    }
+
+    // --- Building and patching (CatalogSnapshotService)
+
+    // Null when the rows can't be slotted (see patched)
+    static CatalogSnapshot build(long clock, Reload all) {
+        CatalogSnapshot built = EMPTY.patched(all);
+        return built == null ? null : new CatalogSnapshot(clock, 0, built.movies, built.actors, built.genres, built.orders);
+    }
+
+    // A new snapshot with these rows replaced. Null when a new id is lower than an existing one
+    // (SQLite hands out ascending ids, so only imports with explicit ids do that): slots would
+    // have to move, which is a full build's job.
+    CatalogSnapshot patched(Reload reload) {
+        long[] movieIds = withNewIds(movies.ids, reload.movies().stream().mapToLong(MovieRow::id));
+        long[] actorIds = withNewIds(actors.ids, reload.actors().stream().mapToLong(LinkedRow::id));
+        long[] genreIds = withNewIds(genres.ids, reload.genres().stream().mapToLong(LinkedRow::id));
+        if (movieIds == null || actorIds == null || genreIds == null) {
+            return null;
+        }
+        boolean moviesTouched = !reload.movies().isEmpty() || !reload.movieIds().isEmpty();
+        Movies m = moviesTouched ? movies.copy(movieIds) : movies;
+        // A movie's links are also on the other side, in the actors' and genres' movie lists
+        Linked a = moviesTouched || !reload.actors().isEmpty() || !reload.actorIds().isEmpty() ? actors.copy(actorIds) : actors;
+        Linked g = moviesTouched || !reload.genres().isEmpty() || !reload.genreIds().isEmpty() ? genres.copy(genreIds) : genres;
+
+        // Actors and genres first: movies may link to ones added by this same patch
+        setRows(a, reload.actors(), reload.actorIds());
+        setRows(g, reload.genres(), reload.genreIds());
+
+        LinkChanges actorLinks = new LinkChanges();
+        LinkChanges genreLinks = new LinkChanges();
+        BitSet touched = new BitSet(m.ids.length);
+        Set<Long> present = new HashSet<>();
+        for (MovieRow row : reload.movies()) {
+            int slot = Arrays.binarySearch(m.ids, row.id());
+            int[] genreSlots = slots(row.genreIds(), g.ids, g.versions);
+            int[] actorSlots = slots(row.actorIds(), a.ids, a.versions);
+            genreLinks.diff(slot, m.genres[slot], genreSlots);
+            actorLinks.diff(slot, m.actors[slot], actorSlots);
+            m.titles[slot] = row.title();
+            m.years[slot] = orNull(row.releaseYear());
+            m.durations[slot] = orNull(row.duration());
+            m.versions[slot] = row.version();
+            m.genres[slot] = genreSlots;
+            m.actors[slot] = actorSlots;
+            touched.set(slot);
+            present.add(row.id());
+        }
+        for (long id : reload.movieIds()) {
+            int slot = Arrays.binarySearch(m.ids, id);
+            if (slot >= 0 && !present.contains(id)) {
+                genreLinks.diff(slot, m.genres[slot], NO_SLOTS);
+                actorLinks.diff(slot, m.actors[slot], NO_SLOTS);
+                m.remove(slot);
+                touched.set(slot);
+            }
+        }
+        actorLinks.applyTo(a);
+        genreLinks.applyTo(g);
+        return new CatalogSnapshot(clock, generation + 1, m, a, g, touched.isEmpty() ? orders : reordered(m, touched));
+    }
+
+    // Movies joining and leaving actors' or genres' lists, as (list slot << 32 | movie slot):
+    // sorted, they come grouped by list, so each list is merged once
+    private static final class LinkChanges {
+
+        private long[] joins = new long[16];
+        private long[] leaves = new long[16];
+        private int joinCount;
+        private int leaveCount;
+
+        void diff(int movie, int[] before, int[] after) {
+            for (int linked : before) {
+                if (Arrays.binarySearch(after, linked) < 0) {
+                    if (leaveCount == leaves.length) {
+                        leaves = Arrays.copyOf(leaves, leaveCount * 2);
+                    }
+                    leaves[leaveCount++] = (long) linked << 32 | movie;
+                }
+            }
+            for (int linked : after) {
+                if (Arrays.binarySearch(before, linked) < 0) {
+                    if (joinCount == joins.length) {
+                        joins = Arrays.copyOf(joins, joinCount * 2);
+                    }
+                    joins[joinCount++] = (long) linked << 32 | movie;
+                }
+            }
+        }
+
+        void applyTo(Linked table) {
+            long[] joined = Arrays.copyOf(joins, joinCount);
+            long[] left = Arrays.copyOf(leaves, leaveCount);
+            Arrays.sort(joined);
+            Arrays.sort(left);
+            int join = 0;
+            int leave = 0;
+            while (join < joined.length || leave < left.length) {
+                int slot = (int) (Math.min(join < joined.length ? joined[join] : Long.MAX_VALUE,
+                        leave < left.length ? left[leave] : Long.MAX_VALUE) >>> 32);
+                int joinEnd = groupEnd(joined, join, slot);
+                int leaveEnd = groupEnd(left, leave, slot);
+                if (table.live(slot)) {
+                    table.movies[slot] = merged(table.movies[slot], joined, join, joinEnd, left, leave, leaveEnd);
+                }
+                join = joinEnd;
+                leave = leaveEnd;
+            }
+        }
+
+        private static int groupEnd(long[] pairs, int from, int slot) {
+            int end = from;
+            while (end < pairs.length && (int) (pairs[end] >>> 32) == slot) {
+                end++;
+            }
+            return end;
+        }
+
+        // The list without the leaving movies, plus the joining ones, still ascending
+        private static int[] merged(int[] movies, long[] joined, int join, int joinEnd, long[] left, int leave, int leaveEnd) {
+            int[] result = new int[movies.length + joinEnd - join];
+            int count = 0;
+            int kept = 0;
+            while (kept < movies.length || join < joinEnd) {
+                int next;
+                if (join == joinEnd || (kept < movies.length && movies[kept] <= (int) joined[join])) {
+                    next = movies[kept++];
+                    while (leave < leaveEnd && (int) left[leave] < next) {
+                        leave++;
+                    }
+                    if (leave < leaveEnd && (int) left[leave] == next) {
+                        continue;
+                    }
+                } else {
+                    next = (int) joined[join++];
+                }
+                if (count == 0 || result[count - 1] != next) {
+                    result[count++] = next;
+                }
+            }
+            return count == 0 ? NO_SLOTS : Arrays.copyOf(result, count);
+        }
+    }
+
+    private static void setRows(Linked table, List<LinkedRow> rows, Set<Long> ids) {
+        Set<Long> present = new HashSet<>();
+        for (LinkedRow row : rows) {
+            int slot = Arrays.binarySearch(table.ids, row.id());
+            table.names[slot] = row.name();
+            table.birthDays[slot] = row.birthDate() != null ? (int) row.birthDate().toEpochDay() : NULL_INT;
+            table.versions[slot] = row.version();
+            present.add(row.id());
+        }
+        for (long id : ids) {
+            int slot = Arrays.binarySearch(table.ids, id);
+            if (slot >= 0 && !present.contains(id)) {
+                table.remove(slot);
+            }
+        }
+    }
+
+    // The ids plus the new ones, which must all come after the last; null if one doesn't
+    private static long[] withNewIds(long[] ids, LongStream rowIds) {
+        long[] added = rowIds.filter(id -> Arrays.binarySearch(ids, id) < 0).sorted().toArray();
+        if (added.length == 0) {
+            return ids;
+        }
+        if (ids.length > 0 && added[0] < ids[ids.length - 1]) {
+            return null;
+        }
+        long[] all = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, all, ids.length, added.length);
+        return all;
+    }
+
+    // Slots of the live rows among the ids, ascending
+    private static int[] slots(long[] ids, long[] tableIds, long[] versions) {
+        int[] slots = new int[ids.length];
+        int count = 0;
+        for (long id : ids) {
+            int slot = Arrays.binarySearch(tableIds, id);
+            if (slot >= 0 && versions[slot] >= 0) {
+                slots[count++] = slot;
+            }
+        }
+        if (count == 0) {
+            return NO_SLOTS;
+        }
+        slots = Arrays.copyOf(slots, count);
+        Arrays.sort(slots);
+        return slots;
+    }
+
+    // Listing orders after a patch: the touched movies are taken out and put back at their new
+    // places (binary search per movie, one copy per order), unless so many changed that sorting
+    // everything again is cheaper
+    private Map<MovieSort, int[]> reordered(Movies m, BitSet touched) {
+        int live = orders.get(MovieSort.BY_ID).length;
+        if ((long) touched.cardinality() * CANDIDATE_RATIO > live) {
+            return sortAll(m);
+        }
+        int[] changed = touched.stream().filter(m::live).toArray();
+        Map<MovieSort, int[]> reordered = new HashMap<>();
+        for (MovieSort sort : SORTS) {
+            Comparator<Integer> order = order(m, sort);
+            int[] added = changed.length > 1 ? sorted(changed, order) : changed;
+            reordered.put(sort, reorder(orders.get(sort), touched, added, order));
+        }
+        return reordered;
+    }
+
+    private static int[] reorder(int[] order, BitSet touched, int[] added, Comparator<Integer> comparator) {
+        int[] kept = new int[order.length];
+        int count = 0;
+        for (int slot : order) {
+            if (!touched.get(slot)) {
+                kept[count++] = slot;
+            }
+        }
+        int[] result = new int[count + added.length];
+        int from = 0;
+        int to = 0;
+        for (int slot : added) {
+            int at = insertionPoint(kept, count, slot, comparator);
+            System.arraycopy(kept, from, result, to, at - from);
+            to += at - from;
+            from = at;
+            result[to++] = slot;
+        }
+        System.arraycopy(kept, from, result, to, count - from);
+        return result;
+    }
+
+    private static int insertionPoint(int[] order, int length, int slot, Comparator<Integer> comparator) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(order[mid], slot) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Map<MovieSort, int[]> sortAll(Movies m) {
+        int[] live = IntStream.range(0, m.ids.length).filter(m::live).toArray();
+        Map<MovieSort, int[]> orders = new HashMap<>();
+        for (MovieSort sort : SORTS) {
+            if (!sort.descending()) {
+                int[] ascending = switch (sort.property()) {
+                    case "releaseYear" -> sortedBy(live, m.years);
+                    case "duration" -> sortedBy(live, m.durations);
+                    case "title" -> sorted(live, order(m, sort));
+                    default -> live;
+                };
+                orders.put(sort, ascending);
+                orders.put(new MovieSort(sort.property(), true), descending(ascending, sameKey(m, sort.property())));
+            }
+        }
+        return orders;
+    }
+
+    // By an int column then slot, as one long per movie: (value << 31) + slot sorts like the pair
+    private static int[] sortedBy(int[] slots, int[] values) {
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = (long) values[slots[i]] << 31 | slots[i];
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return sorted;
+    }
+
+    private interface SameKey {
+        boolean test(int slot, int other);
+    }
+
+    private static SameKey sameKey(Movies m, String property) {
+        return switch (property) {
+            case "title" -> (slot, other) -> Objects.equals(m.titles[slot], m.titles[other]);
+            case "releaseYear" -> (slot, other) -> m.years[slot] == m.years[other];
+            case "duration" -> (slot, other) -> m.durations[slot] == m.durations[other];
+            default -> (slot, other) -> false;
+        };
+    }
+
+    // The descending order from the ascending one: reversed, except that equal keys stay in id order
+    private static int[] descending(int[] ascending, SameKey sameKey) {
+        int[] descending = new int[ascending.length];
+        int to = 0;
+        int end = ascending.length;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && sameKey.test(ascending[start - 1], ascending[end - 1])) {
+                start--;
+            }
+            System.arraycopy(ascending, start, descending, to, end - start);
+            to += end - start;
+            end = start;
+        }
+        return descending;
+    }
+
+    private static int[] sorted(int[] slots, Comparator<Integer> order) {
+        return IntStream.of(slots).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] reversed(int[] slots) {
+        return descending(slots, (slot, other) -> false);
+    }
+
+    // Listing order of two live movies: the sort key, then the id ascending (slot order is id order)
+    private static Comparator<Integer> order(Movies m, MovieSort sort) {
+        Comparator<Integer> byKey = switch (sort.property()) {
+            case "title" -> Comparator.comparing((Integer slot) -> m.titles[slot], TITLE_ORDER);
+            case "releaseYear" -> Comparator.comparingInt((Integer slot) -> m.years[slot]);
+            case "duration" -> Comparator.comparingInt((Integer slot) -> m.durations[slot]);
+            default -> Comparator.naturalOrder();
+        };
+        if (sort.descending()) {
+            byKey = byKey.reversed();
+        }
+        return sort.byId() ? byKey : byKey.thenComparing(Comparator.naturalOrder());
+    }
+
+    private static Map<MovieSort, int[]> emptyOrders() {
+        Map<MovieSort, int[]> orders = new HashMap<>();
+        SORTS.forEach(sort -> orders.put(sort, NO_SLOTS));
+        return orders;
+    }
+
+    // --- What a patch has to reload besides the rows it was given
+
+    int movieCount() {
+        return orders.get(MovieSort.BY_ID).length;
+    }
+
+    // The movies of these actors or genres, whose rows a rename or delete changes too
+    void moviesOf(Link link, Collection<Long> ids, Set<Long> movieIds) {
+        Linked table = link == Link.ACTORS ? actors : genres;
+        for (long id : ids) {
+            int slot = slot(table.ids, table.versions, id);
+            if (slot >= 0) {
+                IntStream.of(table.movies[slot]).forEach(movie -> movieIds.add(movies.ids[movie]));
+            }
+        }
+    }
+
+    // --- Reads, mirroring MovieService, ActorService and GenreService
+
+    // ETag of every listing: changes with each patch, so it always names exactly this snapshot
+    public String etag() {
+        return Versioned.etag(clock + "." + generation);
+    }
+
+    public Page<MovieDto> findMovies(MovieFilter filter, MovieSort sort, int page, int size, Projection projection) {
+        Pageable pageable = PageRequest.of(page, size, sort.toSort());
+        int[] matches = matching(filter, sort);
+        int from = (int) Math.min(pageable.getOffset(), matches.length);
+        int to = (int) Math.min((long) from + size, matches.length);
+        return new PageImpl<>(movieDtos(Arrays.copyOfRange(matches, from, to), projection), pageable, matches.length);
+    }
+
+    // Cursor mode: the matches in order, entered by binary search past the cursor's (value, id)
+    public CursorSlice<MovieDto> scrollMovies(MovieFilter filter, MovieSort sort, String after, int size,
+                                              Projection projection) {
+        if (size < 1) {
+            throw new BadRequestException("size must be at least 1");
+        }
+        MovieCursor cursor = MovieCursor.decode(after, sort);
+        int[] matches = matching(filter, sort);
+        int from = cursor == null ? 0 : firstAfter(matches, cursor);
+        boolean hasNext = matches.length - from > size;
+        int[] window = Arrays.copyOfRange(matches, from, hasNext ? from + size : matches.length);
+        String nextCursor = hasNext ? MovieCursor.after(summary(window[window.length - 1]), sort).encode() : null;
+        return new CursorSlice<>(movieDtos(window, projection), size, hasNext, nextCursor);
+    }
+
+    public MultiGet<MovieDto> getMoviesByIds(List<Long> ids, Projection projection) {
+        List<Long> requested = IdList.distinct(ids);
+        return IdList.collect(requested, found(requested, movies.ids, movies.versions),
+                slots -> movieDtos(slots.stream().mapToInt(Integer::intValue).toArray(), projection));
+    }
+
+    public Versioned<MovieDto> getMovie(long id) {
+        int slot = requireMovie(id);
+        return Versioned.of(movieDto(slot, true, true), movies.versions[slot]);
+    }
+
+    public List<ActorRef> getActorsOfMovie(long id) {
+        return refs(movies.actors[requireMovie(id)], actors, this::actorRef);
+    }
+
+    public List<ActorDto> getAllActors(Projection projection) {
+        return actorDtos(IntStream.range(0, actors.ids.length).filter(actors::live).toArray(), projection);
+    }
+
+    public MultiGet<ActorDto> getActorsByIds(List<Long> ids, Projection projection) {
+        List<Long> requested = IdList.distinct(ids);
+        return IdList.collect(requested, found(requested, actors.ids, actors.versions),
+                slots -> actorDtos(slots.stream().mapToInt(Integer::intValue).toArray(), projection));
+    }
+
+    // Versioned like CatalogVersionRepository.findActorVersion: the actor or any of its movies
+    public Versioned<ActorDto> getActor(long id) {
+        int slot = slot(actors.ids, actors.versions, id);
+        if (slot < 0) {
+            throw new ResourceNotFoundException("Actor not found with id: " + id);
+        }
+        return Versioned.of(ActorDto.of(actorRef(slot), filmography(actors.movies[slot], new HashMap<>())),
+                linkedVersion(actors, slot));
+    }
+
+    // Each genre with one page of its movies, as GenreService.getAllGenreDtos
+    public List<GenreDto> getAllGenres(Projection projection, int page, int size) {
+        boolean withMovies = projection.includes("movies");
+        Map<Integer, MovieDto> built = new HashMap<>();
+        return IntStream.range(0, genres.ids.length).filter(genres::live)
+                .mapToObj(slot -> GenreDto.of(genreRef(slot), withMovies ? filmography(genres.movies[slot], page, size, built) : null))
+                .toList();
+    }
+
+    public Versioned<GenreDto> getGenre(long id) {
+        int slot = slot(genres.ids, genres.versions, id);
+        if (slot < 0) {
+            throw new ResourceNotFoundException("Genre not found with id: " + id);
+        }
+        return Versioned.of(GenreDto.of(genreRef(slot), filmography(genres.movies[slot], new HashMap<>())),
+                linkedVersion(genres, slot));
+    }
+
+    // Slots of the movies passing the filter, in the sort's order
+    private int[] matching(MovieFilter filter, MovieSort sort) {
+        int[] order = orders.get(sort);
+        if (filter.equals(MovieFilter.NONE)) {
+            return order;
+        }
+        int genre = filter.genre() == null ? -1 : slot(genres.ids, genres.versions, filter.genre());
+        int actor = filter.actor() == null ? -1 : slot(actors.ids, actors.versions, filter.actor());
+        if ((filter.genre() != null && genre < 0) || (filter.actor() != null && actor < 0)) {
+            return NO_SLOTS;
+        }
+        IntPredicate passes = slot -> passes(slot, filter, genre, actor);
+        int[] candidates = genre < 0 ? null : genres.movies[genre];
+        if (actor >= 0 && (candidates == null || actors.movies[actor].length < candidates.length)) {
+            candidates = actors.movies[actor];
+        }
+        if (candidates != null && (long) candidates.length * CANDIDATE_RATIO < order.length) {
+            // In slot (id) order: only other sorts need sorting
+            int[] matches = IntStream.of(candidates).filter(passes).toArray();
+            if (sort.byId()) {
+                return sort.descending() ? reversed(matches) : matches;
+            }
+            return sorted(matches, order(movies, sort));
+        }
+        return IntStream.of(order).filter(passes).toArray();
+    }
+
+    private boolean passes(int slot, MovieFilter filter, int genre, int actor) {
+        if (!movies.live(slot)
+                || (genre >= 0 && Arrays.binarySearch(movies.genres[slot], genre) < 0)
+                || (actor >= 0 && Arrays.binarySearch(movies.actors[slot], actor) < 0)) {
+            return false;
+        }
+        int year = movies.years[slot];
+        int duration = movies.durations[slot];
+        return within(year, filter.year(), filter.year())
+                && within(year, filter.yearFrom(), filter.yearTo())
+                && within(duration, filter.minDuration(), filter.maxDuration());
+    }
+
+    // As in SQL, a missing value never satisfies a bound
+    private static boolean within(int value, Integer from, Integer to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return value != NULL_INT && (from == null || value >= from) && (to == null || value <= to);
+    }
+
+    // Position of the first match that comes after the cursor in listing order
+    private int firstAfter(int[] matches, MovieCursor cursor) {
+        MovieSort sort = cursor.sort();
+        int value = 0;
+        if (sort.property().equals("releaseYear") || sort.property().equals("duration")) {
+            try {
+                value = Integer.parseInt(cursor.lastValue());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+        int low = 0;
+        int high = matches.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToCursor(matches[mid], cursor, value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareToCursor(int slot, MovieCursor cursor, int value) {
+        MovieSort sort = cursor.sort();
+        long id = movies.ids[slot];
+        if (sort.byId()) {
+            return sort.descending() ? Long.compare(cursor.lastId(), id) : Long.compare(id, cursor.lastId());
+        }
+        int byKey = switch (sort.property()) {
+            case "title" -> TITLE_ORDER.compare(movies.titles[slot], cursor.lastValue());
+            case "releaseYear" -> Integer.compare(movies.years[slot], value);
+            default -> Integer.compare(movies.durations[slot], value);
+        };
+        if (sort.descending()) {
+            byKey = -byKey;
+        }
+        return byKey != 0 ? byKey : Long.compare(id, cursor.lastId());
+    }
+
+    private int requireMovie(long id) {
+        int slot = slot(movies.ids, movies.versions, id);
+        if (slot < 0) {
+            throw new ResourceNotFoundException("Movie not found with id: " + id);
+        }
+        return slot;
+    }
+
+    private List<MovieDto> movieDtos(int[] slots, Projection projection) {
+        boolean withGenres = projection.includes("genres");
+        boolean withActors = projection.includes("actors");
+        return IntStream.of(slots).mapToObj(slot -> movieDto(slot, withGenres, withActors)).toList();
+    }
+
+    private List<ActorDto> actorDtos(int[] slots, Projection projection) {
+        boolean withMovies = projection.includes("movies");
+        Map<Integer, MovieDto> built = new HashMap<>();
+        return IntStream.of(slots)
+                .mapToObj(slot -> ActorDto.of(actorRef(slot), withMovies ? filmography(actors.movies[slot], built) : null))
+                .toList();
+    }
+
+    // Full movies (genres and actors), each built once per response however many lists show it
+    private List<MovieDto> filmography(int[] movieSlots, Map<Integer, MovieDto> built) {
+        return filmography(movieSlots, 0, Integer.MAX_VALUE, built);
+    }
+
+    private List<MovieDto> filmography(int[] movieSlots, int page, int size, Map<Integer, MovieDto> built) {
+        // Slots follow id order
+        return IntStream.of(movieSlots).filter(movies::live).sorted()
+                .skip((long) page * size).limit(size)
+                .mapToObj(slot -> built.computeIfAbsent(slot, s -> movieDto(s, true, true)))
+                .toList();
+    }
+
+    private MovieDto movieDto(int slot, boolean withGenres, boolean withActors) {
+        return new MovieDto(movies.ids[slot], movies.titles[slot], boxed(movies.years[slot]), boxed(movies.durations[slot]),
+                withGenres ? refs(movies.genres[slot], genres, this::genreRef) : null,
+                withActors ? refs(movies.actors[slot], actors, this::actorRef) : null);
+    }
+
+    private MovieSummary summary(int slot) {
+        return new MovieSummary(movies.ids[slot], movies.titles[slot], boxed(movies.years[slot]), boxed(movies.durations[slot]));
+    }
+
+    private static <T> List<T> refs(int[] slots, Linked table, IntFunction<T> ref) {
+        return IntStream.of(slots).filter(table::live).mapToObj(ref).toList();
+    }
+
+    private GenreRef genreRef(int slot) {
+        return new GenreRef(genres.ids[slot], genres.names[slot]);
+    }
+
+    private ActorRef actorRef(int slot) {
+        int birthDay = actors.birthDays[slot];
+        return new ActorRef(actors.ids[slot], actors.names[slot], birthDay == NULL_INT ? null : LocalDate.ofEpochDay(birthDay));
+    }
+
+    private long linkedVersion(Linked table, int slot) {
+        long version = table.versions[slot];
+        for (int movie : table.movies[slot]) {
+            if (movies.live(movie)) {
+                version = Math.max(version, movies.versions[movie]);
+            }
+        }
+        return version;
+    }
+
+    private static Map<Long, Integer> found(List<Long> ids, long[] tableIds, long[] versions) {
+        Map<Long, Integer> found = new HashMap<>();
+        for (Long id : ids) {
+            int slot = slot(tableIds, versions, id);
+            if (slot >= 0) {
+                found.put(id, slot);
+            }
+        }
+        return found;
+    }
+
+    private static int slot(long[] ids, long[] versions, long id) {
+        int slot = Arrays.binarySearch(ids, id);
+        return slot >= 0 && versions[slot] >= 0 ? slot : -1;
+    }
+
+    private static int orNull(Integer value) {
+        return value != null ? value : NULL_INT;
+    }
+
+    private static Integer boxed(int value) {
+        return value != NULL_INT ? value : null;
+    }
+}
@@ -0,0 +1,302 @@
+package com.filmsociety.movies_api.service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+import com.filmsociety.movies_api.service.CatalogSnapshot.LinkedRow;
+import com.filmsociety.movies_api.service.CatalogSnapshot.MovieRow;
+import com.filmsociety.movies_api.service.CatalogSnapshot.Reload;
+
+// Snapshot read mode (app.snapshot.enabled): the GET endpoints answer from a CatalogSnapshot instead
+// of Hibernate and SQLite, so a long write never holds up a read.
+// - Built once the application is ready, and again after imports, in keyset pages of app.snapshot.page-size rows.
+//   Each page is a short read transaction of its own, so a build never holds a read lock for long
+//   (in rollback-journal mode a long read blocks every writer's commit). Pages read at different
+//   times are made consistent by the changes reported meanwhile, which are applied right after.
+// - The services report which rows they changed; once the write commits, those rows are read back
+//   and a patched copy replaces the snapshot. Readers keep whichever snapshot they started with.
+// - A patch touching more than a quarter of the movies (and over 500), or adding an id below existing ones, is a
+//   full rebuild instead.
+// current() is null while disabled or before the first build: callers then use the database.
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+    // Ids per IN (...) list when reading changed rows back
+    private static final int CHUNK_SIZE = 500;
+    private static final String MOVIES = "SELECT id, title, release_year, duration, version FROM movies";
+    private static final String ACTORS = "SELECT id, name, birth_date, version FROM actors";
+    private static final String GENRES = "SELECT id, name, NULL, version FROM genres";
+
+    // Rows a committed write changed (link null = movies)
+    private record Change(Link link, List<Long> ids) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final boolean enabled;
+    // Rows per read transaction of a full build
+    private final int pageSize;
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+    // Serializes builds and patches; readers never take it
+    private final Object writeLock = new Object();
+
+    private volatile CatalogSnapshot current;
+
+    public CatalogSnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  @Value("${app.snapshot.enabled:false}") boolean enabled,
+                                  @Value("${app.snapshot.page-size:5000}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Its own transaction: patches run after the writer's commit, while its connection is still bound
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+    }
+
+    public CatalogSnapshot current() {
+        return current;
+    }
+
+    // Changes committed during the build are reported after it started: they are read back and
+    // applied on top of it afterwards, whichever pages saw them
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            pending.clear();
+            long start = System.nanoTime();
+            CatalogSnapshot built = load();
+            current = built;
+            log.info("Catalog snapshot built in {} ms ({} movies)", (System.nanoTime() - start) / 1_000_000,
+                    built.movieCount());
+        }
+        applyPending();
+    }
+
+    // --- Changes, reported by the services inside their write transactions
+
+    // Movies created, updated, deleted or linked differently
+    public void moviesChanged(Collection<Long> movieIds) {
+        report(new Change(null, List.copyOf(movieIds)));
+    }
+
+    // An actor or genre created, renamed or deleted (with its links)
+    public void linkedChanged(Link link, long id) {
+        report(new Change(link, List.of(id)));
+    }
+
+    private void report(Change change) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            pending.add(change);
+            applyPending();
+        });
+    }
+
+    // Applies every change reported so far in one patch; whoever gets the lock first takes
+    // the others' changes along, as the rows are read back after all of them committed
+    private void applyPending() {
+        synchronized (writeLock) {
+            CatalogSnapshot snapshot = current;
+            if (pending.isEmpty() || snapshot == null) {
+                return;
+            }
+            Set<Long> movieIds = new HashSet<>();
+            Set<Long> actorIds = new HashSet<>();
+            Set<Long> genreIds = new HashSet<>();
+            for (Change change = pending.poll(); change != null; change = pending.poll()) {
+                (change.link() == null ? movieIds : change.link() == Link.ACTORS ? actorIds : genreIds).addAll(change.ids());
+            }
+            snapshot.moviesOf(Link.ACTORS, actorIds, movieIds);
+            snapshot.moviesOf(Link.GENRES, genreIds, movieIds);
+            CatalogSnapshot patched = null;
+            if (movieIds.size() <= Math.max(CHUNK_SIZE, snapshot.movieCount() / 4)) {
+                patched = snapshot.patched(readTransaction.execute(status -> reload(movieIds, actorIds, genreIds)));
+            }
+            if (patched != null) {
+                current = patched;
+                return;
+            }
+        }
+        rebuild();
+    }
+
+    // --- Reading rows
+
+    private CatalogSnapshot load() {
+        Long clock = readTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT version FROM catalog_clock", Long.class));
+        // One String per distinct title or name, however many rows share it
+        Map<String, String> strings = new HashMap<>();
+        List<MovieRow> movies = new ArrayList<>();
+        List<MovieRow> page;
+        do {
+            long afterId = movies.isEmpty() ? 0 : movies.get(movies.size() - 1).id();
+            page = readTransaction.execute(status -> moviePage(afterId, strings));
+            movies.addAll(page);
+        } while (page.size() == pageSize);
+        return CatalogSnapshot.build(clock != null ? clock : 0, new Reload(Set.of(), movies,
+                Set.of(), linkedPages(ACTORS, strings), Set.of(), linkedPages(GENRES, strings)));
+    }
+
+    // Up to pageSize movies after afterId, with the links of exactly those movies
+    private List<MovieRow> moviePage(long afterId, Map<String, String> strings) {
+        Long lastId = jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM (SELECT id FROM movies WHERE id > ? ORDER BY id LIMIT ?)", Long.class, afterId, pageSize);
+        List<MovieRow> movies = new ArrayList<>();
+        if (lastId == null) {
+            return movies;
+        }
+        List<Long> range = List.of(afterId, lastId);
+        Links genres = links(Link.GENRES, " WHERE movie_id > ? AND movie_id <= ?", range);
+        Links actors = links(Link.ACTORS, " WHERE movie_id > ? AND movie_id <= ?", range);
+        jdbcTemplate.query(MOVIES + " WHERE id > ? AND id <= ? ORDER BY id", rs -> {
+            movies.add(movieRow(rs, strings, genres, actors));
+        }, afterId, lastId);
+        return movies;
+    }
+
+    private List<LinkedRow> linkedPages(String select, Map<String, String> strings) {
+        List<LinkedRow> rows = new ArrayList<>();
+        List<LinkedRow> page;
+        do {
+            long afterId = rows.isEmpty() ? 0 : rows.get(rows.size() - 1).id();
+            page = readTransaction.execute(status -> linkedRows(select, " WHERE id > ? ORDER BY id LIMIT ?",
+                    List.of(afterId, (long) pageSize), strings));
+            rows.addAll(page);
+        } while (page.size() == pageSize);
+        return rows;
+    }
+
+    private Reload reload(Set<Long> movieIds, Set<Long> actorIds, Set<Long> genreIds) {
+        Map<String, String> strings = new HashMap<>();
+        List<MovieRow> movies = new ArrayList<>();
+        List<LinkedRow> actors = new ArrayList<>();
+        List<LinkedRow> genres = new ArrayList<>();
+        for (List<Long> chunk : chunks(movieIds)) {
+            String in = placeholders(chunk);
+            Links genreLinks = links(Link.GENRES, " WHERE movie_id IN " + in, chunk);
+            Links actorLinks = links(Link.ACTORS, " WHERE movie_id IN " + in, chunk);
+            jdbcTemplate.query(MOVIES + " WHERE id IN " + in + " ORDER BY id", rs -> {
+                movies.add(movieRow(rs, strings, genreLinks, actorLinks));
+            }, chunk.toArray());
+        }
+        for (List<Long> chunk : chunks(actorIds)) {
+            actors.addAll(linkedRows(ACTORS, " WHERE id IN " + placeholders(chunk), chunk, strings));
+        }
+        for (List<Long> chunk : chunks(genreIds)) {
+            genres.addAll(linkedRows(GENRES, " WHERE id IN " + placeholders(chunk), chunk, strings));
+        }
+        return new Reload(movieIds, movies, actorIds, actors, genreIds, genres);
+    }
+
+    // Movies must come in id order, to be matched with their links (see Links)
+    private static MovieRow movieRow(ResultSet rs, Map<String, String> strings, Links genres, Links actors)
+            throws SQLException {
+        long id = rs.getLong(1);
+        return new MovieRow(id, intern(strings, rs.getString(2)), nullableInt(rs, 3), nullableInt(rs, 4), rs.getLong(5),
+                genres.of(id), actors.of(id));
+    }
+
+    private List<LinkedRow> linkedRows(String select, String where, List<Long> args, Map<String, String> strings) {
+        List<LinkedRow> rows = new ArrayList<>();
+        jdbcTemplate.query(select + where, rs -> {
+            Date birthDate = rs.getDate(3);
+            rows.add(new LinkedRow(rs.getLong(1), intern(strings, rs.getString(2)),
+                    birthDate != null ? birthDate.toLocalDate() : null, rs.getLong(4)));
+        }, args.toArray());
+        return rows;
+    }
+
+    private Links links(Link link, String where, List<Long> args) {
+        String table = link == Link.ACTORS ? "movie_actors" : "movie_genres";
+        String column = link == Link.ACTORS ? "actor_id" : "genre_id";
+        Links links = new Links();
+        jdbcTemplate.query("SELECT movie_id, " + column + " FROM " + table + where + " ORDER BY movie_id", rs -> {
+            links.add(rs.getLong(1), rs.getLong(2));
+        }, args.toArray());
+        return links;
+    }
+
+    // A join table's rows in movie order, as two primitive columns; read off while the movies
+    // are read in the same order, so a million links need no map and no boxed ids
+    private static final class Links {
+
+        private long[] movieIds = new long[1024];
+        private long[] linkedIds = new long[1024];
+        private int size;
+        private int next;
+
+        void add(long movieId, long linkedId) {
+            if (size == movieIds.length) {
+                movieIds = Arrays.copyOf(movieIds, size * 2);
+                linkedIds = Arrays.copyOf(linkedIds, size * 2);
+            }
+            movieIds[size] = movieId;
+            linkedIds[size++] = linkedId;
+        }
+
+        // The linked ids of this movie; ask in ascending movie id order
+        long[] of(long movieId) {
+            while (next < size && movieIds[next] < movieId) {
+                next++;
+            }
+            int from = next;
+            while (next < size && movieIds[next] == movieId) {
+                next++;
+            }
+            return Arrays.copyOfRange(linkedIds, from, next);
+        }
+    }
+
+    // Ascending, so each chunk's movies and links can be matched in order
+    private static List<List<Long>> chunks(Set<Long> ids) {
+        List<Long> all = ids.stream().sorted().toList();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(all.size(), from + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(List<Long> ids) {
+        return ids.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static String intern(Map<String, String> strings, String value) {
+        return value == null ? null : strings.computeIfAbsent(value, v -> v);
+    }
+
+    private static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
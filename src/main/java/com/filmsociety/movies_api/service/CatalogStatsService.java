@@ -0,0 +1,336 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.filmsociety.movies_api.dto.CatalogStats;
+import com.filmsociety.movies_api.entity.Actor;
+import com.filmsociety.movies_api.entity.Genre;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// Catalog aggregates for /api/stats, held in memory as primitive counters:
+// movies per genre, per release year and per actor, and a per-minute duration histogram.
+// - Rebuilt from SQLite once the application is ready (three GROUP BY scans) and after bulk imports.
+// - Kept current by the services, which report each write as a delta. Deltas are applied when the
+//   transaction commits, so rolled-back writes never count. Values are captured when reported.
+// - Reads never touch the database: the response is built from the counters on the first read
+//   after a change and reused until the next one.
+// - Rebuilds run while writes go on (at startup Tomcat is already serving). The scans read one snapshot;
+//   deltas committed after it was taken are kept aside and replayed on the fresh counts, the others
+//   are already in the scans. Commits that report deltas hold commitLock from just before the commit
+//   until their deltas are applied, so every delta falls clearly on one side of the snapshot.
+@Service
+public class CatalogStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogStatsService.class);
+
+    // Minutes; longer movies share the last bucket
+    private static final int MAX_DURATION = 1440;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    // Shared by committing writers, taken exclusively by a rebuild to take its snapshot
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    // One rebuild at a time (startup and an import may overlap)
+    private final Object rebuildLock = new Object();
+
+    // Guarded by this
+    private Counts counts = new Counts();
+    // Deltas committed since the running rebuild's snapshot; null when no rebuild runs
+    private List<Change> replay;
+    private volatile CatalogStats summary;
+    private volatile List<CatalogStats.ActorCount> actorRanking;
+
+    public CatalogStatsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private static final class Counts {
+        long movies;
+        final LongCountMap byGenre = new LongCountMap(64);
+        final LongCountMap byYear = new LongCountMap(256);
+        final LongCountMap byActor = new LongCountMap(1024);
+        final long[] durations = new long[MAX_DURATION + 1];
+        long durationSum;
+        final Map<Long, String> genreNames = new HashMap<>();
+
+        void movie(int year, int duration, long delta) {
+            movies += delta;
+            byYear.add(year, delta);
+            durations[Math.clamp(duration, 0, MAX_DURATION)] += delta;
+            durationSum += delta * duration;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Counts fresh = new Counts();
+        synchronized (rebuildLock) {
+            try {
+                snapshotTransaction.executeWithoutResult(status -> scan(fresh));
+                synchronized (this) {
+                    replay.forEach(change -> change.apply(fresh));
+                    counts = fresh;
+                    changed();
+                }
+            } finally {
+                synchronized (this) {
+                    replay = null;
+                }
+            }
+        }
+        log.info("Catalog statistics rebuilt in {} ms ({} movies)", (System.nanoTime() - start) / 1_000_000, fresh.movies);
+    }
+
+    // In one read transaction: its first statement fixes the snapshot the scans see
+    private void scan(Counts fresh) {
+        commitLock.writeLock().lock();
+        try {
+            jdbcTemplate.queryForObject("SELECT version FROM catalog_clock", Long.class);
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+        jdbcTemplate.query("SELECT release_year, duration, count(*) FROM movies GROUP BY release_year, duration", rs -> {
+            fresh.movie(rs.getInt(1), rs.getInt(2), rs.getLong(3));
+        });
+        jdbcTemplate.query("SELECT id, name FROM genres", rs -> {
+            fresh.genreNames.put(rs.getLong(1), rs.getString(2));
+        });
+        jdbcTemplate.query("SELECT genre_id, count(*) FROM movie_genres GROUP BY genre_id", rs -> {
+            fresh.byGenre.add(rs.getLong(1), rs.getLong(2));
+        });
+        jdbcTemplate.query("SELECT actor_id, count(*) FROM movie_actors GROUP BY actor_id", rs -> {
+            fresh.byActor.add(rs.getLong(1), rs.getLong(2));
+        });
+    }
+
+    // --- Deltas, reported by the services inside their write transactions
+
+    // The movie's genres and actors as saved with it
+    public void movieAdded(Movie movie) {
+        movieCounted(movie, 1);
+    }
+
+    // A movie written without an entity (imports); its links are reported through linksChanged
+    public void movieAdded(int year, int duration) {
+        afterCommit(counts -> counts.movie(year, duration, 1));
+    }
+
+    // Call before the delete, while the movie's relations are still loaded
+    public void movieRemoved(Movie movie) {
+        movieCounted(movie, -1);
+    }
+
+    public void movieUpdated(int oldYear, int oldDuration, int newYear, int newDuration) {
+        if (oldYear == newYear && oldDuration == newDuration) {
+            return;
+        }
+        afterCommit(counts -> {
+            counts.movie(oldYear, oldDuration, -1);
+            counts.movie(newYear, newDuration, 1);
+        });
+    }
+
+    // Join rows written by MovieLinkService, as movie id -> linked ids
+    public void linksChanged(Link link, Map<Long, Set<Long>> inserted, Map<Long, Set<Long>> deleted) {
+        long[] added = linkedIds(inserted);
+        long[] removed = linkedIds(deleted);
+        afterCommit(counts -> {
+            LongCountMap byLinked = link == Link.ACTORS ? counts.byActor : counts.byGenre;
+            for (long id : added) byLinked.add(id, 1);
+            for (long id : removed) byLinked.add(id, -1);
+        });
+    }
+
+    // One actor or genre unlinked from count movies at once (force deletes)
+    public void linksRemoved(Link link, long linkedId, long count) {
+        afterCommit(counts -> (link == Link.ACTORS ? counts.byActor : counts.byGenre).add(linkedId, -count));
+    }
+
+    public void genreSaved(Genre genre) {
+        genreSaved(genre.getId(), genre.getName());
+    }
+
+    public void genreSaved(long id, String name) {
+        afterCommit(counts -> counts.genreNames.put(id, name));
+    }
+
+    public void genreRemoved(long genreId) {
+        afterCommit(counts -> counts.genreNames.remove(genreId));
+    }
+
+    // --- Reads
+
+    public CatalogStats getStats() {
+        CatalogStats stats = summary;
+        if (stats == null) {
+            synchronized (this) {
+                if (summary == null) {
+                    summary = summarize(counts);
+                }
+                stats = summary;
+            }
+        }
+        return stats;
+    }
+
+    // Actors by number of movies, most first (ties by id)
+    public List<CatalogStats.ActorCount> getTopActors(int limit) {
+        List<CatalogStats.ActorCount> ranking = actorRanking;
+        if (ranking == null) {
+            synchronized (this) {
+                if (actorRanking == null) {
+                    actorRanking = rankActors(counts);
+                }
+                ranking = actorRanking;
+            }
+        }
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    public synchronized CatalogStats.ActorCount getActor(long actorId) {
+        return new CatalogStats.ActorCount(actorId, counts.byActor.get(actorId));
+    }
+
+    private void movieCounted(Movie movie, int delta) {
+        int year = movie.getReleaseYear();
+        int duration = movie.getDuration();
+        long[] genres = movie.getGenres().stream().map(Genre::getId).filter(Objects::nonNull).mapToLong(Long::longValue).distinct().toArray();
+        long[] actors = movie.getActors().stream().map(Actor::getId).filter(Objects::nonNull).mapToLong(Long::longValue).distinct().toArray();
+        afterCommit(counts -> {
+            counts.movie(year, duration, delta);
+            for (long id : genres) counts.byGenre.add(id, delta);
+            for (long id : actors) counts.byActor.add(id, delta);
+        });
+    }
+
+    private static long[] linkedIds(Map<Long, Set<Long>> links) {
+        return links.values().stream().flatMap(Set::stream).mapToLong(Long::longValue).toArray();
+    }
+
+    private interface Change {
+        void apply(Counts counts);
+    }
+
+    // Like AfterCommit, but holding commitLock (shared) from before the commit until the delta is applied
+    private void afterCommit(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitLock.readLock().lock();
+            try {
+                apply(change);
+            } finally {
+                commitLock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    commitLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    private synchronized void apply(Change change) {
+        change.apply(counts);
+        if (replay != null) {
+            replay.add(change);
+        }
+        changed();
+    }
+
+    // Called holding the lock
+    private void changed() {
+        summary = null;
+        actorRanking = null;
+    }
+
+    private static CatalogStats summarize(Counts counts) {
+        List<CatalogStats.GenreCount> genres = new ArrayList<>();
+        counts.genreNames.forEach((id, name) -> genres.add(new CatalogStats.GenreCount(id, name, counts.byGenre.get(id))));
+        genres.sort(Comparator.comparing(CatalogStats.GenreCount::name));
+
+        List<CatalogStats.YearCount> years = new ArrayList<>();
+        counts.byYear.forEach((year, movies) -> years.add(new CatalogStats.YearCount((int) year, movies)));
+        years.sort(Comparator.comparingInt(CatalogStats.YearCount::year));
+
+        return new CatalogStats(counts.movies, durations(counts), List.copyOf(genres), List.copyOf(years));
+    }
+
+    private static CatalogStats.Durations durations(Counts counts) {
+        if (counts.movies <= 0) {
+            return new CatalogStats.Durations(0, 0, 0, 0, 0, 0, 0);
+        }
+        long[] histogram = counts.durations;
+        int min = 0;
+        while (histogram[min] == 0) min++;
+        int max = MAX_DURATION;
+        while (histogram[max] == 0) max--;
+        return new CatalogStats.Durations((double) counts.durationSum / counts.movies, min, max,
+                percentile(histogram, counts.movies, 50), percentile(histogram, counts.movies, 90),
+                percentile(histogram, counts.movies, 95), percentile(histogram, counts.movies, 99));
+    }
+
+    // Smallest duration with at least p% of movies at or below it
+    private static int percentile(long[] histogram, long total, int p) {
+        long rank = Math.max(1, (total * p + 99) / 100);
+        long seen = 0;
+        for (int minutes = 0; minutes < histogram.length; minutes++) {
+            seen += histogram[minutes];
+            if (seen >= rank) {
+                return minutes;
+            }
+        }
+        return histogram.length - 1;
+    }
+
+    private static List<CatalogStats.ActorCount> rankActors(Counts counts) {
+        List<CatalogStats.ActorCount> ranking = new ArrayList<>();
+        counts.byActor.forEach((id, movies) -> ranking.add(new CatalogStats.ActorCount(id, movies)));
+        ranking.sort(Comparator.comparingLong(CatalogStats.ActorCount::movies).reversed()
+                .thenComparingLong(CatalogStats.ActorCount::actorId));
+        return List.copyOf(ranking);
+    }
+}
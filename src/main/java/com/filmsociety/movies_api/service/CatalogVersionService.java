@@ -0,0 +1,36 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.filmsociety.movies_api.dto.Versioned;
+import com.filmsociety.movies_api.repository.CatalogVersionRepository;
+
+// Current ETags, for answering If-None-Match before any body is built
+@Service
+public class CatalogVersionService {
+
+    private final CatalogVersionRepository versionRepository;
+
+    public CatalogVersionService(CatalogVersionRepository versionRepository) {
+        this.versionRepository = versionRepository;
+    }
+
+    public Optional<String> getMovieETag(Long id) {
+        return versionRepository.findMovieVersion(id).map(Versioned::etag);
+    }
+
+    public Optional<String> getActorETag(Long id) {
+        return versionRepository.findActorVersion(id).map(Versioned::etag);
+    }
+
+    public Optional<String> getGenreETag(Long id) {
+        return versionRepository.findGenreVersion(id).map(Versioned::etag);
+    }
+
+    // For listings: changes whenever anything in the catalog does
+    public String getCatalogETag() {
+        return Versioned.etag(versionRepository.getCatalogVersion());
+    }
+}
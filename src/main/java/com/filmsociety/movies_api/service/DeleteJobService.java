@@ -0,0 +1,187 @@
+package com.filmsociety.movies_api.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.filmsociety.movies_api.dto.DeleteJob;
+import com.filmsociety.movies_api.dto.DeleteJob.State;
+import com.filmsociety.movies_api.exception.ResourceNotFoundException;
+import com.filmsociety.movies_api.repository.ActorRepository;
+import com.filmsociety.movies_api.repository.GenreRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// Force delete of an actor or genre with very many movies, as a background job:
+// the join rows go chunkSize at a time, each chunk in its own short transaction, so other
+// writers get the database between chunks; then the entity and any links added meanwhile
+// go in one last transaction. Progress is kept in memory and polled via GET /api/jobs/{id};
+// finished jobs are forgotten after the retention period.
+@Service
+public class DeleteJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeleteJobService.class);
+
+    private final MovieLinkRepository linkRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final CatalogCacheInvalidator cacheInvalidator;
+    private final CatalogStatsService statsService;
+    private final CatalogGraphService graphService;
+    private final MovieFilterIndex filterIndex;
+    private final CatalogSnapshotService snapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public DeleteJobService(MovieLinkRepository linkRepository, ActorRepository actorRepository,
+                            GenreRepository genreRepository, CatalogCacheInvalidator cacheInvalidator,
+                            CatalogStatsService statsService, CatalogGraphService graphService,
+                            MovieFilterIndex filterIndex, CatalogSnapshotService snapshotService,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                            @Value("${app.delete.chunk-size:1000}") int chunkSize,
+                            @Value("${app.delete.job-retention:1h}") Duration retention) {
+        this.linkRepository = linkRepository;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.statsService = statsService;
+        this.graphService = graphService;
+        this.filterIndex = filterIndex;
+        this.snapshotService = snapshotService;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = chunkSize;
+        this.retention = retention;
+    }
+
+    public DeleteJob deleteActor(Long id) {
+        if (!actorRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Actor not found with id: " + id);
+        }
+        return start("actor", Link.ACTORS, id, actorRepository);
+    }
+
+    public DeleteJob deleteGenre(Long id) {
+        if (!genreRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Genre not found with id: " + id);
+        }
+        return start("genre", Link.GENRES, id, genreRepository);
+    }
+
+    public DeleteJob getJob(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job not found with id: " + id);
+        }
+        return job.snapshot();
+    }
+
+    private DeleteJob start(String type, Link link, long targetId, JpaRepository<?, Long> repository) {
+        forgetFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), type, targetId, linkRepository.countMovies(link, targetId));
+        jobs.put(job.id, job);
+        taskExecutor.execute(() -> run(job, link, repository));
+        return job.snapshot();
+    }
+
+    private void run(Job job, Link link, JpaRepository<?, Long> repository) {
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> {
+                    // Rare enough to just drop the caches (at commit) rather than work out each movie's actors and genres
+                    cacheInvalidator.clearAll();
+                    List<Long> movieIds = linkRepository.deleteSome(link, job.targetId, chunkSize);
+                    // Each chunk reaches the in-memory indexes as it commits, so they never list links that are
+                    // gone, even if a later chunk fails
+                    Map<Long, Set<Long>> unlinked = new HashMap<>();
+                    movieIds.forEach(movieId -> unlinked.put(movieId, Set.of(job.targetId)));
+                    statsService.linksRemoved(link, job.targetId, movieIds.size());
+                    graphService.linksChanged(link, Map.of(), unlinked);
+                    filterIndex.linksChanged(link, Map.of(), unlinked);
+                    snapshotService.moviesChanged(movieIds);
+                    return movieIds.size();
+                });
+                job.chunkDeleted(deleted);
+            } while (deleted == chunkSize);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                cacheInvalidator.clearAll();
+                int count = linkRepository.deleteAll(link, job.targetId);
+                statsService.linksRemoved(link, job.targetId, count);
+                if (link == Link.GENRES) {
+                    statsService.genreRemoved(job.targetId);
+                }
+                graphService.linkedRemoved(link, job.targetId);
+                filterIndex.linkedRemoved(link, job.targetId);
+                snapshotService.linkedChanged(link, job.targetId);
+                repository.deleteById(job.targetId);
+                job.chunkDeleted(count);
+            });
+            job.finish(State.COMPLETED, null);
+            log.info("Deleted {} {} and {} links in {} chunks", job.type, job.targetId, job.linksDeleted, job.chunks);
+        } catch (RuntimeException e) {
+            job.finish(State.FAILED, e.getMessage());
+            log.warn("Delete job {} for {} {} failed after {} links", job.id, job.type, job.targetId, job.linksDeleted, e);
+        }
+    }
+
+    private void forgetFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    // Written by the job's thread only, read by status requests
+    private static final class Job {
+        private final String id;
+        private final String type;
+        private final long targetId;
+        private final long links;
+        private final Instant startedAt = Instant.now();
+        private volatile State state = State.RUNNING;
+        private volatile long linksDeleted;
+        private volatile int chunks;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Job(String id, String type, long targetId, long links) {
+            this.id = id;
+            this.type = type;
+            this.targetId = targetId;
+            this.links = links;
+        }
+
+        void chunkDeleted(int count) {
+            linksDeleted += count;
+            chunks++;
+        }
+
+        void finish(State finalState, String message) {
+            error = message;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        DeleteJob snapshot() {
+            return new DeleteJob(id, type, targetId, state, links, linksDeleted, chunks, startedAt, finishedAt, error);
+        }
+    }
+}
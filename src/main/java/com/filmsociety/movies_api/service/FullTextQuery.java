@@ -0,0 +1,27 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.StringJoiner;
+
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// Turns free user input into an FTS5 MATCH expression.
+// Every word becomes a quoted prefix term and all terms must match,
+// so "dark kni" finds "The Dark Knight". Quoting keeps FTS5 operators
+// and punctuation in the input from being interpreted.
+public final class FullTextQuery {
+
+    private FullTextQuery() {}
+
+    public static String prefixMatch(String input) {
+        StringJoiner query = new StringJoiner(" AND ");
+        for (String word : input.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                query.add("\"" + word + "\"*");
+            }
+        }
+        if (query.length() == 0) {
+            throw new BadRequestException("Search term must contain at least one letter or digit");
+        }
+        return query.toString();
+    }
+}
@@ -1,64 +1,142 @@
 package com.filmsociety.movies_api.service;
 
+import com.filmsociety.movies_api.config.CacheConfig;
+import com.filmsociety.movies_api.dto.GenreDto;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.dto.Versioned;
 import com.filmsociety.movies_api.entity.Genre;
 import com.filmsociety.movies_api.entity.Movie;
 import com.filmsociety.movies_api.exception.BadRequestException;
 import com.filmsociety.movies_api.exception.ResourceNotFoundException;
+import com.filmsociety.movies_api.repository.CatalogVersionRepository;
 import com.filmsociety.movies_api.repository.GenreRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
 import com.filmsociety.movies_api.repository.MovieRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class GenreService {
 
     private final GenreRepository genreRepository;
     private final MovieRepository movieRepository;
+    private final CatalogVersionRepository versionRepository;
+    private final MovieLinkRepository linkRepository;
+    private final CatalogCacheInvalidator cacheInvalidator;
+    private final CatalogStatsService statsService;
+    private final CatalogGraphService graphService;
+    private final MovieFilterIndex filterIndex;
+    private final CatalogSnapshotService snapshotService;
 
-    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository) {
+    public GenreService(GenreRepository genreRepository, MovieRepository movieRepository,
+                        CatalogVersionRepository versionRepository, MovieLinkRepository linkRepository,
+                        CatalogCacheInvalidator cacheInvalidator, CatalogStatsService statsService,
+                        CatalogGraphService graphService, MovieFilterIndex filterIndex,
+                        CatalogSnapshotService snapshotService) {
         this.genreRepository = genreRepository;
         this.movieRepository = movieRepository;
+        this.versionRepository = versionRepository;
+        this.linkRepository = linkRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.statsService = statsService;
+        this.graphService = graphService;
+        this.filterIndex = filterIndex;
+        this.snapshotService = snapshotService;
     }
 
     public List<Genre> getAllGenres() {
         return genreRepository.findAll();
     }
 
+    // GET /api/genres without movies: the genre columns alone, in one query
+    @Transactional(readOnly = true)
+    public List<GenreDto> getAllGenreSummaries() {
+        return genreRepository.findAllRefs().stream().map(genre -> GenreDto.of(genre, null)).toList();
+    }
+
+    // Cached read model of GET /api/genres: every genre with one page of its movies, by id. A response
+    // holds at most genres x size movies whatever the catalog size (the whole list of a genre is paged
+    // through /api/movies?genre=). One index range query per genre, then each movie once (findDtos).
+    @Cacheable(cacheNames = CacheConfig.GENRE_LIST, key = "#page + ':' + #size")
+    @Transactional(readOnly = true)
+    public Versioned<List<GenreDto>> getAllGenreDtos(int page, int size) {
+        long version = versionRepository.getCatalogVersion();
+        List<GenreRef> genres = genreRepository.findAllRefs();
+        Map<Long, List<Long>> movieIds = new HashMap<>();
+        for (GenreRef genre : genres) {
+            movieIds.put(genre.id(), linkRepository.findMovieIds(Link.GENRES, genre.id(), (long) page * size, size));
+        }
+        Map<Long, MovieDto> movies = new HashMap<>();
+        for (MovieDto movie : movieRepository.findDtos(movieIds.values().stream().flatMap(List::stream).distinct().toList())) {
+            movies.put(movie.id(), movie);
+        }
+        return Versioned.of(genres.stream()
+                .map(genre -> GenreDto.of(genre, movieIds.get(genre.id()).stream().map(movies::get).filter(Objects::nonNull).toList()))
+                .toList(), version);
+    }
+
     public Genre getGenreById(Long id) {
         return genreRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Genre not found with id: " + id));
     }
 
+    // Cached read model of GET /api/genres/{id}
+    @Cacheable(cacheNames = CacheConfig.GENRES, key = "#id")
+    @Transactional(readOnly = true)
+    public Versioned<GenreDto> getGenreDto(Long id) {
+        Genre genre = getGenreById(id);
+        List<Long> movieIds = movieRepository.findByGenres_Id(id).stream().map(Movie::getId).sorted().toList();
+        List<Movie> movies = movieRepository.findAllWithRelations(movieIds);
+        // Same rule as CatalogVersionRepository.findGenreVersion
+        long version = movies.stream().mapToLong(Movie::getVersion).reduce(genre.getVersion(), Math::max);
+        return Versioned.of(GenreDto.from(genre, MovieDto.fromAll(movies)), version);
+    }
+
+    @Transactional
     public Genre createGenre(Genre genre) {
-        return genreRepository.save(genre);
+        Genre saved = genreRepository.save(genre);
+        cacheInvalidator.genreListChanged();
+        statsService.genreSaved(saved);
+        snapshotService.linkedChanged(Link.GENRES, saved.getId());
+        return saved;
     }
 
+    @Transactional
     public Genre updateGenre(Long id, Genre genreDetails) {
         Genre genre = getGenreById(id);
         // PATCH: Only update if the name is provided
         if (genreDetails.getName() != null) {
             genre.setName(genreDetails.getName());
         }
+        cacheInvalidator.genreChanged(id);
+        statsService.genreSaved(genre);
+        snapshotService.linkedChanged(Link.GENRES, id);
         return genreRepository.save(genre);
     }
 
     @Transactional
     public void deleteGenre(Long id, boolean force) {
         Genre genre = getGenreById(id);
-        List<Movie> movies = movieRepository.findByGenres_Id(id);
+        long movies = linkRepository.countMovies(Link.GENRES, id);
 
-        if (!movies.isEmpty()) {
-            if (!force) {
-                throw new BadRequestException("Cannot delete genre '" + genre.getName() + "' because it has " + movies.size() + " associated movies.");
-            }
-            // If force is true, remove the relationship from movies first
-            for (Movie movie : movies) {
-                movie.getGenres().remove(genre);
-                movieRepository.save(movie);
-            }
+        if (movies > 0 && !force) {
+            throw new BadRequestException("Cannot delete genre '" + genre.getName() + "' because it has " + movies + " associated movies.");
         }
+        cacheInvalidator.genreChanged(id);  // Only applied if the delete commits
+        // If force is true, unlink it from every movie in one statement
+        statsService.linksRemoved(Link.GENRES, id, linkRepository.deleteAll(Link.GENRES, id));
+        statsService.genreRemoved(id);
+        graphService.linkedRemoved(Link.GENRES, id);
+        filterIndex.linkedRemoved(Link.GENRES, id);
+        snapshotService.linkedChanged(Link.GENRES, id);
         genreRepository.delete(genre);
     }
 }
\ No newline at end of file
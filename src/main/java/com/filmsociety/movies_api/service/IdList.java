@@ -0,0 +1,50 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.filmsociety.movies_api.dto.MultiGet;
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// The id list of a multi-get (?ids=3,1,2 or a POSTed array): checked, without repeats, order kept
+final class IdList {
+
+    static final int MAX_IDS = 1000;
+
+    private IdList() {}
+
+    static List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("ids must name at least one id");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new BadRequestException("Ids must not be null");
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > MAX_IDS) {
+            throw new BadRequestException("At most " + MAX_IDS + " ids per request");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    // Found rows in the order of the ids; the ids without one are reported as missing
+    static <R, T> MultiGet<T> collect(List<Long> ids, Map<Long, R> found, Function<List<R>, List<T>> toItems) {
+        List<R> rows = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            R row = found.get(id);
+            if (row != null) {
+                rows.add(row);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGet<>(toItems.apply(rows), missing);
+    }
+}
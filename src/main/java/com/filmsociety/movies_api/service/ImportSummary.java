@@ -0,0 +1,21 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.List;
+
+// Result of POST /api/import: totals plus one entry per committed batch
+public record ImportSummary(
+        boolean completed,
+        long lines,
+        long moviesCreated,
+        // Already stored under the same title and release year: updated to match, or identical
+        long moviesUpdated,
+        long moviesUnchanged,
+        long actorsCreated,
+        long genresCreated,
+        long skipped,
+        long millis,
+        List<BatchProgress> batches,
+        List<String> errors) {
+
+    public record BatchProgress(int batch, long lastLine, int records, long millis) {}
+}
@@ -0,0 +1,91 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Arrays;
+
+// Counts (or other long values) keyed by id, in two parallel primitive arrays (open addressing,
+// linear probing): no boxed Long keys or counter objects, so a hundred thousand actors cost a few MB, not tens.
+// Keys are never removed; a count that drops to zero stays as a zero entry.
+// Not thread-safe: callers guard it (CatalogStatsService) or keep it to one thread (CatalogGraph queries).
+final class LongCountMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    LongCountMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        counts = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    long get(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    boolean contains(long key) {
+        return keys[find(key)] == key;
+    }
+
+    void put(long key, long value) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            counts[slot] = value;
+        } else {
+            add(key, value);
+        }
+    }
+
+    void add(long key, long delta) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                counts[slot] = delta;
+                grow();
+                return;
+            }
+        }
+        counts[slot] += delta;
+    }
+
+    interface Visitor {
+        void visit(long key, long count);
+    }
+
+    // Every key with a non-zero count, in no particular order
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && counts[i] != 0) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
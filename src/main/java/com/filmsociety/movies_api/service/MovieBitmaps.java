@@ -0,0 +1,190 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// Movie ids per genre, actor, release year and duration, as Roaring bitmaps (movie ids are the
+// bit positions, so they must fit in an int). A filter is the AND of a few bitmaps, a range the
+// OR of its year or duration buckets; pages are read off the result in listing order.
+// Every update is a set operation, so applying one twice does no harm.
+// Not thread-safe: MovieFilterIndex guards it.
+final class MovieBitmaps {
+
+    // Bucket of movies without a year or duration: below every value, like NULL in SQLite's order
+    private static final int NULL_KEY = Integer.MIN_VALUE;
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byGenre = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byActor = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byDuration = new TreeMap<>();
+
+    int size() {
+        return all.getCardinality();
+    }
+
+    void addMovie(int movie, Integer year, Integer duration) {
+        all.add(movie);
+        byYear.computeIfAbsent(key(year), k -> new RoaringBitmap()).add(movie);
+        byDuration.computeIfAbsent(key(duration), k -> new RoaringBitmap()).add(movie);
+    }
+
+    void moveMovie(int movie, Integer oldYear, Integer oldDuration, Integer year, Integer duration) {
+        remove(byYear, key(oldYear), movie);
+        remove(byDuration, key(oldDuration), movie);
+        addMovie(movie, year, duration);
+    }
+
+    void removeMovie(int movie, Integer year, Integer duration, List<Long> genres, List<Long> actors) {
+        all.remove(movie);
+        remove(byYear, key(year), movie);
+        remove(byDuration, key(duration), movie);
+        genres.forEach(genre -> remove(byGenre, genre, movie));
+        actors.forEach(actor -> remove(byActor, actor, movie));
+    }
+
+    void link(Link link, int movie, long linkedId) {
+        linked(link).computeIfAbsent(linkedId, k -> new RoaringBitmap()).add(movie);
+    }
+
+    void unlink(Link link, int movie, long linkedId) {
+        remove(linked(link), linkedId, movie);
+    }
+
+    void removeLinked(Link link, long linkedId) {
+        linked(link).remove(linkedId);
+    }
+
+    // Run-length encodes the containers where that is smaller; worth it once after a bulk build
+    void optimize() {
+        all.runOptimize();
+        for (Map<?, RoaringBitmap> bitmaps : List.of(byGenre, byActor, byYear, byDuration)) {
+            bitmaps.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+
+    // Movies passing every filter. May be one of the index's own bitmaps: read it, never change it.
+    RoaringBitmap matching(MovieFilter filter) {
+        List<RoaringBitmap> parts = new ArrayList<>(4);
+        if (filter.genre() != null) {
+            parts.add(byGenre.getOrDefault(filter.genre(), EMPTY));
+        }
+        if (filter.actor() != null) {
+            parts.add(byActor.getOrDefault(filter.actor(), EMPTY));
+        }
+        if (filter.year() != null || filter.yearFrom() != null || filter.yearTo() != null) {
+            parts.add(range(byYear, max(filter.year(), filter.yearFrom()), min(filter.year(), filter.yearTo())));
+        }
+        if (filter.minDuration() != null || filter.maxDuration() != null) {
+            parts.add(range(byDuration, filter.minDuration(), filter.maxDuration()));
+        }
+        if (parts.isEmpty()) {
+            return all;
+        }
+        // Smallest first: each AND costs about the size of its smaller side
+        parts.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap result = parts.get(0);
+        for (int i = 1; i < parts.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, parts.get(i));
+        }
+        return result;
+    }
+
+    // Ids of one page of matches, in the order of the sort (the id ascending breaks ties)
+    long[] page(RoaringBitmap matches, MovieSort sort, long offset, int size) {
+        int total = matches.getCardinality();
+        if (offset >= total) {
+            return new long[0];
+        }
+        int start = (int) offset;
+        long[] ids = new long[Math.min(size, total - start)];
+        switch (sort.property()) {
+            case "releaseYear" -> fill(ids, matches, sort.descending() ? byYear.descendingMap() : byYear, start);
+            case "duration" -> fill(ids, matches, sort.descending() ? byDuration.descendingMap() : byDuration, start);
+            default -> {
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = matches.select(sort.descending() ? total - 1 - start - i : start + i);
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Walks the buckets in order, skipping whole buckets by their count of matches
+    private static void fill(long[] ids, RoaringBitmap matches, Map<Integer, RoaringBitmap> buckets, int skip) {
+        int filled = 0;
+        for (RoaringBitmap bucket : buckets.values()) {
+            int count = RoaringBitmap.andCardinality(matches, bucket);
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            RoaringBitmap inBucket = RoaringBitmap.and(matches, bucket);
+            for (int j = skip; j < count && filled < ids.length; j++) {
+                ids[filled++] = inBucket.select(j);
+            }
+            if (filled == ids.length) {
+                return;
+            }
+            skip = 0;
+        }
+    }
+
+    // Union of the buckets from..to (inclusive, null = open); the null bucket never matches a range
+    private static RoaringBitmap range(NavigableMap<Integer, RoaringBitmap> buckets, Integer from, Integer to) {
+        int low = from != null ? from : NULL_KEY + 1;
+        int high = to != null ? to : Integer.MAX_VALUE;
+        if (low > high) {
+            return EMPTY;
+        }
+        NavigableMap<Integer, RoaringBitmap> inRange = buckets.subMap(low, true, high, true);
+        return switch (inRange.size()) {
+            case 0 -> EMPTY;
+            case 1 -> inRange.firstEntry().getValue();
+            default -> FastAggregation.or(inRange.values().iterator());
+        };
+    }
+
+    private Map<Long, RoaringBitmap> linked(Link link) {
+        return link == Link.ACTORS ? byActor : byGenre;
+    }
+
+    private static <K> void remove(Map<K, RoaringBitmap> bitmaps, K key, int movie) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(movie);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static int key(Integer value) {
+        return value != null ? value : NULL_KEY;
+    }
+
+    private static Integer max(Integer a, Integer b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return Math.max(a, b);
+    }
+
+    private static Integer min(Integer a, Integer b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return Math.min(a, b);
+    }
+}
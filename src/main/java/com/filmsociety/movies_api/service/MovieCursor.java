@@ -0,0 +1,58 @@
+package com.filmsociety.movies_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.filmsociety.movies_api.dto.MovieSummary;
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// Opaque keyset cursor for GET /api/movies?after=...
+// It encodes the sort the listing uses and the position of the last movie returned
+// (its sort value and id); the next window starts right after that position.
+public record MovieCursor(MovieSort sort, long lastId, String lastValue) {
+
+    private static final String PREFIX = "m2";
+
+    // The cursor of the window that starts right after this movie
+    public static MovieCursor after(MovieSummary last, MovieSort sort) {
+        String value = switch (sort.property()) {
+            case "title" -> last.title();
+            case "releaseYear" -> String.valueOf(last.releaseYear());
+            case "duration" -> String.valueOf(last.duration());
+            default -> "";
+        };
+        return new MovieCursor(sort, last.id(), value);
+    }
+
+    public String encode() {
+        // The value goes last: titles may contain the separator
+        String raw = String.join(":", PREFIX, sort.property(), sort.descending() ? "d" : "a",
+                Long.toString(lastId), lastValue == null ? "" : lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // An empty cursor means "start from the beginning"
+    public static MovieCursor decode(String cursor, MovieSort sort) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 5);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        if (parts.length != 5 || !parts[0].equals(PREFIX)) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        MovieSort cursorSort = new MovieSort(parts[1], parts[2].equals("d"));
+        if (!cursorSort.equals(sort)) {
+            throw new BadRequestException("Cursor was issued for sort=" + cursorSort + ", not sort=" + sort);
+        }
+        try {
+            return new MovieCursor(sort, Long.parseLong(parts[3]), parts[4]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.filmsociety.movies_api.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.filmsociety.movies_api.dto.MovieChange;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.repository.MovieExportRepository;
+import com.filmsociety.movies_api.repository.MovieExportRepository.ChangeRow;
+import com.filmsociety.movies_api.repository.MovieExportRepository.MovieRow;
+
+@Service
+public class MovieExportService {
+
+    private static final String CSV_HEADER = "ID,Title,ReleaseYear,Duration,Genres,Actors\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MovieExportRepository movieExportRepository;
+    private final ObjectMapper objectMapper;
+    // Lines are flushed in batches, not one by one
+    private final ObjectWriter changeWriter;
+    private final int exportPageSize;
+    private final int streamPageSize;
+
+    public MovieExportService(MovieExportRepository movieExportRepository, ObjectMapper objectMapper,
+                              @Value("${app.export.page-size:500}") int exportPageSize,
+                              @Value("${app.stream.page-size:500}") int streamPageSize) {
+        this.movieExportRepository = movieExportRepository;
+        this.objectMapper = objectMapper;
+        this.exportPageSize = exportPageSize;
+        this.streamPageSize = streamPageSize;
+        this.changeWriter = objectMapper.writerFor(MovieChange.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Writes the whole catalog as CSV straight to the response stream, read in keyset pages of
+    // app.export.page-size movies. Each page is a short statement that has closed before its rows are
+    // written, so a slow client never holds a read open (in rollback-journal mode that would block every
+    // writer's commit). Memory holds one page and the write buffer. Movies added while the download runs
+    // are included if their id is past the current page; deletions after a page was read are not seen.
+    public void writeMoviesCsv(OutputStream out, boolean gzip) throws IOException {
+        // Closing the writer finishes the gzip stream and releases its deflater, also when a write fails;
+        // the response stream itself is left to the container
+        OutputStream target = gzip ? new GZIPOutputStream(StreamUtils.nonClosing(out), BUFFER_SIZE) : StreamUtils.nonClosing(out);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writer.write(CSV_HEADER);
+            // Send the header right away so the client gets the first byte before the first query finishes
+            writer.flush();
+
+            long lastId = 0;
+            List<MovieRow> page;
+            do {
+                page = movieExportRepository.findMovieRows(lastId, exportPageSize);
+                for (MovieRow row : page) {
+                    writer.write(Long.toString(row.id()));
+                    writer.write(',');
+                    writeQuoted(writer, row.title());
+                    writer.write(',');
+                    writer.write(Integer.toString(row.releaseYear()));
+                    writer.write(',');
+                    writer.write(Integer.toString(row.duration()));
+                    writer.write(',');
+                    writeQuoted(writer, row.genreNames());
+                    writer.write(',');
+                    writeQuoted(writer, row.actorNames());
+                    writer.write('\n');
+                    lastId = row.id();
+                }
+            } while (page.size() == exportPageSize);
+        }
+    }
+
+    // Writes the movies changed after `since` as NDJSON, one MovieChange per line in (version, id) order,
+    // then an "end" line whose token resumes after the last change. The rows are read in keyset pages of
+    // app.stream.page-size, each a short statement of its own: no read stays open while a slow client
+    // takes its time, so writers are never held up by the stream (in rollback-journal mode a long read
+    // would block their commits). Memory holds one page. Pages stop at the catalog version current when
+    // the stream started; a movie changed meanwhile is sent again under its new version, later in this
+    // stream or in the next one, so a mirror applying the lines in order converges.
+    public void writeMovieChanges(OutputStream out, SyncToken since) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(out), JsonEncoding.UTF8);
+        // Lines are separated by the newline written after each, not by Jackson's root separator
+        generator.setRootValueSeparator(null);
+        long upTo = movieExportRepository.currentVersion();
+        SyncToken last = since;
+
+        List<ChangeRow> page;
+        do {
+            page = movieExportRepository.findChanges(last.version(), last.lastId(), upTo, streamPageSize);
+            for (ChangeRow row : page) {
+                last = new SyncToken(row.version(), row.id());
+                String token = last.encode();
+                writeLine(generator, row.deleted()
+                        ? MovieChange.delete(row.id(), row.version(), token)
+                        : MovieChange.upsert(new MovieDto(row.id(), row.title(), row.releaseYear(), row.duration(),
+                                genres(row.genres()), actors(row.actors())), row.version(), token));
+            }
+            // A slow client blocks here, between queries
+            generator.flush();
+        } while (page.size() == streamPageSize);
+
+        writeLine(generator, MovieChange.end(last.encode()));
+        generator.close();
+    }
+
+    private void writeLine(JsonGenerator generator, MovieChange change) throws IOException {
+        changeWriter.writeValue(generator, change);
+        generator.writeRaw('\n');
+    }
+
+    // [[id, name], ...] from the change query
+    private List<GenreRef> genres(String json) {
+        List<GenreRef> genres = new ArrayList<>();
+        for (JsonNode genre : readArray(json)) {
+            genres.add(new GenreRef(genre.get(0).asLong(), genre.get(1).asText()));
+        }
+        return genres;
+    }
+
+    // [[id, name, birth_date], ...]; birth dates are stored as epoch millis, as the driver writes them
+    private List<ActorRef> actors(String json) {
+        List<ActorRef> actors = new ArrayList<>();
+        for (JsonNode actor : readArray(json)) {
+            JsonNode birthDate = actor.get(2);
+            LocalDate date = birthDate.isNumber() ? new Date(birthDate.asLong()).toLocalDate()
+                    : birthDate.isTextual() ? LocalDate.parse(birthDate.asText()) : null;
+            actors.add(new ActorRef(actor.get(0).asLong(), actor.get(1).asText(), date));
+        }
+        return actors;
+    }
+
+    private JsonNode readArray(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed relations from the change query: " + json, e);
+        }
+    }
+
+    // Wraps a value in double quotes, doubling any embedded quotes (RFC 4180)
+    private static void writeQuoted(Writer writer, String value) throws IOException {
+        writer.write('"');
+        if (value != null) {
+            if (value.indexOf('"') >= 0) {
+                writer.write(value.replace("\"", "\"\""));
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,15 @@
+package com.filmsociety.movies_api.service;
+
+// Filters of GET /api/movies. Every field is optional and all given ones are combined (AND).
+// Bound straight from the query string: ?genre=1&yearFrom=1990&yearTo=1999&maxDuration=120
+public record MovieFilter(
+        Long genre,
+        Long actor,
+        Integer year,
+        Integer yearFrom,
+        Integer yearTo,
+        Integer minDuration,
+        Integer maxDuration) {
+
+    public static final MovieFilter NONE = new MovieFilter(null, null, null, null, null, null, null);
+}
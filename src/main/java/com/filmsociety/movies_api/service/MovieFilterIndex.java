@@ -0,0 +1,206 @@
+package com.filmsociety.movies_api.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.filmsociety.movies_api.entity.Actor;
+import com.filmsociety.movies_api.entity.Genre;
+import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+
+// In-memory filter engine for GET /api/movies (app.filter-index.enabled): genre, actor, year and
+// duration filters and the id/year/duration sorts are answered from MovieBitmaps, and the database
+// only loads the movies of the final page. Maintained like CatalogGraphService: built once the
+// application is ready and after imports, updated by the services as their writes commit.
+// find() returns null, and the listing takes the SQL path, when the index can't answer:
+// - sorted by title (the movies(title) order stays in SQLite)
+// - disabled, not built yet, or being rebuilt
+// - a movie id beyond the int range of the bitmaps
+@Service
+public class MovieFilterIndex {
+
+    // One page of matching movie ids, in listing order, and the number of matches
+    public record IdPage(List<Long> ids, long total) {}
+
+    private static final Logger log = LoggerFactory.getLogger(MovieFilterIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private MovieBitmaps bitmaps = new MovieBitmaps();
+    private boolean usable;
+
+    public MovieFilterIndex(JdbcTemplate jdbcTemplate, @Value("${app.filter-index.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    // Built under the write lock: listings take the SQL path meanwhile, and changes committed
+    // during the build wait for it, then apply again on top (harmless, see MovieBitmaps)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        MovieBitmaps fresh = new MovieBitmaps();
+        boolean[] fits = {true};
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query("SELECT id, release_year, duration FROM movies", rs -> {
+                long id = rs.getLong(1);
+                fits[0] &= fitsInt(id);
+                fresh.addMovie((int) id, nullableInt(rs, 2), nullableInt(rs, 3));
+            });
+            for (Link link : Link.values()) {
+                String column = link == Link.ACTORS ? "actor_id" : "genre_id";
+                String table = link == Link.ACTORS ? "movie_actors" : "movie_genres";
+                jdbcTemplate.query("SELECT movie_id, " + column + " FROM " + table,
+                        rs -> {
+                            fresh.link(link, (int) rs.getLong(1), rs.getLong(2));
+                        });
+            }
+            fresh.optimize();
+            bitmaps = fresh;
+            usable = fits[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (fits[0]) {
+            log.info("Movie filter index built in {} ms ({} movies)", (System.nanoTime() - start) / 1_000_000, fresh.size());
+        } else {
+            log.warn("Movie filter index disabled: movie ids exceed the int range of its bitmaps");
+        }
+    }
+
+    // --- Changes, reported by the services inside their write transactions
+
+    // The movie's genres and actors as saved with it
+    public void movieAdded(Movie movie) {
+        long id = movie.getId();
+        Integer year = movie.getReleaseYear();
+        Integer duration = movie.getDuration();
+        List<Long> genres = movie.getGenres().stream().map(Genre::getId).filter(Objects::nonNull).toList();
+        List<Long> actors = movie.getActors().stream().map(Actor::getId).filter(Objects::nonNull).toList();
+        update(id, index -> {
+            index.addMovie((int) id, year, duration);
+            genres.forEach(genre -> index.link(Link.GENRES, (int) id, genre));
+            actors.forEach(actor -> index.link(Link.ACTORS, (int) id, actor));
+        });
+    }
+
+    // A movie written without an entity (imports); its links are reported through linksChanged
+    public void movieAdded(long id, int year, int duration) {
+        update(id, index -> index.addMovie((int) id, year, duration));
+    }
+
+    public void movieUpdated(long id, Integer oldYear, Integer oldDuration, Integer year, Integer duration) {
+        update(id, index -> index.moveMovie((int) id, oldYear, oldDuration, year, duration));
+    }
+
+    // The movie as loaded with its genres and actors, before the delete
+    public void movieRemoved(Movie movie) {
+        long id = movie.getId();
+        Integer year = movie.getReleaseYear();
+        Integer duration = movie.getDuration();
+        List<Long> genres = movie.getGenres().stream().map(Genre::getId).toList();
+        List<Long> actors = movie.getActors().stream().map(Actor::getId).toList();
+        update(id, index -> index.removeMovie((int) id, year, duration, genres, actors));
+    }
+
+    // Join rows written by MovieLinkService, as movie id -> linked ids
+    public void linksChanged(Link link, Map<Long, Set<Long>> inserted, Map<Long, Set<Long>> deleted) {
+        Map<Long, Set<Long>> insertedCopy = copy(inserted);
+        Map<Long, Set<Long>> deletedCopy = copy(deleted);
+        update(0, index -> {
+            deletedCopy.forEach((movie, linked) -> linked.forEach(id -> index.unlink(link, movie.intValue(), id)));
+            insertedCopy.forEach((movie, linked) -> linked.forEach(id -> index.link(link, movie.intValue(), id)));
+        });
+    }
+
+    // An actor or genre deleted along with all its links
+    public void linkedRemoved(Link link, long linkedId) {
+        update(0, index -> index.removeLinked(link, linkedId));
+    }
+
+    // --- Queries
+
+    public IdPage find(MovieFilter filter, MovieSort sort, Pageable pageable) {
+        if (!enabled || sort.property().equals("title")) {
+            return null;
+        }
+        // Never waits: while the index is written to, the database answers instead
+        if (!lock.readLock().tryLock()) {
+            return null;
+        }
+        try {
+            if (!usable) {
+                return null;
+            }
+            RoaringBitmap matches = bitmaps.matching(filter);
+            long[] ids = bitmaps.page(matches, sort, pageable.getOffset(), pageable.getPageSize());
+            return new IdPage(Arrays.stream(ids).boxed().toList(), matches.getLongCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private interface Change {
+        void apply(MovieBitmaps bitmaps);
+    }
+
+    // movieId is checked against the int range of the bitmaps (0 when the change brings its own ids)
+    private void update(long movieId, Change change) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (!fitsInt(movieId)) {
+                    usable = false;
+                    log.warn("Movie filter index disabled: movie id {} exceeds the int range of its bitmaps", movieId);
+                } else {
+                    change.apply(bitmaps);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static boolean fitsInt(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private static Map<Long, Set<Long>> copy(Map<Long, Set<Long>> links) {
+        Map<Long, Set<Long>> copy = new HashMap<>();
+        links.forEach((movieId, linkedIds) -> copy.put(movieId, Set.copyOf(linkedIds)));
+        return copy;
+    }
+}
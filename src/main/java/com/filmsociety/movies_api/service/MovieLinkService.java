@@ -0,0 +1,195 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.filmsociety.movies_api.dto.LinkUpdateSummary;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.exception.ResourceNotFoundException;
+import com.filmsociety.movies_api.repository.ActorRepository;
+import com.filmsociety.movies_api.repository.GenreRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
+import com.filmsociety.movies_api.repository.MovieRepository;
+
+// Set-based edits of movie/actor and movie/genre links, for one movie or many:
+// 1. every referenced id is checked with one query per kind, and all missing ids are reported together
+// 2. the current links of all edited movies are read in one pass
+// 3. only the join rows that change are deleted and inserted, in JDBC batches
+// Entities don't see these writes: callers must not have loaded the collections they change,
+// and load what they return afterwards.
+@Service
+public class MovieLinkService {
+
+    // What to do with one movie's links: replace them all, or add and/or remove some
+    public record Edit(Set<Long> replaceWith, Set<Long> add, Set<Long> remove) {
+
+        public static Edit replace(Set<Long> ids) {
+            return new Edit(ids, null, null);
+        }
+
+        public static Edit add(Set<Long> ids) {
+            return new Edit(null, ids, null);
+        }
+
+        public static Edit remove(Set<Long> ids) {
+            return new Edit(null, null, ids);
+        }
+    }
+
+    private final MovieLinkRepository linkRepository;
+    private final MovieRepository movieRepository;
+    private final ActorRepository actorRepository;
+    private final GenreRepository genreRepository;
+    private final CatalogCacheInvalidator cacheInvalidator;
+    private final CatalogStatsService statsService;
+    private final CatalogGraphService graphService;
+    private final MovieFilterIndex filterIndex;
+    private final CatalogSnapshotService snapshotService;
+
+    public MovieLinkService(MovieLinkRepository linkRepository, MovieRepository movieRepository,
+                            ActorRepository actorRepository, GenreRepository genreRepository,
+                            CatalogCacheInvalidator cacheInvalidator, CatalogStatsService statsService,
+                            CatalogGraphService graphService, MovieFilterIndex filterIndex,
+                            CatalogSnapshotService snapshotService) {
+        this.linkRepository = linkRepository;
+        this.movieRepository = movieRepository;
+        this.actorRepository = actorRepository;
+        this.genreRepository = genreRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.statsService = statsService;
+        this.graphService = graphService;
+        this.filterIndex = filterIndex;
+        this.snapshotService = snapshotService;
+    }
+
+    @Transactional
+    public LinkUpdateSummary apply(Link link, Map<Long, Edit> editsByMovie) {
+        requireExisting(editsByMovie.keySet(), linkedIds(editsByMovie.values()), link);
+
+        Map<Long, Set<Long>> current = linkRepository.findLinks(link, editsByMovie.keySet());
+        Map<Long, Set<Long>> toInsert = new HashMap<>();
+        Map<Long, Set<Long>> toDelete = new HashMap<>();
+        // Everything linked to a changed movie before or after: their cached DTOs show it
+        Set<Long> touched = new HashSet<>();
+        editsByMovie.forEach((movieId, edit) -> {
+            Set<Long> before = current.get(movieId);
+            Set<Long> after = target(before, edit);
+            Set<Long> inserted = difference(after, before);
+            Set<Long> deleted = difference(before, after);
+            if (!inserted.isEmpty()) {
+                toInsert.put(movieId, inserted);
+            }
+            if (!deleted.isEmpty()) {
+                toDelete.put(movieId, deleted);
+            }
+            if (!inserted.isEmpty() || !deleted.isEmpty()) {
+                touched.addAll(before);
+                touched.addAll(inserted);
+            }
+        });
+
+        Set<Long> changedMovies = new HashSet<>(toInsert.keySet());
+        changedMovies.addAll(toDelete.keySet());
+        if (!changedMovies.isEmpty()) {
+            invalidate(link, changedMovies, touched);
+        }
+        int removed = linkRepository.delete(link, toDelete);
+        int added = linkRepository.insert(link, toInsert);
+        statsService.linksChanged(link, toInsert, toDelete);
+        graphService.linksChanged(link, toInsert, toDelete);
+        filterIndex.linksChanged(link, toInsert, toDelete);
+        snapshotService.moviesChanged(changedMovies);
+        return new LinkUpdateSummary(changedMovies.size(), added, removed);
+    }
+
+    private static Set<Long> target(Set<Long> before, Edit edit) {
+        if (edit.replaceWith() != null) {
+            return edit.replaceWith();
+        }
+        Set<Long> after = new HashSet<>(before);
+        if (edit.add() != null) {
+            after.addAll(edit.add());
+        }
+        if (edit.remove() != null) {
+            after.removeAll(edit.remove());
+        }
+        return after;
+    }
+
+    private static Set<Long> difference(Set<Long> from, Set<Long> minus) {
+        Set<Long> result = new HashSet<>(from);
+        result.removeAll(minus);
+        return result;
+    }
+
+    // Ids that will be linked (removing a link to an unknown id is simply a no-op)
+    private static Set<Long> linkedIds(Collection<Edit> edits) {
+        Set<Long> ids = new HashSet<>();
+        for (Edit edit : edits) {
+            if (edit.replaceWith() != null) ids.addAll(edit.replaceWith());
+            if (edit.add() != null) ids.addAll(edit.add());
+            if (edit.remove() != null && containsNull(edit.remove())) {
+                throw new BadRequestException("Ids must not be null");
+            }
+        }
+        return ids;
+    }
+
+    private void requireExisting(Set<Long> movieIds, Set<Long> linkedIds, Link link) {
+        if (containsNull(movieIds) || containsNull(linkedIds)) {
+            throw new BadRequestException("Ids must not be null");
+        }
+        List<String> missing = new ArrayList<>();
+        Set<Long> missingMovies = missing(movieIds, movieRepository::findExistingIds);
+        if (!missingMovies.isEmpty()) {
+            missing.add("Movies not found with ids: " + missingMovies);
+        }
+        Set<Long> missingLinked = link == Link.ACTORS
+                ? missing(linkedIds, actorRepository::findExistingIds)
+                : missing(linkedIds, genreRepository::findExistingIds);
+        if (!missingLinked.isEmpty()) {
+            missing.add((link == Link.ACTORS ? "Actors" : "Genres") + " not found with ids: " + missingLinked);
+        }
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(String.join("; ", missing));
+        }
+    }
+
+    // Null-safe for immutable sets, whose contains(null) throws
+    private static boolean containsNull(Collection<Long> ids) {
+        return ids.stream().anyMatch(Objects::isNull);
+    }
+
+    // Sorted, so the error message is stable
+    private static Set<Long> missing(Set<Long> ids, Function<Collection<Long>, List<Long>> findExisting) {
+        Set<Long> missing = new TreeSet<>(ids);
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += MovieRepository.FETCH_CHUNK_SIZE) {
+            missing.removeAll(findExisting.apply(all.subList(from, Math.min(all.size(), from + MovieRepository.FETCH_CHUNK_SIZE))));
+        }
+        return missing;
+    }
+
+    private void invalidate(Link link, Set<Long> movieIds, Set<Long> touched) {
+        Set<Long> others = new HashSet<>();
+        Link other = link == Link.ACTORS ? Link.GENRES : Link.ACTORS;
+        linkRepository.findLinks(other, movieIds).values().forEach(others::addAll);
+        if (link == Link.ACTORS) {
+            cacheInvalidator.linksChanged(movieIds, touched, others);
+        } else {
+            cacheInvalidator.linksChanged(movieIds, others, touched);
+        }
+    }
+}
@@ -1,120 +1,274 @@
 package com.filmsociety.movies_api.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.filmsociety.movies_api.config.CacheConfig;
+import com.filmsociety.movies_api.dto.CastChange;
+import com.filmsociety.movies_api.dto.CursorSlice;
+import com.filmsociety.movies_api.dto.LinkUpdateSummary;
+import com.filmsociety.movies_api.dto.MovieDto;
+import com.filmsociety.movies_api.dto.MovieDto.ActorRef;
+import com.filmsociety.movies_api.dto.MovieDto.GenreRef;
+import com.filmsociety.movies_api.dto.MovieSummary;
+import com.filmsociety.movies_api.dto.MultiGet;
+import com.filmsociety.movies_api.dto.Versioned;
 import com.filmsociety.movies_api.entity.Actor;
+import com.filmsociety.movies_api.entity.Genre;
 import com.filmsociety.movies_api.entity.Movie;
+import com.filmsociety.movies_api.exception.BadRequestException;
 import com.filmsociety.movies_api.exception.ResourceNotFoundException;
-import com.filmsociety.movies_api.repository.ActorRepository;
-import com.filmsociety.movies_api.repository.GenreRepository;
+import com.filmsociety.movies_api.repository.MovieLinkRepository.Link;
 import com.filmsociety.movies_api.repository.MovieRepository;
+import com.filmsociety.movies_api.repository.MovieSpecifications;
+import com.filmsociety.movies_api.service.MovieLinkService.Edit;
 
 @Service
 public class MovieService {
 
     private final MovieRepository movieRepository;
-    private final GenreRepository genreRepository;
-    private final ActorRepository actorRepository;
+    private final MovieLinkService linkService;
+    private final CatalogCacheInvalidator cacheInvalidator;
+    private final CatalogStatsService statsService;
+    private final CatalogGraphService graphService;
+    private final MovieFilterIndex filterIndex;
+    private final CatalogSnapshotService snapshotService;
 
-    public MovieService(MovieRepository movieRepository, GenreRepository genreRepository, ActorRepository actorRepository) {
+    public MovieService(MovieRepository movieRepository, MovieLinkService linkService,
+                        CatalogCacheInvalidator cacheInvalidator, CatalogStatsService statsService,
+                        CatalogGraphService graphService, MovieFilterIndex filterIndex,
+                        CatalogSnapshotService snapshotService) {
         this.movieRepository = movieRepository;
-        this.genreRepository = genreRepository;
-        this.actorRepository = actorRepository;
+        this.linkService = linkService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.statsService = statsService;
+        this.graphService = graphService;
+        this.filterIndex = filterIndex;
+        this.snapshotService = snapshotService;
     }
 
-    public Page<Movie> getAllMovies(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findAll(pageable);
+    // One query engine for every listing: any combination of filters, any sort key.
+    // The filter index picks the page's ids and counts the matches when it can; the database
+    // then only loads those movies. Otherwise (title sort, index unavailable) SQL does it all.
+    @Transactional(readOnly = true)
+    public Page<MovieDto> findMovies(MovieFilter filter, MovieSort sort, int page, int size, Projection projection) {
+        Pageable pageable = PageRequest.of(page, size, sort.toSort());
+        MovieFilterIndex.IdPage ids = filterIndex.find(filter, sort, pageable);
+        if (ids == null) {
+            return withRelations(movieRepository.findSummaries(toSpecification(filter), pageable), projection);
+        }
+        Map<Long, MovieSummary> found = ids.ids().isEmpty() ? Map.of() : movieRepository.findSummaries(ids.ids());
+        // In the index's order; a movie deleted since it answered is simply left out
+        List<MovieSummary> movies = ids.ids().stream().map(found::get).filter(Objects::nonNull).toList();
+        return withRelations(new PageImpl<>(movies, pageable, ids.total()), projection);
     }
 
+    @Transactional(readOnly = true)
     public Movie getMovieById(Long id) {
-        return movieRepository.findById(id)
+        return movieRepository.findWithRelationsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
     }
 
-    public Page<Movie> getMoviesByGenre(Long genreId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findByGenres_Id(genreId, pageable);
+    // Cached read model of GET /api/movies/{id}; kept fresh by CatalogCacheInvalidator
+    @Cacheable(cacheNames = CacheConfig.MOVIES, key = "#id")
+    @Transactional(readOnly = true)
+    public Versioned<MovieDto> getMovieDto(Long id) {
+        Movie movie = getMovieById(id);
+        return Versioned.of(MovieDto.from(movie), movie.getVersion());
+    }
+
+    // Cursor mode: same filters and sort keys as the paged listing, but windows are found
+    // by seeking past the last (sort value, id), so deep windows cost the same as the first.
+    @Transactional(readOnly = true)
+    public CursorSlice<MovieDto> scrollMovies(MovieFilter filter, MovieSort sort, String after, int size,
+                                              Projection projection) {
+        if (size < 1) {
+            throw new BadRequestException("size must be at least 1");
+        }
+        Specification<Movie> spec = toSpecification(filter);
+        MovieCursor cursor = MovieCursor.decode(after, sort);
+        if (cursor != null) {
+            spec = spec.and(afterCursor(cursor));
+        }
+
+        // Ask for one extra row to learn whether another window follows
+        List<MovieSummary> movies = movieRepository.findSummaries(spec, sort.toSort(), size + 1);
+        boolean hasNext = movies.size() > size;
+        if (hasNext) {
+            movies = movies.subList(0, size);
+        }
+        String nextCursor = hasNext ? MovieCursor.after(movies.get(movies.size() - 1), sort).encode() : null;
+        return new CursorSlice<>(withRelations(movies, projection), size, hasNext, nextCursor);
+    }
+
+    private static Specification<Movie> toSpecification(MovieFilter filter) {
+        List<Specification<Movie>> specs = new ArrayList<>();
+        if (filter.genre() != null) specs.add(MovieSpecifications.hasGenre(filter.genre()));
+        if (filter.actor() != null) specs.add(MovieSpecifications.hasActor(filter.actor()));
+        if (filter.year() != null) specs.add(MovieSpecifications.releasedIn(filter.year()));
+        if (filter.yearFrom() != null) specs.add(MovieSpecifications.releasedFrom(filter.yearFrom()));
+        if (filter.yearTo() != null) specs.add(MovieSpecifications.releasedUntil(filter.yearTo()));
+        if (filter.minDuration() != null) specs.add(MovieSpecifications.lastingAtLeast(filter.minDuration()));
+        if (filter.maxDuration() != null) specs.add(MovieSpecifications.lastingAtMost(filter.maxDuration()));
+        return Specification.allOf(specs);
+    }
+
+    private static Specification<Movie> afterCursor(MovieCursor cursor) {
+        MovieSort sort = cursor.sort();
+        try {
+            return switch (sort.property()) {
+                case "title" -> MovieSpecifications.after("title", sort.descending(), cursor.lastValue(), cursor.lastId());
+                case "releaseYear", "duration" -> MovieSpecifications.after(sort.property(), sort.descending(),
+                        Integer.valueOf(cursor.lastValue()), cursor.lastId());
+                default -> MovieSpecifications.after("id", sort.descending(), cursor.lastId(), cursor.lastId());
+            };
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // Bonus: Search by title (full-text, prefix and multi-word, best match first)
+    @Transactional(readOnly = true)
+    public Page<MovieDto> searchMoviesByTitle(String title, int page, int size, Projection projection) {
+        Page<MovieSummary> matches = movieRepository.searchByTitle(FullTextQuery.prefixMatch(title), PageRequest.of(page, size))
+                .map(movie -> new MovieSummary(movie.getId(), movie.getTitle(), movie.getReleaseYear(), movie.getDuration()));
+        return withRelations(matches, projection);
+    }
+
+    // GET /api/movies?ids=3,1,2: a whole list of movies at once, each included relation in one
+    // more query, instead of one request (and transaction) per movie
+    @Transactional(readOnly = true)
+    public MultiGet<MovieDto> getMoviesByIds(List<Long> ids, Projection projection) {
+        List<Long> requested = IdList.distinct(ids);
+        return IdList.collect(requested, movieRepository.findSummaries(requested), movies -> withRelations(movies, projection));
     }
 
-    public Page<Movie> getMoviesByYear(Integer year, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findByReleaseYear(year, pageable);
+    // GET /api/movies/{id}/actors: the cast alone, without each actor's filmography
+    @Transactional(readOnly = true)
+    public List<ActorRef> getActorsOfMovie(Long id) {
+        if (!movieRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Movie not found with id: " + id);
+        }
+        return movieRepository.findActorRefs(List.of(id)).getOrDefault(id, List.of());
     }
 
-    public Page<Movie> getMoviesByActor(Long actorId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findByActors_Id(actorId, pageable);
+    // Phase two of a listing: the relations the request includes, for the whole page at once.
+    // One query per included relation whatever the page size, none when fields alone were asked for.
+    private Page<MovieDto> withRelations(Page<MovieSummary> movies, Projection projection) {
+        return new PageImpl<>(withRelations(movies.getContent(), projection), movies.getPageable(), movies.getTotalElements());
     }
-    
-    // Bonus: Search by title
-    public List<Movie> searchMoviesByTitle(String title) {
-        return movieRepository.findByTitleContainingIgnoreCase(title);
+
+    private List<MovieDto> withRelations(List<MovieSummary> movies, Projection projection) {
+        List<Long> ids = movies.stream().map(MovieSummary::id).toList();
+        Map<Long, List<GenreRef>> genres = projection.includes("genres") ? movieRepository.findGenreRefs(ids) : null;
+        Map<Long, List<ActorRef>> actors = projection.includes("actors") ? movieRepository.findActorRefs(ids) : null;
+        return movies.stream().map(movie -> MovieDto.of(movie, genres, actors)).toList();
     }
 
     @Transactional
     public Movie createMovie(Movie movie) {
-        return movieRepository.save(movie);
+        Movie saved = movieRepository.save(movie);
+        cacheInvalidator.movieChanged(saved);
+        statsService.movieAdded(saved);
+        graphService.movieAdded(saved);
+        filterIndex.movieAdded(saved);
+        snapshotService.moviesChanged(List.of(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public Movie updateMovie(Long id, Movie movieDetails) {
-        Movie movie = getMovieById(id);
+        // Loaded without its collections: relationship changes below go straight to the join tables
+        Movie movie = movieRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
+        int oldYear = movie.getReleaseYear();
+        int oldDuration = movie.getDuration();
 
         if (movieDetails.getTitle() != null) movie.setTitle(movieDetails.getTitle());
         if (movieDetails.getReleaseYear() != null) movie.setReleaseYear(movieDetails.getReleaseYear());
         if (movieDetails.getDuration() != null) movie.setDuration(movieDetails.getDuration());
-        
-        // Update Relationships if provided
+        statsService.movieUpdated(oldYear, oldDuration, movie.getReleaseYear(), movie.getDuration());
+        filterIndex.movieUpdated(id, oldYear, oldDuration, movie.getReleaseYear(), movie.getDuration());
+        snapshotService.moviesChanged(List.of(id));
+
+        // Update Relationships if provided: only the ids are taken from the body, and they must exist
         if (movieDetails.getGenres() != null && !movieDetails.getGenres().isEmpty()) {
-            // In a real app, you'd fetch these from DB to ensure they exist
-            movie.setGenres(movieDetails.getGenres()); 
+            linkService.apply(Link.GENRES, Map.of(id, Edit.replace(idsOf(movieDetails.getGenres(), Genre::getId))));
         }
         if (movieDetails.getActors() != null && !movieDetails.getActors().isEmpty()) {
-            movie.setActors(movieDetails.getActors());
+            linkService.apply(Link.ACTORS, Map.of(id, Edit.replace(idsOf(movieDetails.getActors(), Actor::getId))));
         }
 
-        return movieRepository.save(movie);
+        // Relations as they are now (the link edits above evicted what the old ones cached)
+        Movie saved = getMovieById(id);
+        cacheInvalidator.movieChanged(saved);
+        return saved;
     }
 
     @Transactional
     public Movie addActorsToMovie(Long movieId, Set<Actor> newActors) {
-        // 1. Retrieve the existing Movie. This will throw ResourceNotFoundException if ID is bad.
-        Movie movie = getMovieById(movieId);
-
-        // 2. Retrieve existing actors and merge the new ones.
-        Set<Actor> existingActors = movie.getActors();
-        
-        // Ensure new actors are fully managed entities by retrieving them from the DB
-        // If an actor is not found, the process will fail gracefully with a 404 error (ResourceNotFoundException).
-        Set<Actor> actorsToMerge = new HashSet<>();
-        for (Actor actor : newActors) {
-            if (actor.getId() != null) {
-                // Look up the actor by ID to ensure it's a persistent entity
-                Actor foundActor = actorRepository.findById(actor.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Actor not found with id: " + actor.getId()));
-                actorsToMerge.add(foundActor);
+        // One lookup for all actor ids (every unknown one is reported), then only the new links are inserted
+        linkService.apply(Link.ACTORS, Map.of(movieId, Edit.add(idsOf(newActors, Actor::getId))));
+        return getMovieById(movieId);
+    }
+
+    // PATCH /api/movies/cast: cast changes for many movies, applied together in one transaction
+    @Transactional
+    public LinkUpdateSummary updateCasts(List<CastChange> changes) {
+        Map<Long, Edit> edits = new HashMap<>();
+        for (CastChange change : changes) {
+            if (change.movieId() == null) {
+                throw new BadRequestException("movieId is required");
+            }
+            if (change.set() == null && change.add() == null && change.remove() == null) {
+                throw new BadRequestException("Movie " + change.movieId() + ": one of set, add or remove is required");
+            }
+            if (change.set() != null && (change.add() != null || change.remove() != null)) {
+                throw new BadRequestException("Movie " + change.movieId() + ": set cannot be combined with add or remove");
+            }
+            if (edits.put(change.movieId(), new Edit(change.set(), change.add(), change.remove())) != null) {
+                throw new BadRequestException("Movie " + change.movieId() + " is listed more than once");
             }
         }
+        return linkService.apply(Link.ACTORS, edits);
+    }
 
-        // 3. Merge the lists (Set.addAll handles duplicates automatically)
-        existingActors.addAll(actorsToMerge);
-        
-        // 4. Update the movie's actor list and save
-        movie.setActors(existingActors);
-        return movieRepository.save(movie);
+    // Ids of the referenced entities; entries without an id are ignored
+    private static <T> Set<Long> idsOf(Collection<T> entities, Function<T, Long> id) {
+        Set<Long> ids = new HashSet<>();
+        for (T entity : entities) {
+            Long value = id.apply(entity);
+            if (value != null) {
+                ids.add(value);
+            }
+        }
+        return ids;
     }
 
+    @Transactional
     public void deleteMovie(Long id) {
         Movie movie = getMovieById(id);
+        cacheInvalidator.movieChanged(movie);
+        statsService.movieRemoved(movie);
+        graphService.movieRemoved(id);
+        filterIndex.movieRemoved(movie);
+        snapshotService.moviesChanged(List.of(id));
         movieRepository.delete(movie);
     }
 }
\ No newline at end of file
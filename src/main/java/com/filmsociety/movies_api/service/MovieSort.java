@@ -0,0 +1,45 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// Sort key of a movie listing, from ?sort=releaseYear or ?sort=duration,desc.
+// The id is always added as an ascending tie-breaker so the order is total,
+// which both offset pages and keyset cursors rely on.
+public record MovieSort(String property, boolean descending) {
+
+    public static final MovieSort BY_ID = new MovieSort("id", false);
+
+    private static final Set<String> PROPERTIES = Set.of("id", "title", "releaseYear", "duration");
+
+    public static MovieSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return BY_ID;
+        }
+        String[] parts = value.split(",");
+        String property = parts[0].trim();
+        if (!PROPERTIES.contains(property)) {
+            throw new BadRequestException("Cannot sort by '" + property + "', use one of " + PROPERTIES);
+        }
+        boolean descending = parts.length > 1 && parts[1].trim().toLowerCase(Locale.ROOT).equals("desc");
+        return new MovieSort(property, descending);
+    }
+
+    public boolean byId() {
+        return property.equals("id");
+    }
+
+    public Sort toSort() {
+        Sort sort = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+        return byId() ? sort : sort.and(Sort.by("id"));
+    }
+
+    @Override
+    public String toString() {
+        return property + (descending ? ",desc" : ",asc");
+    }
+}
@@ -0,0 +1,156 @@
+package com.filmsociety.movies_api.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.filmsociety.movies_api.dto.TrendingMovie;
+import com.filmsociety.movies_api.exception.BadRequestException;
+import com.filmsociety.movies_api.service.TrendingMovies.Score;
+
+import jakarta.annotation.PreDestroy;
+
+// Views of GET /api/movies/{id}, and the trending movies ranked from them.
+// - A view only bumps the movie's LongAdder: no lock, no statement, no allocation once the movie
+//   has been viewed before.
+// - Every app.views.flush-interval the adders are drained into movie_stats in one batch, and
+//   into the decayed heavy hitters (TrendingMovies). The top movies are then published as a list,
+//   so /trending takes a prefix of it and rescales the scores to the time of the request.
+// Views counted since the last flush are lost if the process dies; a clean shutdown flushes them.
+@Service
+public class MovieViewService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieViewService.class);
+    private static final int MAX_LIMIT = 100;
+    // Rows for movies deleted in the meantime are skipped by the SELECT
+    private static final String UPSERT = """
+            INSERT INTO movie_stats (movie_id, views, last_viewed) SELECT id, ?, ? FROM movies WHERE id = ?
+            ON CONFLICT (movie_id) DO UPDATE SET views = views + excluded.views, last_viewed = excluded.last_viewed
+            """;
+
+    // The ranking as of the last flush
+    private record Ranking(List<TrendingMovie> movies, long at) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final long halfLifeMillis;
+    // Views since the last flush. Entries stay once created (drained to zero): removing one could
+    // lose a view counted on it concurrently, and there is at most one per movie ever viewed.
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // Guarded by this: only flush() and load() touch it
+    private TrendingMovies trending;
+
+    private volatile Ranking ranking = new Ranking(List.of(), 0);
+
+    public MovieViewService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            @Value("${app.trending.capacity:1000}") int capacity,
+                            @Value("${app.trending.half-life:1h}") Duration halfLife) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.trending = new TrendingMovies(capacity, halfLifeMillis, System.currentTimeMillis());
+    }
+
+    public void viewed(long movieId) {
+        LongAdder views = pending.get(movieId);
+        if (views == null) {
+            views = pending.computeIfAbsent(movieId, id -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    public List<TrendingMovie> trending(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        Ranking current = ranking;
+        List<TrendingMovie> movies = current.movies().subList(0, Math.min(limit, current.movies().size()));
+        double scale = Math.pow(2, -(System.currentTimeMillis() - current.at()) / (double) halfLifeMillis);
+        return movies.stream().map(m -> new TrendingMovie(m.movieId(), m.title(), m.score() * scale)).toList();
+    }
+
+    // Restarts the ranking from movie_stats: each movie's views as if they all came at its last view.
+    // Only the `capacity` best are kept, so none of them is evicted while loading.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long now = System.currentTimeMillis();
+        List<long[]> rows = new ArrayList<>();
+        jdbcTemplate.query("SELECT movie_id, views, last_viewed FROM movie_stats", rs -> {
+            rows.add(new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        });
+        trending = new TrendingMovies(capacity, halfLifeMillis, now);
+        rows.stream()
+                .sorted(Comparator.comparingDouble((long[] row) -> row[1] * Math.pow(2, (row[2] - now) / (double) halfLifeMillis))
+                        .reversed())
+                .limit(capacity)
+                .forEach(row -> trending.add(row[0], row[1], row[2]));
+        publish(now);
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.flush-interval:5s}", initialDelayString = "${app.views.flush-interval:5s}")
+    @PreDestroy
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>();
+        pending.forEach((movieId, adder) -> {
+            long views = adder.sumThenReset();
+            if (views > 0) {
+                batch.add(new Object[] {views, now, movieId});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, batch));
+        } catch (DataAccessException e) {
+            // Counted again with the next flush
+            log.warn("Could not write {} movie view counts: {}", batch.size(), e.getMessage());
+            batch.forEach(row -> pending.get((Long) row[2]).add((Long) row[0]));
+            return;
+        }
+        batch.forEach(row -> trending.add((Long) row[2], (Long) row[0], now));
+        publish(now);
+    }
+
+    // Titles for the top movies; movies deleted since they were viewed drop out of the ranking
+    private void publish(long now) {
+        List<Score> top = trending.top(MAX_LIMIT, now);
+        Map<Long, String> titles = new HashMap<>();
+        if (!top.isEmpty()) {
+            String in = top.stream().map(score -> "?").collect(Collectors.joining(", ", "(", ")"));
+            jdbcTemplate.query("SELECT id, title FROM movies WHERE id IN " + in, rs -> {
+                titles.put(rs.getLong(1), rs.getString(2));
+            }, top.stream().map(Score::movieId).toArray());
+        }
+        List<TrendingMovie> movies = new ArrayList<>(top.size());
+        for (Score score : top) {
+            String title = titles.get(score.movieId());
+            if (title != null) {
+                movies.add(new TrendingMovie(score.movieId(), title, score.score()));
+            } else {
+                trending.remove(score.movieId());
+            }
+        }
+        ranking = new Ranking(List.copyOf(movies), now);
+    }
+}
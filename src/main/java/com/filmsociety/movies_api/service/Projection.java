@@ -0,0 +1,65 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// What a listing loads and returns, from ?fields=id,title (columns) and ?include=actors,genres
+// (relations). With neither, everything; fields alone means just those fields, so no relation
+// is read at all. Relations not included are never queried.
+public record Projection(Set<String> fields, Set<String> include) {
+
+    private static final List<String> MOVIE_FIELDS = List.of("id", "title", "releaseYear", "duration");
+    private static final List<String> MOVIE_RELATIONS = List.of("genres", "actors");
+    private static final List<String> ACTOR_FIELDS = List.of("id", "name", "birthDate");
+    private static final List<String> GENRE_FIELDS = List.of("id", "name");
+    private static final List<String> MOVIES = List.of("movies");
+
+    public static Projection movies(String fields, String include) {
+        return parse(fields, include, MOVIE_FIELDS, MOVIE_RELATIONS);
+    }
+
+    public static Projection actors(String fields, String include) {
+        return parse(fields, include, ACTOR_FIELDS, MOVIES);
+    }
+
+    public static Projection genres(String fields, String include) {
+        return parse(fields, include, GENRE_FIELDS, MOVIES);
+    }
+
+    private static Projection parse(String fields, String include, List<String> allFields, List<String> relations) {
+        Set<String> selected = fields == null ? new LinkedHashSet<>(allFields) : names(fields, allFields, "field");
+        Set<String> included = include != null ? names(include, relations, "include")
+                : fields == null ? new LinkedHashSet<>(relations) : Set.of();
+        return new Projection(selected, included);
+    }
+
+    // Comma-separated; an empty value selects nothing
+    private static Set<String> names(String value, List<String> allowed, String parameter) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BadRequestException("Unknown " + parameter + " '" + name + "', use any of " + allowed);
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    public boolean includes(String relation) {
+        return include.contains(relation);
+    }
+
+    // Every property the response shows
+    public Set<String> properties() {
+        Set<String> properties = new LinkedHashSet<>(fields);
+        properties.addAll(include);
+        return properties;
+    }
+}
@@ -0,0 +1,42 @@
+package com.filmsociety.movies_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.filmsociety.movies_api.exception.BadRequestException;
+
+// Opaque resume token for GET /api/movies/stream?since=...
+// It encodes the position of the last change a consumer received (its catalog version and movie id);
+// the stream resumes with the changes right after it, in (version, id) order.
+public record SyncToken(long version, long lastId) {
+
+    private static final String PREFIX = "s1";
+
+    // No token: every live movie, from the beginning
+    public static final SyncToken START = new SyncToken(0, 0);
+
+    public String encode() {
+        String raw = String.join(":", PREFIX, Long.toString(version), Long.toString(lastId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return START;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid since token: " + token);
+        }
+        if (parts.length != 3 || !parts[0].equals(PREFIX)) {
+            throw new BadRequestException("Invalid since token: " + token);
+        }
+        try {
+            return new SyncToken(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid since token: " + token);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Decayed heavy hitters: Space-Saving over exponentially decayed view counts.
+// - Holds at most `capacity` movies. A movie arriving when full replaces the lowest one and starts
+//   from its score, so a score overestimates by at most what it inherited, and no movie with more
+//   than 1/capacity of all (decayed) views is missed.
+// - Forward decay: a view at time t weighs 2^((t - landmark) / halfLife). Older scores never need
+//   touching, and the order of two movies only changes when one of them is viewed.
+// Not thread-safe; MovieViewService feeds it from its flush only.
+final class TrendingMovies {
+
+    // Past this many half-lives since the landmark, weights are rescaled to a new one
+    private static final double RESCALE_AFTER = 256;
+
+    record Score(long movieId, double score) {}
+
+    private record Entry(long movieId, double weight) {}
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble(Entry::weight).thenComparingLong(Entry::movieId);
+
+    private final int capacity;
+    private final double halfLifeMillis;
+    private final TreeSet<Entry> ranked = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> byMovie = new HashMap<>();
+    private long landmark;
+
+    TrendingMovies(int capacity, long halfLifeMillis, long now) {
+        this.capacity = capacity;
+        this.halfLifeMillis = halfLifeMillis;
+        this.landmark = now;
+    }
+
+    void add(long movieId, long views, long now) {
+        if (halfLives(now) > RESCALE_AFTER) {
+            rescale(now);
+        }
+        Entry entry = byMovie.get(movieId);
+        double base;
+        if (entry != null) {
+            ranked.remove(entry);
+            base = entry.weight();
+        } else if (byMovie.size() >= capacity) {
+            Entry lowest = ranked.pollFirst();
+            byMovie.remove(lowest.movieId());
+            base = lowest.weight();
+        } else {
+            base = 0;
+        }
+        entry = new Entry(movieId, base + views * Math.pow(2, halfLives(now)));
+        ranked.add(entry);
+        byMovie.put(movieId, entry);
+    }
+
+    void remove(long movieId) {
+        Entry entry = byMovie.remove(movieId);
+        if (entry != null) {
+            ranked.remove(entry);
+        }
+    }
+
+    // The best `limit` movies, best first, scored in views decayed to `now`
+    List<Score> top(int limit, long now) {
+        double scale = Math.pow(2, -halfLives(now));
+        List<Score> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Iterator<Entry> it = ranked.descendingIterator(); it.hasNext() && top.size() < limit; ) {
+            Entry entry = it.next();
+            top.add(new Score(entry.movieId(), entry.weight() * scale));
+        }
+        return top;
+    }
+
+    private double halfLives(long now) {
+        return (now - landmark) / halfLifeMillis;
+    }
+
+    // Same factor for every weight, so the order stays as it is
+    private void rescale(long now) {
+        double scale = Math.pow(2, -halfLives(now));
+        List<Entry> entries = new ArrayList<>(ranked);
+        ranked.clear();
+        for (Entry entry : entries) {
+            Entry rescaled = new Entry(entry.movieId(), entry.weight() * scale);
+            ranked.add(rescaled);
+            byMovie.put(rescaled.movieId(), rescaled);
+        }
+        landmark = now;
+    }
+}
@@ -0,0 +1,62 @@
+package com.filmsociety.movies_api.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Database ids of one kind of vertex (movie, actor, genre) <-> dense int indexes for CatalogGraph.
+// Ids present at build time are kept sorted, so their index is their position (binary search);
+// ids seen later get the next free index. Removed ids keep their index but are no longer found.
+final class VertexIndex {
+
+    private final long[] sortedIds;
+    private long[] addedIds = new long[16];
+    private final LongCountMap added = new LongCountMap(16);
+    private final BitSet removed = new BitSet();
+    private int size;
+
+    VertexIndex(long[] sortedIds) {
+        this.sortedIds = sortedIds;
+        this.size = sortedIds.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // -1 if unknown or removed
+    int indexOf(long id) {
+        int index = find(id);
+        return index >= 0 && !removed.get(index) ? index : -1;
+    }
+
+    int getOrAdd(long id) {
+        int index = find(id);
+        if (index >= 0) {
+            removed.clear(index);
+            return index;
+        }
+        int added = size - sortedIds.length;
+        if (added == addedIds.length) {
+            addedIds = Arrays.copyOf(addedIds, added * 2);
+        }
+        addedIds[added] = id;
+        this.added.put(id, size);
+        return size++;
+    }
+
+    void remove(int index) {
+        removed.set(index);
+    }
+
+    long id(int index) {
+        return index < sortedIds.length ? sortedIds[index] : addedIds[index - sortedIds.length];
+    }
+
+    private int find(long id) {
+        int index = Arrays.binarySearch(sortedIds, id);
+        if (index >= 0) {
+            return index;
+        }
+        return added.contains(id) ? (int) added.get(id) : -1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.filmsociety.movies_api.bootstrap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// The same settings and seed always write the same catalog, row for row
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/generator-test.db")
+class CatalogGeneratorTests {
+
+    private static final CatalogGenerator.Settings SETTINGS = new CatalogGenerator.Settings(300, 60, 8, 4, 7);
+
+    @Autowired
+    private CatalogGenerator generator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sameSeedGivesTheSameCatalog() {
+        CatalogGenerator.Result first = generateIntoEmptyCatalog(SETTINGS);
+        Map<String, List<Map<String, Object>>> firstRows = dump();
+        CatalogGenerator.Result second = generateIntoEmptyCatalog(SETTINGS);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(dump()).isEqualTo(firstRows);
+        assertThat(firstRows.get("movies")).hasSize(300);
+        assertThat(firstRows.get("actors")).hasSize(60);
+        assertThat(firstRows.get("genres")).hasSize(8);
+    }
+
+    @Test
+    void anotherSeedGivesAnotherCatalog() {
+        generateIntoEmptyCatalog(SETTINGS);
+        Map<String, List<Map<String, Object>>> rows = dump();
+        generateIntoEmptyCatalog(new CatalogGenerator.Settings(300, 60, 8, 4, 8));
+
+        Map<String, List<Map<String, Object>>> other = dump();
+        assertThat(other.get("movies")).hasSize(300).isNotEqualTo(rows.get("movies"));
+        assertThat(other.get("movie_actors")).isNotEqualTo(rows.get("movie_actors"));
+    }
+
+    // Ids continue from the current maximum, so both runs start from an empty catalog to get the same ids
+    private CatalogGenerator.Result generateIntoEmptyCatalog(CatalogGenerator.Settings settings) {
+        for (String table : List.of("movie_genres", "movie_actors", "movie_stats", "movies", "actors", "genres")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        return generator.generate(settings);
+    }
+
+    // Data columns only: version stamps follow the catalog clock, which keeps counting
+    private Map<String, List<Map<String, Object>>> dump() {
+        return Map.of(
+                "movies", jdbcTemplate.queryForList("SELECT id, title, release_year, duration FROM movies ORDER BY id"),
+                "actors", jdbcTemplate.queryForList("SELECT id, name, birth_date FROM actors ORDER BY id"),
+                "genres", jdbcTemplate.queryForList("SELECT id, name FROM genres ORDER BY id"),
+                "movie_genres", jdbcTemplate.queryForList(
+                        "SELECT movie_id, genre_id FROM movie_genres ORDER BY movie_id, genre_id"),
+                "movie_actors", jdbcTemplate.queryForList(
+                        "SELECT movie_id, actor_id FROM movie_actors ORDER BY movie_id, actor_id"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.filmsociety.movies_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+// One permit per pooled connection, given back exactly once when the connection is closed
+class PermitBoundedDataSourceTests {
+
+    private final PermitBoundedDataSource dataSource = new PermitBoundedDataSource(pool(), "permit-test");
+
+    @AfterEach
+    void closePool() {
+        dataSource.close();
+    }
+
+    @Test
+    void closingAConnectionReturnsItsPermit() throws Exception {
+        Connection first = dataSource.getConnection();
+        assertTurnedAwayByThePermits();
+
+        first.close();
+        try (Connection second = dataSource.getConnection()) {
+            assertThat(second.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    void closingTwiceReturnsOnePermit() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        try (Connection held = dataSource.getConnection()) {
+            assertThat(held.isValid(1)).isTrue();
+            assertTurnedAwayByThePermits();
+        }
+    }
+
+    // Hikari's own timeout reports the pool state "(total=1, active=1, ...)"; the permit's does not
+    private void assertTurnedAwayByThePermits() {
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageNotContaining("total=");
+    }
+
+    private static HikariDataSource pool() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:target/permit-test.db");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(250);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,88 @@
+package com.filmsociety.movies_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Small bodies get a Content-Length; non-blocking writers pass straight through
+class SmallResponseFilterTests {
+
+    private final SmallResponseFilter filter = new SmallResponseFilter(2048);
+
+    @Test
+    void smallBodyIsSentWithItsLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            res.getOutputStream().write("small".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+        });
+        assertThat(response.getContentLength()).isEqualTo(5);
+        assertThat(response.getContentAsString()).isEqualTo("small");
+    }
+
+    @Test
+    void nonBlockingWriterReachesTheContainerStream() throws Exception {
+        NonBlockingResponse response = new NonBlockingResponse(new MockHttpServletResponse());
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            ServletOutputStream out = res.getOutputStream();
+            out.write("before ".getBytes(StandardCharsets.UTF_8));
+            out.setWriteListener(listener);
+            assertThat(out.isReady()).isTrue();
+            out.write("after".getBytes(StandardCharsets.UTF_8));
+            // Nothing held back: already at the container
+            assertThat(response.body.toString(StandardCharsets.UTF_8)).isEqualTo("before after");
+        });
+        assertThat(response.listener).isSameAs(listener);
+        assertThat(response.getHeader("Content-Length")).isNull();
+    }
+
+    // A container stream that accepts a WriteListener (the mock one does not)
+    private static final class NonBlockingResponse extends HttpServletResponseWrapper {
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        WriteListener listener;
+
+        NonBlockingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    listener = writeListener;
+                }
+            };
+        }
+    }
+}
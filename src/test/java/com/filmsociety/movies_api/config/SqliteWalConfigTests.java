@@ -0,0 +1,135 @@
+package com.filmsociety.movies_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// WAL mode: read-write transactions get the single writer connection, everything else a reader
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/wal-test.db",
+        // A request routed to the busy writer fails fast instead of hanging the test
+        "app.sqlite.writer-queue-timeout=500"
+})
+@ActiveProfiles("wal")
+@AutoConfigureMockMvc
+class SqliteWalConfigTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("writerDataSource")
+    private DataSource writer;
+
+    @Autowired
+    @Qualifier("readerDataSource")
+    private DataSource reader;
+
+    @Test
+    void eachUnitOfWorkGoesToItsPool() throws Exception {
+        assertThat(jdbcTemplate.queryForObject("PRAGMA journal_mode", String.class)).isEqualToIgnoringCase("wal");
+
+        inTransaction(false, () -> {
+            jdbcTemplate.update("INSERT INTO genres (name) VALUES (?)", "WAL " + System.nanoTime());
+            assertThat(queryOnly()).isFalse();
+            assertThat(active(writer)).isEqualTo(1);
+            assertThat(active(reader)).isZero();
+        });
+        inTransaction(true, () -> {
+            jdbcTemplate.queryForObject("SELECT count(*) FROM movies", Long.class);
+            assertThat(queryOnly()).isTrue();
+            assertThat(active(reader)).isEqualTo(1);
+            assertThat(active(writer)).isZero();
+        });
+        // Outside a transaction
+        assertThat(queryOnly()).isTrue();
+    }
+
+    @Test
+    void aReadOnlyTransactionCannotWrite() {
+        assertThatThrownBy(() -> inTransaction(true,
+                () -> jdbcTemplate.update("INSERT INTO genres (name) VALUES (?)", "WAL " + System.nanoTime())))
+                .hasMessageContaining("readonly");
+    }
+
+    @Test
+    void readsDoNotQueueBehindAWrite() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> inTransaction(false, () -> {
+            jdbcTemplate.update("INSERT INTO genres (name) VALUES (?)", "WAL " + System.nanoTime());
+            holding.countDown();
+            await(release);
+        }));
+        assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+        try {
+            mockMvc.perform(get("/api/movies")).andExpect(status().isOk());
+            mockMvc.perform(get("/api/genres")).andExpect(status().isOk());
+            mockMvc.perform(get("/api/movies/search?title=wal")).andExpect(status().isOk());
+            assertThat(active(writer)).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+        write.get(10, TimeUnit.SECONDS);
+
+        mockMvc.perform(post("/api/genres").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"WAL " + System.nanoTime() + "\"}"))
+                .andExpect(status().isCreated());
+        assertThat(active(writer)).isZero();
+    }
+
+    private boolean queryOnly() {
+        return jdbcTemplate.queryForObject("PRAGMA query_only", Integer.class) == 1;
+    }
+
+    private void inTransaction(boolean readOnly, Runnable work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        transaction.executeWithoutResult(status -> work.run());
+    }
+
+    private static int active(DataSource pool) {
+        try {
+            return pool.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
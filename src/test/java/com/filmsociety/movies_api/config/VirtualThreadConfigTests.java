@@ -0,0 +1,62 @@
+package com.filmsociety.movies_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Virtual-thread mode starts, puts the pool behind connection permits and serves more
+// concurrent requests than there are connections
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:sqlite:target/virtual-test.db",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=2"
+})
+class VirtualThreadConfigTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void connectionsAreHandedOutBehindPermits() throws Exception {
+        assertThat(dataSource.isWrapperFor(PermitBoundedDataSource.class)).isTrue();
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+
+        List<String> paths = List.of("/api/movies?yearFrom=1990", "/api/genres", "/api/movies/search?title=the",
+                "/api/movies/export/csv");
+        try (HttpClient http = HttpClient.newHttpClient()) {
+            List<CompletableFuture<HttpResponse<Void>>> responses = IntStream.range(0, 64)
+                    .mapToObj(i -> HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + paths.get(i % paths.size()))).build())
+                    .map(request -> http.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                    .toList();
+            for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                assertThat(response.get().statusCode()).isEqualTo(200);
+            }
+        }
+        // Every permit came back with its connection
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+        try (Connection connection = dataSource.getConnection(); Connection other = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(other.isValid(1)).isTrue();
+        }
+    }
+}
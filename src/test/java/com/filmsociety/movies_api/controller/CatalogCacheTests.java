@@ -0,0 +1,138 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.filmsociety.movies_api.service.CatalogCacheInvalidator;
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Repeated lookups are served from the read cache, and writes evict exactly what they make stale
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/cache-test.db",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class CatalogCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CatalogCacheInvalidator cacheInvalidator;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetCaches() {
+        cacheInvalidator.clearAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedLookupsSkipTheDatabase() throws Exception {
+        mockMvc.perform(get("/api/movies/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres")).andExpect(status().isOk());
+        long coldStatements = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/movies/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres")).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(coldStatements);
+    }
+
+    @Test
+    void renamingAnActorEvictsTheMoviesThatShowIt() throws Exception {
+        String movieId = firstMovieOfActor(1);
+        mockMvc.perform(get("/api/movies/" + movieId)).andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/actors/1").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Renamed Actor\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/movies/" + movieId))
+                .andExpect(jsonPath("$.actors[?(@.id == 1)].name").value("Renamed Actor"));
+        mockMvc.perform(get("/api/actors/1"))
+                .andExpect(jsonPath("$.name").value("Renamed Actor"));
+    }
+
+    @Test
+    void updatingAMovieEvictsItsGenres() throws Exception {
+        mockMvc.perform(get("/api/genres/1")).andExpect(status().isOk());
+        String movieId = firstMovieOfGenre(1);
+
+        mockMvc.perform(patch("/api/movies/" + movieId).contentType(MediaType.APPLICATION_JSON).content("{\"duration\":321}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/genres/1"))
+                .andExpect(jsonPath("$.movies[?(@.id == " + movieId + ")].duration").value(321));
+    }
+
+    @Test
+    void genreListingHoldsOnePageOfEachGenresMovies() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Cache Paging " + System.nanoTime() + "\"}");
+        long m1 = createMovie(genre);
+        long m2 = createMovie(genre);
+        long m3 = createMovie(genre);
+
+        assertThat(listedMovieIds("?size=2", genre)).containsExactly(m1, m2);
+        assertThat(listedMovieIds("?size=2&page=1", genre)).containsExactly(m3);
+        // Each page is its own cache entry, and a write drops them all
+        mockMvc.perform(patch("/api/movies/" + m3).contentType(MediaType.APPLICATION_JSON).content("{\"duration\":123}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres?size=2&page=1"))
+                .andExpect(jsonPath("$[?(@.id == " + genre + ")].movies[0].duration").value(123));
+
+        mockMvc.perform(get("/api/genres?size=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/genres?page=-1")).andExpect(status().isBadRequest());
+    }
+
+    private List<Long> listedMovieIds(String query, long genre) throws Exception {
+        String body = mockMvc.perform(get("/api/genres" + query)).andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(body, "$[?(@.id == " + genre + ")].movies[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private long createMovie(long genre) throws Exception {
+        return create("/api/movies", "{\"title\": \"Cache Paging\", \"releaseYear\": 2000, \"duration\": 100, "
+                + "\"genres\": [{\"id\": " + genre + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private String firstMovieOfActor(long actorId) throws Exception {
+        String body = mockMvc.perform(get("/api/actors/" + actorId)).andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.movies[0].id").toString();
+    }
+
+    private String firstMovieOfGenre(long genreId) throws Exception {
+        String body = mockMvc.perform(get("/api/genres/" + genreId)).andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.movies[0].id").toString();
+    }
+}
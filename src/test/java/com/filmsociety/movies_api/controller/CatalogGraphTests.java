@@ -0,0 +1,120 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+// Similar movies, co-stars and actor paths follow relationship changes as they commit
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/graph-test.db",
+        // Compact often, so queries run against both changed rows and rebuilt arrays
+        "app.graph.compact-after=4"
+})
+@AutoConfigureMockMvc
+class CatalogGraphTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void similarMoviesRankSharedActorsAboveSharedGenres() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Graph Test " + System.nanoTime() + "\"}");
+        long a = createActor();
+        long b = createActor();
+        long c = createActor();
+        long movie = createMovie(genre, a, b);
+        long twoActors = createMovie(0, a, b);
+        long oneActorAndGenre = createMovie(genre, b, c);
+        long genreOnly = createMovie(genre, c);
+
+        mockMvc.perform(get("/api/movies/" + movie + "/similar?limit=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].movieId").value(twoActors))
+                .andExpect(jsonPath("$[0].sharedActors").value(2))
+                .andExpect(jsonPath("$[1].movieId").value(oneActorAndGenre))
+                .andExpect(jsonPath("$[1].sharedGenres").value(1))
+                .andExpect(jsonPath("$[2].movieId").value(genreOnly))
+                .andExpect(jsonPath("$[2].sharedActors").value(0));
+    }
+
+    @Test
+    void coStarsAndPathsFollowCastChanges() throws Exception {
+        long a = createActor();
+        long b = createActor();
+        long c = createActor();
+        long d = createActor();
+        long m1 = createMovie(0, a, b);
+        long m2 = createMovie(0, b, c);
+        createMovie(0, a, b);
+
+        mockMvc.perform(get("/api/actors/" + b + "/costars"))
+                .andExpect(jsonPath("$[0].actorId").value(a))
+                .andExpect(jsonPath("$[0].sharedMovies").value(2))
+                .andExpect(jsonPath("$[1].actorId").value(c));
+
+        mockMvc.perform(get("/api/actors/" + a + "/path/" + c))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.degrees").value(2))
+                .andExpect(jsonPath("$.steps[0].actorId").value(a))
+                .andExpect(jsonPath("$.steps[1].actorId").value(b))
+                .andExpect(jsonPath("$.steps[2].actorId").value(c))
+                .andExpect(jsonPath("$.steps[2].viaMovieId").value(m2));
+        mockMvc.perform(get("/api/actors/" + a + "/path/" + d)).andExpect(status().isNotFound());
+
+        // d joins m1: one movie away from a
+        mockMvc.perform(json(patch("/api/movies/" + m1 + "/actors/add"), "[{\"id\": %d}]".formatted(d))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/actors/" + a + "/path/" + d)).andExpect(jsonPath("$.degrees").value(1));
+
+        // Without b, c is cut off from a
+        mockMvc.perform(delete("/api/actors/" + b + "?force=true")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/actors/" + a + "/path/" + c)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/actors/" + b + "/costars")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unlinkedMovieHasNoSimilarMoviesAndUnknownOneIsNotFound() throws Exception {
+        long movie = createMovie(0);
+        mockMvc.perform(get("/api/movies/" + movie + "/similar")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/movies/999999999/similar")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/movies/" + movie + "/similar?limit=0")).andExpect(status().isBadRequest());
+    }
+
+    private long createActor() throws Exception {
+        return create("/api/actors", "{\"name\": \"Graph Test Actor " + System.nanoTime() + "\"}");
+    }
+
+    // genre 0 = none
+    private long createMovie(long genre, long... actors) throws Exception {
+        StringBuilder cast = new StringBuilder();
+        for (long actor : actors) {
+            cast.append(cast.isEmpty() ? "" : ", ").append("{\"id\": ").append(actor).append("}");
+        }
+        String genres = genre == 0 ? "[]" : "[{\"id\": " + genre + "}]";
+        return create("/api/movies", "{\"title\": \"Graph Test " + System.nanoTime() + "\", \"releaseYear\": 2020, "
+                + "\"duration\": 100, \"genres\": " + genres + ", \"actors\": [" + cast + "]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
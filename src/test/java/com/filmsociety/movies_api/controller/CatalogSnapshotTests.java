@@ -0,0 +1,190 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.filmsociety.movies_api.service.CatalogSnapshotService;
+import com.jayway.jsonpath.JsonPath;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Snapshot read mode: GETs answered from memory without a single statement, patched after every write
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/snapshot-test.db",
+        "app.snapshot.enabled=true",
+        // Builds read several pages, with writes committing in between
+        "app.snapshot.page-size=2",
+        // No view counter flush in the middle of counting statements
+        "app.views.flush-interval=1h"
+})
+@AutoConfigureMockMvc
+class CatalogSnapshotTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private CatalogSnapshotService snapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readsFollowEveryWriteWithoutTouchingTheDatabase() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Snapshot " + System.nanoTime() + "\"}");
+        long a = createActor();
+        long b = createActor();
+        long m1 = createMovie("B", 1990, genre, a);
+        long m2 = createMovie("A", 2000, genre, b);
+        long m3 = createMovie("C", 2000, genre, a);
+
+        Timer statements = registry.get("jdbc.statements").tag("datasource", "dataSource").timer();
+        long before = statements.count();
+        assertIds("genre=" + genre + "&sort=releaseYear,desc", m2, m3, m1);
+        assertIds("genre=" + genre + "&actor=" + a, m1, m3);
+        mockMvc.perform(get("/api/movies/" + m1))
+                .andExpect(jsonPath("$.genres[0].id").value(genre))
+                .andExpect(jsonPath("$.actors[0].id").value(a));
+        mockMvc.perform(get("/api/actors/" + a))
+                .andExpect(jsonPath("$.movies.length()").value(2))
+                .andExpect(jsonPath("$.movies[1].id").value(m3));
+        mockMvc.perform(get("/api/genres/" + genre)).andExpect(jsonPath("$.movies.length()").value(3));
+        String genres = mockMvc.perform(get("/api/genres?size=2&page=1")).andReturn().getResponse().getContentAsString();
+        assertThat(JsonPath.<List<Number>>read(genres, "$[?(@.id == " + genre + ")].movies[*].id"))
+                .extracting(Number::longValue).containsExactly(m3);
+        mockMvc.perform(get("/api/movies?ids=%d,%d,999999993".formatted(m3, m1)))
+                .andExpect(jsonPath("$.items[0].id").value(m3))
+                .andExpect(jsonPath("$.missing[0]").value(999999993));
+        assertThat(statements.count()).isEqualTo(before);
+
+        mockMvc.perform(json(patch("/api/movies/" + m1), "{\"releaseYear\": 2020}")).andExpect(status().isOk());
+        mockMvc.perform(json(patch("/api/movies/" + m2 + "/actors/add"), "[{\"id\": " + a + "}]")).andExpect(status().isOk());
+        mockMvc.perform(json(patch("/api/actors/" + a), "{\"name\": \"Renamed " + a + "\"}")).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/movies/" + m3)).andExpect(status().isNoContent());
+
+        assertIds("genre=" + genre + "&sort=releaseYear,desc", m1, m2);
+        assertIds("genre=" + genre + "&actor=" + a + "&sort=title", m2, m1);
+        mockMvc.perform(get("/api/movies/" + m2 + "/actors"))
+                .andExpect(jsonPath("$[0].name").value("Renamed " + a))
+                .andExpect(jsonPath("$[1].id").value(b));
+        mockMvc.perform(get("/api/movies/" + m3)).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/genres/" + genre + "?force=true")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/genres/" + genre)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/movies/" + m1)).andExpect(jsonPath("$.genres.length()").value(0));
+    }
+
+    @Test
+    void etagsAndCursorsWorkAsOnTheDatabase() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Snapshot " + System.nanoTime() + "\"}");
+        long actor = createActor();
+        long m1 = createMovie("Same", 2001, genre, actor);
+        long m2 = createMovie("Same", 2002, genre, actor);
+        long m3 = createMovie("Other", 2003, genre, actor);
+
+        String first = mockMvc.perform(get("/api/movies?sort=title&size=2&fields=id&after=&genre=" + genre))
+                .andExpect(jsonPath("$.content[0].id").value(m3))
+                .andExpect(jsonPath("$.content[1].id").value(m1))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/movies?sort=title&size=2&fields=id&genre=" + genre)
+                        .param("after", (String) JsonPath.read(first, "$.nextCursor")))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(m2))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        String listing = mockMvc.perform(get("/api/movies")).andReturn().getResponse().getHeader("ETag");
+        String movie = mockMvc.perform(get("/api/movies/" + m1)).andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/movies").header("If-None-Match", listing)).andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/movies/" + m1).header("If-None-Match", movie)).andExpect(status().isNotModified());
+
+        mockMvc.perform(json(patch("/api/movies/" + m1), "{\"duration\": 99}")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/movies").header("If-None-Match", listing))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+        mockMvc.perform(get("/api/movies/" + m1).header("If-None-Match", movie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duration").value(99));
+    }
+
+    @Test
+    void writesDuringARebuildAreApplied() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Snapshot " + System.nanoTime() + "\"}");
+        long actor = createActor();
+        long[] movies = new long[6];
+        for (int i = 0; i < movies.length; i++) {
+            movies[i] = createMovie("Rebuild", 2000, genre, actor);
+        }
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 30; i++) {
+                    mockMvc.perform(json(patch("/api/movies/" + movies[i % movies.length]), "{\"duration\": " + (100 + i) + "}"))
+                            .andExpect(status().isOk());
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            snapshotService.rebuild();
+        }
+        writer.join();
+
+        String json = mockMvc.perform(get("/api/movies?fields=id,duration&sort=id&genre=" + genre))
+                .andReturn().getResponse().getContentAsString();
+        List<Number> durations = JsonPath.read(json, "$.content[*].duration");
+        assertThat(durations.stream().map(Number::intValue).toList()).isEqualTo(jdbcTemplate.queryForList(
+                "SELECT m.duration FROM movies m JOIN movie_genres mg ON mg.movie_id = m.id WHERE mg.genre_id = ? ORDER BY m.id",
+                Integer.class, genre));
+    }
+
+    private void assertIds(String query, long... expected) throws Exception {
+        String json = mockMvc.perform(get("/api/movies?fields=id&" + query))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(json, "$.content[*].id");
+        assertThat(ids.stream().map(Number::longValue).toList())
+                .containsExactly(Arrays.stream(expected).boxed().toArray(Long[]::new));
+        assertThat(((Number) JsonPath.read(json, "$.totalElements")).longValue()).isEqualTo(expected.length);
+    }
+
+    private long createActor() throws Exception {
+        return create("/api/actors", "{\"name\": \"Snapshot Actor " + System.nanoTime() + "\"}");
+    }
+
+    private long createMovie(String title, int year, long genre, long actor) throws Exception {
+        return create("/api/movies", "{\"title\": \"" + title + "\", \"releaseYear\": " + year + ", \"duration\": 100, "
+                + "\"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
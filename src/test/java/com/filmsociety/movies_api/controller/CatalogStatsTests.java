@@ -0,0 +1,132 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.filmsociety.movies_api.service.CatalogStatsService;
+import com.jayway.jsonpath.JsonPath;
+
+// In-memory aggregates follow every write and agree with a rebuild from the database
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/stats-test.db")
+@AutoConfigureMockMvc
+class CatalogStatsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogStatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void writesAreCountedAsTheyCommit() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Stats Test " + System.nanoTime() + "\"}");
+        long actor = create("/api/actors", "{\"name\": \"Stats Test Actor " + System.nanoTime() + "\"}");
+        long moviesBefore = movies();
+        long year1950Before = moviesIn(1950);
+
+        long movie = create("/api/movies", "{\"title\": \"Stats Test " + System.nanoTime() + "\", \"releaseYear\": 1950, "
+                + "\"duration\": 90, \"genres\": [{\"id\": %d}]}".formatted(genre));
+        mockMvc.perform(json(patch("/api/movies/" + movie + "/actors/add"), "[{\"id\": %d}]".formatted(actor)))
+                .andExpect(status().isOk());
+
+        assertThat(movies()).isEqualTo(moviesBefore + 1);
+        assertThat(moviesIn(1950)).isEqualTo(year1950Before + 1);
+        mockMvc.perform(get("/api/stats"))
+                .andExpect(jsonPath("$.genres[?(@.genreId == %d)].movies".formatted(genre)).value(1));
+        mockMvc.perform(get("/api/stats/actors/" + actor)).andExpect(jsonPath("$.movies").value(1));
+
+        mockMvc.perform(json(patch("/api/movies/" + movie), "{\"releaseYear\": 1951}")).andExpect(status().isOk());
+        assertThat(moviesIn(1950)).isEqualTo(year1950Before);
+
+        mockMvc.perform(delete("/api/movies/" + movie)).andExpect(status().isNoContent());
+        assertThat(movies()).isEqualTo(moviesBefore);
+        mockMvc.perform(get("/api/stats/actors/" + actor)).andExpect(jsonPath("$.movies").value(0));
+    }
+
+    @Test
+    void rebuildMatchesTheIncrementalCounts() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Stats Test " + System.nanoTime() + "\"}");
+        create("/api/movies", "{\"title\": \"Stats Test " + System.nanoTime() + "\", \"releaseYear\": 2001, "
+                + "\"duration\": 123, \"genres\": [{\"id\": %d}]}".formatted(genre));
+        mockMvc.perform(delete("/api/genres/" + genre + "?force=true")).andExpect(status().isNoContent());
+
+        String incremental = mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString();
+        String top = mockMvc.perform(get("/api/stats/actors?limit=50")).andReturn().getResponse().getContentAsString();
+        statsService.rebuild();
+
+        assertThat(mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString()).isEqualTo(incremental);
+        assertThat(mockMvc.perform(get("/api/stats/actors?limit=50")).andReturn().getResponse().getContentAsString()).isEqualTo(top);
+        assertThat(incremental).doesNotContain("\"genreId\":" + genre + ",");
+    }
+
+    // Deltas committing while a rebuild scans are neither lost with the old counts nor counted twice
+    @Test
+    void writesDuringARebuildAreKept() throws Exception {
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20; i++) {
+                    create("/api/movies", "{\"title\": \"Stats Rebuild " + System.nanoTime() + "\", \"releaseYear\": 1977, \"duration\": 91}");
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            statsService.rebuild();
+        }
+        writer.join();
+
+        assertThat(movies()).isEqualTo(jdbcTemplate.queryForObject("SELECT count(*) FROM movies", Long.class));
+        assertThat(moviesIn(1977)).isEqualTo(
+                jdbcTemplate.queryForObject("SELECT count(*) FROM movies WHERE release_year = 1977", Long.class));
+    }
+
+    @Test
+    void durationPercentilesAreOrdered() throws Exception {
+        String stats = mockMvc.perform(get("/api/stats")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Integer> values = List.of("min", "p50", "p90", "p95", "p99", "max").stream()
+                .map(key -> (Integer) JsonPath.read(stats, "$.duration." + key)).toList();
+        assertThat(values).isSorted();
+        assertThat(values.getFirst()).isPositive();
+    }
+
+    private long movies() throws Exception {
+        return ((Number) JsonPath.read(mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString(), "$.movies")).longValue();
+    }
+
+    private long moviesIn(int year) throws Exception {
+        List<Number> counts = JsonPath.read(mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString(),
+                "$.years[?(@.year == %d)].movies".formatted(year));
+        return counts.isEmpty() ? 0 : counts.getFirst().longValue();
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,100 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+// ETags come from the trigger-maintained versions: unchanged resources revalidate with a 304,
+// and a change anywhere in what a payload shows gives it a new ETag
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/conditional-get-test.db")
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/movies/1", "/api/actors/1", "/api/genres/1", "/api/genres", "/api/actors", "/api/movies?size=5"})
+    void unchangedResourceIsNotModified(String url) throws Exception {
+        String etag = etagOf(url);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void renamingAGenreChangesTheETagOfItsMovies() throws Exception {
+        String movieUrl = "/api/movies/1";
+        String before = etagOf(movieUrl);
+        String genreId = JsonPath.read(
+                mockMvc.perform(get(movieUrl)).andReturn().getResponse().getContentAsString(), "$.genres[0].id").toString();
+
+        mockMvc.perform(patch("/api/genres/" + genreId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed " + System.nanoTime() + "\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(movieUrl).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        assertThat(etagOf(movieUrl)).isNotEqualTo(before);
+    }
+
+    // Bulk writes stamp versions once per batch instead of per row (CatalogBulkWriter)
+    @Test
+    void importsStampWhatTheyWriteAndNothingElse() throws Exception {
+        long n = System.nanoTime();
+        String actorJson = mockMvc.perform(post("/api/actors").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Stamped " + n + "\"}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        String actorUrl = "/api/actors/" + JsonPath.read(actorJson, "$.id");
+        String actorBefore = etagOf(actorUrl);
+        String untouchedBefore = etagOf("/api/movies/1");
+
+        String row = "Stamped Movie " + n + ",2001,100,Stamped Genre " + n + ",Stamped " + n;
+        importMovies(row);
+        String actorAfterImport = etagOf(actorUrl);
+        assertThat(actorAfterImport).isNotEqualTo(actorBefore);
+        assertThat(etagOf("/api/movies/1")).isEqualTo(untouchedBefore);
+        String listing = mockMvc.perform(get(actorUrl)).andReturn().getResponse().getContentAsString();
+        String movieUrl = "/api/movies/" + JsonPath.read(listing, "$.movies[0].id");
+        String movieBefore = etagOf(movieUrl);
+
+        // Nothing to write, nothing restamped
+        importMovies(row);
+        assertThat(etagOf(actorUrl)).isEqualTo(actorAfterImport);
+        assertThat(etagOf(movieUrl)).isEqualTo(movieBefore);
+
+        importMovies("Stamped Movie " + n + ",2001,101,Stamped Genre " + n + ",Stamped " + n);
+        assertThat(etagOf(movieUrl)).isNotEqualTo(movieBefore);
+        assertThat(etagOf(actorUrl)).isNotEqualTo(actorAfterImport);
+    }
+
+    private void importMovies(String csv) throws Exception {
+        mockMvc.perform(post("/api/import").param("type", "movies").contentType("text/csv").content(csv))
+                .andExpect(status().isOk());
+    }
+
+    private String etagOf(String url) throws Exception {
+        String etag = mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+}
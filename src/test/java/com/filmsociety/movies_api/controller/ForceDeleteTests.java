@@ -0,0 +1,110 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+// Deletes of linked actors and genres: counted guard, set-based force, chunked background job
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/delete-test.db",
+        // Several chunks for a handful of movies
+        "app.delete.chunk-size=2"
+})
+@AutoConfigureMockMvc
+class ForceDeleteTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void linkedGenreNeedsForceAndIsUnlinkedFromEveryMovie() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Delete Test " + System.nanoTime() + "\"}");
+        long m1 = createMovie();
+        long m2 = createMovie();
+        link(m1, "genres", genre);
+        link(m2, "genres", genre);
+
+        mockMvc.perform(delete("/api/genres/" + genre))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(Matchers.containsString("has 2 associated movies")));
+
+        mockMvc.perform(delete("/api/genres/" + genre + "?force=true")).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/genres/" + genre)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/movies/" + m1)).andExpect(jsonPath("$.genres.length()").value(0));
+        mockMvc.perform(get("/api/movies/" + m2)).andExpect(jsonPath("$.genres.length()").value(0));
+    }
+
+    @Test
+    void backgroundDeleteRunsInChunksAndReportsProgress() throws Exception {
+        long actor = create("/api/actors", "{\"name\": \"Delete Test Actor " + System.nanoTime() + "\"}");
+        long[] movies = new long[5];
+        for (int i = 0; i < movies.length; i++) {
+            movies[i] = createMovie();
+            link(movies[i], "actors", actor);
+        }
+
+        String job = mockMvc.perform(delete("/api/actors/" + actor + "?force=true&background=true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", Matchers.startsWith("/api/jobs/")))
+                .andExpect(jsonPath("$.links").value(5))
+                .andReturn().getResponse().getContentAsString();
+        String jobId = JsonPath.read(job, "$.id");
+
+        String state = "RUNNING";
+        for (int i = 0; i < 100 && state.equals("RUNNING"); i++) {
+            Thread.sleep(50);
+            state = JsonPath.read(mockMvc.perform(get("/api/jobs/" + jobId)).andReturn().getResponse().getContentAsString(), "$.state");
+        }
+        mockMvc.perform(get("/api/jobs/" + jobId))
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.linksDeleted").value(5))
+                .andExpect(jsonPath("$.chunks").value(Matchers.greaterThanOrEqualTo(3)));
+
+        mockMvc.perform(get("/api/actors/" + actor)).andExpect(status().isNotFound());
+        // The filter index was told chunk by chunk
+        mockMvc.perform(get("/api/movies?actor=" + actor)).andExpect(jsonPath("$.totalElements").value(0));
+        for (long movie : movies) {
+            mockMvc.perform(get("/api/movies/" + movie)).andExpect(jsonPath("$.actors.length()").value(0));
+        }
+    }
+
+    @Test
+    void unknownJobIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/jobs/no-such-job")).andExpect(status().isNotFound());
+    }
+
+    private long createMovie() throws Exception {
+        return create("/api/movies", "{\"title\": \"Delete Test " + System.nanoTime() + "\", \"releaseYear\": 2020, \"duration\": 100}");
+    }
+
+    private void link(long movie, String kind, long id) throws Exception {
+        mockMvc.perform(json(patch("/api/movies/" + movie), "{\"%s\": [{\"id\": %d}]}".formatted(kind, id)))
+                .andExpect(status().isOk());
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
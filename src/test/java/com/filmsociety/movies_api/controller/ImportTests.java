@@ -0,0 +1,237 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.jayway.jsonpath.JsonPath;
+
+// POST /api/import: batched commits, bad lines skipped and reported, movies upserted on title and year,
+// in-memory indexes and cache kept in step
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/import-test.db")
+@AutoConfigureMockMvc
+class ImportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void csvImportCommitsInBatchesAndRefreshesStatsAndFilters() throws Exception {
+        long n = System.nanoTime();
+        String genre = "Imported " + n;
+        String lead = "Import Lead " + n;
+        String support = "Import Support " + n;
+        long moviesBefore = movieCount();
+
+        importCsv("movies", 2, String.join("\n",
+                "Import One " + n + ",1991,100," + genre + "," + lead,
+                "Import Two " + n + ",1992,110," + genre + "," + lead + "|" + support,
+                "Import Three " + n + ",1993,120," + genre + "," + support))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.lines").value(3))
+                .andExpect(jsonPath("$.moviesCreated").value(3))
+                .andExpect(jsonPath("$.moviesUpdated").value(0))
+                .andExpect(jsonPath("$.genresCreated").value(1))
+                .andExpect(jsonPath("$.actorsCreated").value(2))
+                .andExpect(jsonPath("$.skipped").value(0))
+                .andExpect(jsonPath("$.errors").isEmpty())
+                // Two records, then the one left over
+                .andExpect(jsonPath("$.batches.length()").value(2))
+                .andExpect(jsonPath("$.batches[0].records").value(2))
+                .andExpect(jsonPath("$.batches[1].records").value(1))
+                .andExpect(jsonPath("$.batches[1].lastLine").value(3));
+
+        // Stats count the new rows
+        String stats = mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString();
+        assertThat(((Number) JsonPath.read(stats, "$.movies")).longValue()).isEqualTo(moviesBefore + 3);
+        List<Number> genreIds = JsonPath.read(stats, "$.genres[?(@.name == '" + genre + "')].genreId");
+        assertThat(genreIds).hasSize(1);
+        long genreId = genreIds.get(0).longValue();
+        assertThat(JsonPath.<List<Number>>read(stats, "$.genres[?(@.genreId == " + genreId + ")].movies"))
+                .containsExactly(3);
+        long leadId = actorId(lead);
+        mockMvc.perform(get("/api/stats/actors/" + leadId)).andExpect(jsonPath("$.movies").value(2));
+
+        // And so do the filtered listings
+        mockMvc.perform(get("/api/movies?genre=" + genreId)).andExpect(jsonPath("$.totalElements").value(3));
+        mockMvc.perform(get("/api/movies?actor=" + leadId + "&sort=releaseYear&fields=id,title"))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].title").value("Import One " + n))
+                .andExpect(jsonPath("$.content[1].title").value("Import Two " + n));
+        mockMvc.perform(get("/api/movies?genre=" + genreId + "&actor=" + actorId(support) + "&yearFrom=1993"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void badLinesAreSkippedAndTheRestGoesIn() throws Exception {
+        long n = System.nanoTime();
+        String genre = "Partly Imported " + n;
+
+        importCsv("movies", 10, String.join("\n",
+                "Kept One " + n + ",2001,95," + genre,
+                "Broken " + n + ",two thousand,95," + genre,
+                "",
+                "Too Short " + n,
+                "Kept Two " + n + ",2002,96," + genre))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.lines").value(5))
+                .andExpect(jsonPath("$.moviesCreated").value(2))
+                .andExpect(jsonPath("$.skipped").value(2))
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0]").value(startsWith("line 2: ")))
+                .andExpect(jsonPath("$.errors[1]").value(startsWith("line 4: ")));
+
+        String stats = mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString();
+        long genreId = JsonPath.<List<Number>>read(stats, "$.genres[?(@.name == '" + genre + "')].genreId").get(0).longValue();
+        mockMvc.perform(get("/api/movies?genre=" + genreId)).andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    void ndjsonImportTakesEveryRecordType() throws Exception {
+        long n = System.nanoTime();
+        String genre = "Ndjson " + n;
+        String actor = "Ndjson Actor " + n;
+
+        mockMvc.perform(post("/api/import").contentType(MediaType.APPLICATION_NDJSON).content(String.join("\n",
+                        "{\"type\":\"genre\",\"name\":\"" + genre + "\"}",
+                        "{\"type\":\"actor\",\"name\":\"" + actor + "\",\"birthDate\":\"1980-05-06\"}",
+                        "{\"title\":\"Ndjson Movie " + n + "\",\"releaseYear\":2015,\"duration\":101,"
+                                + "\"genres\":[\"" + genre + "\"],\"actors\":[{\"name\":\"" + actor + "\"}]}",
+                        "{\"title\":\"No Year " + n + "\",\"duration\":90}",
+                        "not json")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true))
+                .andExpect(jsonPath("$.genresCreated").value(1))
+                .andExpect(jsonPath("$.actorsCreated").value(1))
+                .andExpect(jsonPath("$.moviesCreated").value(1))
+                .andExpect(jsonPath("$.skipped").value(2))
+                .andExpect(jsonPath("$.errors[0]").value("line 4: releaseYear must be a number"));
+
+        long actorId = actorId(actor);
+        mockMvc.perform(get("/api/actors/" + actorId)).andExpect(jsonPath("$.birthDate").value("1980-05-06"));
+        mockMvc.perform(get("/api/movies?actor=" + actorId))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Ndjson Movie " + n));
+    }
+
+    @Test
+    void reimportingUpdatesStoredMoviesInsteadOfDuplicatingThem() throws Exception {
+        long n = System.nanoTime();
+        String genre = "Synced " + n;
+        String lead = "Sync Lead " + n;
+        String dropped = "Sync Dropped " + n;
+        String joined = "Sync Joined " + n;
+        String file = String.join("\n",
+                "Sync One " + n + ",2011,100," + genre + "," + lead + "|" + dropped,
+                "Sync Two " + n + ",2012,110," + genre + "," + lead);
+        importCsv("movies", 10, file).andExpect(jsonPath("$.moviesCreated").value(2));
+        long moviesAfterFirstRun = movieCount();
+
+        // The same file again changes nothing
+        importCsv("movies", 10, file)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.moviesCreated").value(0))
+                .andExpect(jsonPath("$.moviesUpdated").value(0))
+                .andExpect(jsonPath("$.moviesUnchanged").value(2))
+                .andExpect(jsonPath("$.actorsCreated").value(0));
+        assertThat(movieCount()).isEqualTo(moviesAfterFirstRun);
+
+        long leadId = actorId(lead);
+        long droppedId = actorId(dropped);
+        String listing = mockMvc.perform(get("/api/movies?actor=" + droppedId))
+                .andReturn().getResponse().getContentAsString();
+        long movieId = ((Number) JsonPath.read(listing, "$.content[0].id")).longValue();
+        // Cached before the update
+        mockMvc.perform(get("/api/movies/" + movieId)).andExpect(jsonPath("$.duration").value(100));
+
+        // A longer cut with a changed cast updates the stored movie
+        importCsv("movies", 10, String.join("\n",
+                "Sync One " + n + ",2011,105," + genre + "," + lead + "|" + joined,
+                "Sync Two " + n + ",2012,110," + genre + "," + lead))
+                .andExpect(jsonPath("$.moviesCreated").value(0))
+                .andExpect(jsonPath("$.moviesUpdated").value(1))
+                .andExpect(jsonPath("$.moviesUnchanged").value(1))
+                .andExpect(jsonPath("$.actorsCreated").value(1));
+        assertThat(movieCount()).isEqualTo(moviesAfterFirstRun);
+
+        long joinedId = actorId(joined);
+        mockMvc.perform(get("/api/movies/" + movieId))
+                .andExpect(jsonPath("$.duration").value(105))
+                .andExpect(jsonPath("$.actors.length()").value(2))
+                .andExpect(jsonPath("$.actors[1].id").value(joinedId));
+        mockMvc.perform(get("/api/stats/actors/" + droppedId)).andExpect(jsonPath("$.movies").value(0));
+        mockMvc.perform(get("/api/stats/actors/" + joinedId)).andExpect(jsonPath("$.movies").value(1));
+        mockMvc.perform(get("/api/stats/actors/" + leadId)).andExpect(jsonPath("$.movies").value(2));
+        mockMvc.perform(get("/api/movies?actor=" + droppedId)).andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/movies?actor=" + joinedId + "&minDuration=105&maxDuration=105"))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(movieId));
+    }
+
+    @Test
+    void aMovieListedTwiceInOneBatchIsWrittenOnce() throws Exception {
+        long n = System.nanoTime();
+        String genre = "Twice " + n;
+        long moviesBefore = movieCount();
+
+        importCsv("movies", 10, String.join("\n",
+                "Twice " + n + ",2020,90," + genre,
+                "Twice " + n + ",2020,95," + genre))
+                .andExpect(jsonPath("$.moviesCreated").value(1))
+                .andExpect(jsonPath("$.moviesUpdated").value(1));
+
+        assertThat(movieCount()).isEqualTo(moviesBefore + 1);
+        String stats = mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString();
+        List<Number> genreIds = JsonPath.read(stats, "$.genres[?(@.name == '" + genre + "')].genreId");
+        assertThat(JsonPath.<List<Number>>read(stats, "$.genres[?(@.name == '" + genre + "')].movies"))
+                .containsExactly(1);
+        String listing = mockMvc.perform(get("/api/movies?genre=" + genreIds.get(0)))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(JsonPath.<Integer>read(listing, "$.content[0].duration")).isEqualTo(95);
+    }
+
+    @Test
+    void rejectsAnUnknownTypeOrBatchSize() throws Exception {
+        long moviesBefore = movieCount();
+        importCsv("posters", null, "Whatever,2000,90").andExpect(status().isBadRequest());
+        importCsv("movies", 0, "Whatever,2000,90").andExpect(status().isBadRequest());
+        // Nothing was written
+        assertThat(movieCount()).isEqualTo(moviesBefore);
+    }
+
+    private ResultActions importCsv(String type, Integer batchSize, String body) throws Exception {
+        var request = post("/api/import").param("type", type).contentType("text/csv").content(body);
+        if (batchSize != null) {
+            request.param("batchSize", batchSize.toString());
+        }
+        return mockMvc.perform(request);
+    }
+
+    private long movieCount() throws Exception {
+        String stats = mockMvc.perform(get("/api/stats")).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(stats, "$.movies")).longValue();
+    }
+
+    private long actorId(String name) throws Exception {
+        String json = mockMvc.perform(get("/api/actors").param("name", name))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$[0].id")).longValue();
+    }
+}
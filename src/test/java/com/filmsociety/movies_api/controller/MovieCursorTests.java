@@ -0,0 +1,139 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+// Cursor mode of GET /api/movies: following nextCursor visits every movie once, in the offset listing's order
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/cursor-test.db")
+@AutoConfigureMockMvc
+class MovieCursorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void followingTheCursorVisitsEveryMovieOnce() throws Exception {
+        long genre = createGenre();
+        // Ties on every sort key, so the id tiebreaker decides where windows split
+        createMovie("Beta", 2001, 120, genre);
+        createMovie("Alpha", 2001, 90, genre);
+        createMovie("Beta", 1999, 90, genre);
+        createMovie("Gamma", 2005, 120, genre);
+        createMovie("Alpha", 1999, 150, genre);
+        createMovie("Beta", 2001, 90, genre);
+        createMovie("Delta", 2010, 100, genre);
+
+        for (String sort : List.of("id", "id,desc", "title", "title,desc", "releaseYear", "releaseYear,desc",
+                "duration", "duration,desc")) {
+            List<Long> walked = walk("genre=" + genre + "&sort=" + sort, 2);
+            assertThat(walked).as(sort).doesNotHaveDuplicates().containsExactlyElementsOf(
+                    offsetListing("genre=" + genre + "&sort=" + sort));
+            assertThat(walked).as(sort).hasSize(7);
+        }
+    }
+
+    @Test
+    void theLastWindowHasNoNextCursor() throws Exception {
+        long genre = createGenre();
+        createMovie("One", 2000, 100, genre);
+        createMovie("Two", 2000, 100, genre);
+        createMovie("Three", 2000, 100, genre);
+
+        String json = mockMvc.perform(get("/api/movies?after=&size=2&genre=" + genre))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/movies?size=2&genre=" + genre).param("after", (String) JsonPath.read(json, "$.nextCursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void aCursorThatWasNotIssuedIsRejected() throws Exception {
+        assertRejected("id", "not a cursor!");
+        assertRejected("id", encode("m1:id:a:1:"));
+        assertRejected("id", encode("m2:id:a:x:"));
+        assertRejected("title", encode("m2:title:a:1"));
+        assertRejected("releaseYear", encode("m2:releaseYear:a:1:soon"));
+    }
+
+    @Test
+    void aCursorOnlyContinuesTheSortItWasIssuedFor() throws Exception {
+        String json = mockMvc.perform(get("/api/movies?after=&size=1&sort=title"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/movies?sort=duration").param("after", (String) JsonPath.read(json, "$.nextCursor")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor was issued for sort=title,asc, not sort=duration,asc"));
+    }
+
+    private List<Long> walk(String query, int size) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String after = "";
+        boolean hasNext = true;
+        while (hasNext) {
+            String json = mockMvc.perform(get("/api/movies?fields=id&size=" + size + "&" + query).param("after", after))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            List<Number> page = JsonPath.read(json, "$.content[*].id");
+            page.forEach(id -> ids.add(id.longValue()));
+            hasNext = JsonPath.read(json, "$.hasNext");
+            after = JsonPath.read(json, "$.nextCursor");
+            assertThat(ids.size()).as("walk did not end").isLessThan(100);
+        }
+        return ids;
+    }
+
+    private List<Long> offsetListing(String query) throws Exception {
+        String json = mockMvc.perform(get("/api/movies?fields=id&size=100&" + query))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(json, "$.content[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private void assertRejected(String sort, String cursor) throws Exception {
+        mockMvc.perform(get("/api/movies").param("sort", sort).param("after", cursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long createGenre() throws Exception {
+        return create("/api/genres", "{\"name\": \"Cursor " + System.nanoTime() + "\"}");
+    }
+
+    private void createMovie(String title, int year, int duration, long genre) throws Exception {
+        create("/api/movies", "{\"title\": \"" + title + "\", \"releaseYear\": " + year + ", \"duration\": " + duration
+                + ", \"genres\": [{\"id\": " + genre + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}
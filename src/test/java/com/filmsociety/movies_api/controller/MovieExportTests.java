@@ -0,0 +1,88 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.jayway.jsonpath.JsonPath;
+
+// GET /api/movies/export/csv: every movie once, in id order, across keyset pages; quoted fields; gzip
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/export-test.db",
+        // Several pages for a handful of movies
+        "app.export.page-size=2"
+})
+@AutoConfigureMockMvc
+class MovieExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exportsEveryMovieOnceWithQuotedFields() throws Exception {
+        long n = System.nanoTime();
+        long genre = create("/api/genres", "{\"name\": \"Export " + n + "\"}");
+        long actor = create("/api/actors", "{\"name\": \"Export Actor " + n + "\"}");
+        long quoted = create("/api/movies", "{\"title\": \"Say \\\"Cheese\\\", Please " + n + "\", \"releaseYear\": 1999, "
+                + "\"duration\": 101, \"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}");
+        long bare = create("/api/movies", "{\"title\": \"Bare " + n + "\", \"releaseYear\": 2000, \"duration\": 90}");
+        for (int i = 0; i < 3; i++) {
+            create("/api/movies", "{\"title\": \"Filler " + n + "\", \"releaseYear\": 2001, \"duration\": 80}");
+        }
+
+        String csv = new String(export(false, "text/csv"), StandardCharsets.UTF_8);
+        String[] lines = csv.split("\n");
+        assertThat(lines[0]).isEqualTo("ID,Title,ReleaseYear,Duration,Genres,Actors");
+        assertThat(csv).contains("\n" + quoted + ",\"Say \"\"Cheese\"\", Please " + n + "\",1999,101,\"Export " + n
+                + "\",\"Export Actor " + n + "\"\n");
+        assertThat(csv).contains("\n" + bare + ",\"Bare " + n + "\",2000,90,\"\",\"\"\n");
+
+        // Pages join up with nothing repeated or missing
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            ids.add(Long.parseLong(lines[i].substring(0, lines[i].indexOf(','))));
+        }
+        assertThat(ids).isSorted().doesNotHaveDuplicates().contains(quoted, bare);
+        String total = mockMvc.perform(get("/api/movies?size=1")).andReturn().getResponse().getContentAsString();
+        assertThat(ids).hasSize(((Number) JsonPath.read(total, "$.totalElements")).intValue());
+
+        // Same bytes once inflated
+        byte[] gzipped = export(true, "application/gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csv);
+        }
+    }
+
+    private byte[] export(boolean gzip, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/movies/export/csv").param("gzip", Boolean.toString(gzip)))
+                .andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}
@@ -0,0 +1,120 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Listings answered by the bitmap filter index: same pages as SQL, kept current by every write
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/filter-index-test.db",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class MovieFilterIndexTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void filterCombinationsSortsAndPagesFollowEveryWrite() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Filter Index " + System.nanoTime() + "\"}");
+        long a = createActor();
+        long b = createActor();
+        long m1 = createMovie(1990, 100, genre, a);
+        long m2 = createMovie(2000, 120, genre, b);
+        long m3 = createMovie(2010, 90, genre, a);
+        long m4 = createMovie(2000, 150, genre, b);
+
+        // Ties on the sort key are broken by the id, ascending
+        assertIds("genre=" + genre + "&sort=releaseYear,desc", m3, m2, m4, m1);
+        assertIds("genre=" + genre + "&actor=" + a, m1, m3);
+        assertIds("genre=" + genre + "&yearFrom=1995&maxDuration=130", m2, m3);
+        mockMvc.perform(get("/api/movies?genre=" + genre + "&sort=duration&size=2&page=1&fields=id"))
+                .andExpect(jsonPath("$.content[0].id").value(m2))
+                .andExpect(jsonPath("$.content[1].id").value(m4))
+                .andExpect(jsonPath("$.totalElements").value(4));
+
+        mockMvc.perform(json(patch("/api/movies/" + m1), "{\"releaseYear\": 2020}")).andExpect(status().isOk());
+        assertIds("genre=" + genre + "&year=2020", m1);
+        assertIds("genre=" + genre + "&yearTo=1999");
+
+        mockMvc.perform(json(patch("/api/movies/" + m4 + "/actors/add"), "[{\"id\": " + a + "}]")).andExpect(status().isOk());
+        assertIds("genre=" + genre + "&actor=" + a, m1, m3, m4);
+
+        mockMvc.perform(delete("/api/movies/" + m3)).andExpect(status().isNoContent());
+        assertIds("genre=" + genre + "&actor=" + a + "&sort=id,desc", m4, m1);
+    }
+
+    @Test
+    void indexedListingsOnlyLoadThePage() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Filter Index " + System.nanoTime() + "\"}");
+        long actor = createActor();
+        createMovie(2001, 100, genre, actor);
+        createMovie(2002, 100, genre, actor);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/movies?genre=" + genre + "&fields=id,title"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        // The page's rows by id; matching and counting happened in memory
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/movies?genre=" + genre + "&fields=id,title&sort=title&size=1"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        // Title order stays in SQL: the page, then its count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private void assertIds(String query, long... expected) throws Exception {
+        String json = mockMvc.perform(get("/api/movies?fields=id&" + query))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(json, "$.content[*].id");
+        assertThat(ids.stream().map(Number::longValue).toList())
+                .containsExactly(Arrays.stream(expected).boxed().toArray(Long[]::new));
+        assertThat(((Number) JsonPath.read(json, "$.totalElements")).longValue()).isEqualTo(expected.length);
+    }
+
+    private long createActor() throws Exception {
+        return create("/api/actors", "{\"name\": \"Filter Index Actor " + System.nanoTime() + "\"}");
+    }
+
+    private long createMovie(int year, int duration, long genre, long actor) throws Exception {
+        return create("/api/movies", "{\"title\": \"Filter Index " + System.nanoTime() + "\", \"releaseYear\": " + year
+                + ", \"duration\": " + duration + ", \"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
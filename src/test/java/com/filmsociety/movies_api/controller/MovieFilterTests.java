@@ -0,0 +1,125 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+// GET /api/movies filtered and sorted by SQLite (the filter index is off): every given filter applies
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/filter-test.db",
+        "app.filter-index.enabled=false"
+})
+@AutoConfigureMockMvc
+class MovieFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void allFiltersCombineUnderEverySort() throws Exception {
+        long genre = createGenre();
+        long otherGenre = createGenre();
+        long actor = createActor();
+        long otherActor = createActor();
+        long m1 = createMovie("Cobalt", 2000, 100, genre, actor);
+        long m2 = createMovie("Amber", 2005, 120, genre, actor);
+        // Bounds are inclusive
+        long m3 = createMovie("Birch", 2000, 90, genre, actor);
+        long m4 = createMovie("Amber", 2010, 130, genre, actor);
+        // Each misses exactly one filter
+        createMovie("Amber", 1994, 100, genre, actor);
+        createMovie("Amber", 2011, 100, genre, actor);
+        createMovie("Amber", 2000, 89, genre, actor);
+        createMovie("Amber", 2000, 131, genre, actor);
+        createMovie("Amber", 2000, 100, genre, otherActor);
+        createMovie("Amber", 2000, 100, otherGenre, actor);
+
+        String filters = "genre=%d&actor=%d&yearFrom=1995&yearTo=2010&minDuration=90&maxDuration=130"
+                .formatted(genre, actor);
+        // Ties on the sort key are broken by the id, ascending, in both directions
+        assertListing(filters, "id", m1, m2, m3, m4);
+        assertListing(filters, "id,desc", m4, m3, m2, m1);
+        assertListing(filters, "title", m2, m4, m3, m1);
+        assertListing(filters, "title,desc", m1, m3, m2, m4);
+        assertListing(filters, "releaseYear", m1, m3, m2, m4);
+        assertListing(filters, "releaseYear,desc", m4, m2, m1, m3);
+        assertListing(filters, "duration", m3, m1, m2, m4);
+        assertListing(filters, "duration,desc", m4, m2, m1, m3);
+    }
+
+    @Test
+    void aSingleYearNarrowsTheOtherFilters() throws Exception {
+        long genre = createGenre();
+        long actor = createActor();
+        long m1 = createMovie("Year", 2003, 100, genre, actor);
+        createMovie("Year", 2004, 100, genre, actor);
+        createMovie("Year", 2003, 200, genre, actor);
+
+        assertListing("genre=%d&actor=%d&year=2003&maxDuration=150".formatted(genre, actor), "title", m1);
+    }
+
+    @Test
+    void anUnknownSortIsRejected() throws Exception {
+        mockMvc.perform(get("/api/movies?sort=rating"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    // The offset page and the cursor walk both give exactly these ids, in this order
+    private void assertListing(String filters, String sort, long... expected) throws Exception {
+        List<Long> ids = Arrays.stream(expected).boxed().toList();
+        String json = mockMvc.perform(get("/api/movies?fields=id&size=50&sort=" + sort + "&" + filters))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(ids(json)).as(sort).containsExactlyElementsOf(ids);
+        assertThat(((Number) JsonPath.read(json, "$.totalElements")).longValue()).isEqualTo(expected.length);
+
+        List<Long> walked = new ArrayList<>();
+        String after = "";
+        while (after != null) {
+            json = mockMvc.perform(get("/api/movies?fields=id&size=3&sort=" + sort + "&" + filters).param("after", after))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            walked.addAll(ids(json));
+            after = JsonPath.read(json, "$.nextCursor");
+        }
+        assertThat(walked).as(sort + " cursor").containsExactlyElementsOf(ids);
+    }
+
+    private static List<Long> ids(String json) {
+        List<Number> ids = JsonPath.read(json, "$.content[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private long createGenre() throws Exception {
+        return create("/api/genres", "{\"name\": \"Filter " + System.nanoTime() + "\"}");
+    }
+
+    private long createActor() throws Exception {
+        return create("/api/actors", "{\"name\": \"Filter Actor " + System.nanoTime() + "\"}");
+    }
+
+    private long createMovie(String title, int year, int duration, long genre, long actor) throws Exception {
+        return create("/api/movies", "{\"title\": \"" + title + "\", \"releaseYear\": " + year + ", \"duration\": "
+                + duration + ", \"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}
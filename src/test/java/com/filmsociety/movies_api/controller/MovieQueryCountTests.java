@@ -0,0 +1,93 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Guards against N+1 lazy loading: a page of movies must be served with a
+// constant number of statements (id page, count, genres, actors), whatever its size, and a single
+// movie with one statement per collection.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/query-count-test.db",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class MovieQueryCountTests {
+
+    private static final long MAX_STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/movies?size=5",
+            "/api/movies?size=50",
+            "/api/movies?genre=1&size=50",
+            "/api/movies?year=2010&size=50",
+            "/api/movies?actor=1&size=50"
+    })
+    void pagedListingUsesConstantStatementCount(String url) throws Exception {
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void singleMovieIsLoadedWithOneStatementPerCollection() throws Exception {
+        long n = System.nanoTime();
+        long g1 = create("/api/genres", "{\"name\": \"Query Count A " + n + "\"}");
+        long g2 = create("/api/genres", "{\"name\": \"Query Count B " + n + "\"}");
+        StringBuilder actors = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            actors.append(i == 0 ? "" : ", ").append("{\"id\": ")
+                    .append(create("/api/actors", "{\"name\": \"Query Count Actor " + i + " " + n + "\"}")).append('}');
+        }
+        long movie = create("/api/movies", "{\"title\": \"Query Count " + n + "\", \"releaseYear\": 2010, \"duration\": 100, "
+                + "\"genres\": [{\"id\": " + g1 + "}, {\"id\": " + g2 + "}], \"actors\": [" + actors + "]}");
+        statistics.clear();
+
+        // Genres and actors in a query each: no genres x actors rows, no repeated entries
+        mockMvc.perform(get("/api/movies/" + movie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genres.length()").value(2))
+                .andExpect(jsonPath("$.actors.length()").value(3));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}
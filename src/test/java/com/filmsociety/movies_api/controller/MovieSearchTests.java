@@ -0,0 +1,96 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+// GET /api/movies/search: FTS5 prefix terms that must all match, best BM25 match first, as a Page
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/search-test.db")
+@AutoConfigureMockMvc
+class MovieSearchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void everyWordIsAPrefixAndAllMustMatch() throws Exception {
+        // A word no other run has written, so only this run's movies can match
+        String word = "srch" + System.nanoTime() + "x";
+        String harbor = create(word + " Harbor");
+        String nights = create("Harbor Nights of " + word);
+        String alone = create(word + " Alone");
+
+        assertThat(titles(word.substring(0, word.length() - 2))).containsExactlyInAnyOrder(harbor, nights, alone);
+        // Both words, in any order, each as a prefix
+        assertThat(titles("harb " + word)).containsExactlyInAnyOrder(harbor, nights);
+        assertThat(titles(word + " nigh")).containsExactly(nights);
+        // Punctuation separates words rather than being read as FTS5 syntax
+        assertThat(titles(word + " -\"alone\"")).containsExactly(alone);
+        assertThat(titles(word + " missing")).isEmpty();
+    }
+
+    @Test
+    void bestMatchComesFirst() throws Exception {
+        String word = "rank" + System.nanoTime() + "x";
+        String diluted = create("The Long Winter Road Home Of " + word);
+        String repeated = create(word + " " + word);
+        String plain = create(word + " Story");
+
+        // BM25: the term twice beats once, and a short title beats a long one
+        assertThat(titles(word)).containsExactly(repeated, plain, diluted);
+    }
+
+    @Test
+    void resultsArePaged() throws Exception {
+        String word = "page" + System.nanoTime() + "x";
+        for (int i = 0; i < 3; i++) {
+            create(word + " Part " + i);
+        }
+
+        mockMvc.perform(get("/api/movies/search").param("title", word).param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].genres").isArray())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.number").value(1))
+                .andExpect(jsonPath("$.size").value(2));
+        mockMvc.perform(get("/api/movies/search").param("title", word).param("fields", "id,title"))
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].title").exists())
+                .andExpect(jsonPath("$.content[0].duration").doesNotExist());
+    }
+
+    @Test
+    void aQueryWithoutWordsIsRejected() throws Exception {
+        mockMvc.perform(get("/api/movies/search").param("title", " *\" "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    private List<String> titles(String query) throws Exception {
+        String json = mockMvc.perform(get("/api/movies/search").param("title", query).param("size", "50"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return JsonPath.read(json, "$.content[*].title");
+    }
+
+    private String create(String title) throws Exception {
+        mockMvc.perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"" + title + "\", \"releaseYear\": 2000, \"duration\": 90}"))
+                .andExpect(status().isCreated());
+        return title;
+    }
+}
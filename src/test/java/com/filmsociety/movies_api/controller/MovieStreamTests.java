@@ -0,0 +1,99 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+
+// GET /api/movies/stream: a full sync, then only what changed since its token
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/stream-test.db",
+        // Several pages for a handful of movies
+        "app.stream.page-size=2"
+})
+@AutoConfigureMockMvc
+class MovieStreamTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void resumesWithTheChangesAfterTheToken() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Stream " + System.nanoTime() + "\"}");
+        long actor = create("/api/actors", "{\"name\": \"Stream Actor " + System.nanoTime() + "\", \"birthDate\": \"1970-01-02\"}");
+        long kept = create("/api/movies", "{\"title\": \"Kept\", \"releaseYear\": 1999, \"duration\": 120, "
+                + "\"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}");
+        long removed = create("/api/movies", "{\"title\": \"Removed\", \"releaseYear\": 2001, \"duration\": 90}");
+
+        List<JsonNode> full = stream(null);
+        JsonNode movie = full.stream().filter(line -> line.path("id").asLong() == kept).findFirst().orElseThrow();
+        assertThat(movie.get("op").asText()).isEqualTo("upsert");
+        assertThat(movie.at("/movie/genres/0/id").asLong()).isEqualTo(genre);
+        assertThat(movie.at("/movie/actors/0/birthDate").asText()).isEqualTo("1970-01-02");
+        JsonNode end = full.get(full.size() - 1);
+        assertThat(end.get("op").asText()).isEqualTo("end");
+        // Lines come in version order
+        assertThat(full.subList(0, full.size() - 1)).extracting(line -> line.get("version").asLong()).isSorted();
+
+        mockMvc.perform(patch("/api/movies/" + kept).contentType(MediaType.APPLICATION_JSON).content("{\"title\": \"Renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/movies/" + removed)).andExpect(status().isNoContent());
+
+        List<JsonNode> changes = stream(end.get("since").asText());
+        assertThat(changes).extracting(line -> line.get("op").asText()).containsExactly("upsert", "delete", "end");
+        assertThat(changes.get(0).at("/movie/title").asText()).isEqualTo("Renamed");
+        assertThat(changes.get(1).get("id").asLong()).isEqualTo(removed);
+
+        // Resuming from the last line: nothing new, same token
+        List<JsonNode> none = stream(changes.get(2).get("since").asText());
+        assertThat(none).hasSize(1);
+        assertThat(none.get(0).get("since")).isEqualTo(changes.get(2).get("since"));
+    }
+
+    @Test
+    void rejectsAMalformedToken() throws Exception {
+        mockMvc.perform(get("/api/movies/stream").param("since", "not-a-token")).andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> stream(String since) throws Exception {
+        MvcResult started = mockMvc.perform(since == null ? get("/api/movies/stream") : get("/api/movies/stream").param("since", since))
+                .andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}
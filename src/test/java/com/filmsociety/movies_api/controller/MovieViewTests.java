@@ -0,0 +1,85 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.filmsociety.movies_api.service.MovieViewService;
+import com.jayway.jsonpath.JsonPath;
+
+// View counters: nothing is written until the flush, which stores totals and feeds /trending
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/views-test.db",
+        "app.views.flush-interval=1h"
+})
+@AutoConfigureMockMvc
+class MovieViewTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MovieViewService viewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void viewsAreFlushedInBatchesAndRankTrendingMovies() throws Exception {
+        long rare = createMovie();
+        long popular = createMovie();
+        long middle = createMovie();
+        view(rare, 1);
+        view(popular, 5);
+        view(middle, 3);
+        mockMvc.perform(get("/api/movies/999999991")).andExpect(status().isNotFound());
+
+        assertThat(views(popular)).isNull();
+        viewService.flush();
+        assertThat(views(popular)).isEqualTo(5);
+        assertThat(views(999999991)).isNull();
+
+        view(rare, 1);
+        viewService.flush();
+        assertThat(views(rare)).isEqualTo(2);
+        assertThat(views(middle)).isEqualTo(3);
+
+        // Earlier runs may have left movies in the ranking; only the order of these matters
+        String json = mockMvc.perform(get("/api/movies/trending?limit=100"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Number> ids = JsonPath.read(json, "$[*].movieId");
+        assertThat(ids.stream().map(Number::longValue).filter(id -> id == rare || id == popular || id == middle))
+                .containsExactly(popular, middle, rare);
+
+        mockMvc.perform(get("/api/movies/trending?limit=0")).andExpect(status().isBadRequest());
+    }
+
+    private void view(long movie, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            mockMvc.perform(get("/api/movies/" + movie)).andExpect(status().isOk());
+        }
+    }
+
+    private Long views(long movie) {
+        return jdbcTemplate.query("SELECT views FROM movie_stats WHERE movie_id = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, movie);
+    }
+
+    private long createMovie() throws Exception {
+        String json = mockMvc.perform(post("/api/movies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Viewed " + System.nanoTime() + "\", \"releaseYear\": 2001, \"duration\": 90}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}
@@ -0,0 +1,108 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Lookups by id list: requested order, unknown ids reported inline, constant statement count
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/multi-get-test.db",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class MultiGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void moviesComeBackInTheRequestedOrderWithMissingIdsListed() throws Exception {
+        long actor = createActor();
+        long m1 = createMovie(actor);
+        long m2 = createMovie(actor);
+        long m3 = createMovie(actor);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/movies?ids=%d,999999991,%d,%d,%d".formatted(m3, m1, m2, m3)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].id").value(m3))
+                .andExpect(jsonPath("$.items[1].id").value(m1))
+                .andExpect(jsonPath("$.items[2].id").value(m2))
+                .andExpect(jsonPath("$.items[2].actors[0].id").value(actor))
+                .andExpect(jsonPath("$.missing[0]").value(999999991));
+
+        // Movies, genres, actors: the same for 3 ids or 1000
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void actorsCanBePostedAsAnIdArray() throws Exception {
+        long a1 = createActor();
+        long a2 = createActor();
+
+        mockMvc.perform(json(post("/api/actors/batch?fields=id"), "[%d, %d, 999999992]".formatted(a2, a1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(a2))
+                .andExpect(jsonPath("$.items[1].id").value(a1))
+                .andExpect(jsonPath("$.items[1].name").doesNotExist())
+                .andExpect(jsonPath("$.missing[0]").value(999999992));
+    }
+
+    @Test
+    void emptyOrOversizedIdListsAreRejected() throws Exception {
+        String tooMany = LongStream.rangeClosed(1, 1001).mapToObj(Long::toString).collect(Collectors.joining(",", "[", "]"));
+        mockMvc.perform(json(post("/api/movies/batch"), tooMany)).andExpect(status().isBadRequest());
+        mockMvc.perform(json(post("/api/movies/batch"), "[]")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/actors?ids=1,x")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void idsCannotBeCombinedWithACursor() throws Exception {
+        mockMvc.perform(get("/api/movies?ids=1,2&after="))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("ids and after cannot be combined"));
+    }
+
+    private long createActor() throws Exception {
+        return create("/api/actors", "{\"name\": \"Multi Get Actor " + System.nanoTime() + "\"}");
+    }
+
+    private long createMovie(long actor) throws Exception {
+        return create("/api/movies", "{\"title\": \"Multi Get " + System.nanoTime() + "\", \"releaseYear\": 2020, "
+                + "\"duration\": 100, \"actors\": [{\"id\": " + actor + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
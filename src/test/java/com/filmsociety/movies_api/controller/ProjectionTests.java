@@ -0,0 +1,138 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// ?fields= and ?include= on listings: only the selected properties are written,
+// and relations that aren't included are never queried
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/projection-test.db",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class ProjectionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void fieldsAloneAreOneNarrowQuery() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Projection Test " + System.nanoTime() + "\"}");
+        long actor = createActor("Projection Test Actor " + System.nanoTime());
+        createMovie(genre, actor);
+        createMovie(genre, actor);
+        statistics.clear();
+
+        mockMvc.perform(get("/api/movies?genre=" + genre + "&size=1&fields=title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").exists())
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].genres").doesNotExist())
+                .andExpect(jsonPath("$.content[0].actors").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        // The page's rows (picked and counted by the filter index): no genres, no actors, no entities
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void includeLoadsOnlyTheNamedRelations() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Projection Test " + System.nanoTime() + "\"}");
+        long actor = createActor("Projection Test Actor " + System.nanoTime());
+        long movie = createMovie(genre, actor);
+
+        mockMvc.perform(get("/api/movies?genre=" + genre + "&fields=id&include=genres"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(movie))
+                .andExpect(jsonPath("$.content[0].title").doesNotExist())
+                .andExpect(jsonPath("$.content[0].genres[0].id").value(genre))
+                .andExpect(jsonPath("$.content[0].actors").doesNotExist());
+
+        // No parameters: the full representation, as before
+        mockMvc.perform(get("/api/movies?genre=" + genre))
+                .andExpect(jsonPath("$.content[0].title").exists())
+                .andExpect(jsonPath("$.content[0].genres[0].id").value(genre))
+                .andExpect(jsonPath("$.content[0].actors[0].id").value(actor));
+
+        mockMvc.perform(get("/api/movies?fields=rating")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/movies?include=movies")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void actorsCarryTheirFilmographyOnlyWhenIncluded() throws Exception {
+        String name = "Projection Actor " + System.nanoTime();
+        long actor = createActor(name);
+        long movie = createMovie(0, actor);
+
+        mockMvc.perform(get("/api/actors").param("name", name).param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(name))
+                .andExpect(jsonPath("$[0].birthDate").doesNotExist())
+                .andExpect(jsonPath("$[0].movies").doesNotExist());
+
+        mockMvc.perform(get("/api/actors").param("name", name))
+                .andExpect(jsonPath("$[0].id").value(actor))
+                .andExpect(jsonPath("$[0].movies[0].id").value(movie))
+                .andExpect(jsonPath("$[0].movies[0].actors[0].id").value(actor));
+
+        mockMvc.perform(get("/api/genres?fields=name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").exists())
+                .andExpect(jsonPath("$[0].movies").doesNotExist());
+
+        // Actors written on their own never drag their movies along
+        mockMvc.perform(get("/api/movies/" + movie + "/actors"))
+                .andExpect(jsonPath("$[0].id").value(actor))
+                .andExpect(jsonPath("$[0].movies").doesNotExist());
+    }
+
+    private long createActor(String name) throws Exception {
+        return create("/api/actors", "{\"name\": \"" + name + "\"}");
+    }
+
+    // genre 0 = none
+    private long createMovie(long genre, long actor) throws Exception {
+        String genres = genre == 0 ? "[]" : "[{\"id\": " + genre + "}]";
+        return create("/api/movies", "{\"title\": \"Projection Test " + System.nanoTime() + "\", \"releaseYear\": 2020, "
+                + "\"duration\": 100, \"genres\": " + genres + ", \"actors\": [{\"id\": " + actor + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(json(post(path), body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
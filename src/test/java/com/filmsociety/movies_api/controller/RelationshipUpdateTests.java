@@ -0,0 +1,133 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+// Relationship edits check every id up front and only touch the join rows that change
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/relationship-test.db")
+@AutoConfigureMockMvc
+class RelationshipUpdateTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void bulkCastEditAppliesEveryChange() throws Exception {
+        long a1 = createActor();
+        long a2 = createActor();
+        long a3 = createActor();
+        long m1 = createMovie();
+        long m2 = createMovie();
+
+        mockMvc.perform(json(patch("/api/movies/cast"), "[{\"movieId\": %d, \"set\": [%d, %d]}, {\"movieId\": %d, \"add\": [%d]}]"
+                        .formatted(m1, a1, a2, m2, a3)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.movies").value(2))
+                .andExpect(jsonPath("$.linksAdded").value(3));
+
+        mockMvc.perform(json(patch("/api/movies/cast"), "[{\"movieId\": %d, \"add\": [%d], \"remove\": [%d]}]"
+                        .formatted(m1, a3, a1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linksAdded").value(1))
+                .andExpect(jsonPath("$.linksRemoved").value(1));
+
+        assertThat(actorIdsOf(m1)).containsExactlyInAnyOrder(a2, a3);
+        assertThat(actorIdsOf(m2)).containsExactly(a3);
+    }
+
+    @Test
+    void unknownIdsAreReportedTogetherAndNothingIsWritten() throws Exception {
+        long actor = createActor();
+        long movie = createMovie();
+
+        mockMvc.perform(json(patch("/api/movies/cast"), "[{\"movieId\": %d, \"add\": [%d]}, {\"movieId\": 999999991, \"add\": [999999992, 999999993]}]"
+                        .formatted(movie, actor)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(Matchers.allOf(
+                        Matchers.containsString("999999991"),
+                        Matchers.containsString("999999992"),
+                        Matchers.containsString("999999993"))));
+
+        assertThat(actorIdsOf(movie)).isEmpty();
+    }
+
+    @Test
+    void addingActorsKeepsTheExistingCast() throws Exception {
+        long a1 = createActor();
+        long a2 = createActor();
+        long movie = createMovie();
+
+        mockMvc.perform(json(patch("/api/movies/" + movie + "/actors/add"), "[{\"id\": %d}]".formatted(a1)))
+                .andExpect(status().isOk());
+        mockMvc.perform(json(patch("/api/movies/" + movie + "/actors/add"), "[{\"id\": %d}, {\"id\": %d}]".formatted(a1, a2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.actors.length()").value(2));
+    }
+
+    @Test
+    void replacingAnActorsMoviesUpdatesTheJoinTable() throws Exception {
+        long actor = createActor();
+        long m1 = createMovie();
+        long m2 = createMovie();
+
+        mockMvc.perform(json(put("/api/actors/" + actor + "/movies"), "[{\"id\": %d}, {\"id\": %d}]".formatted(m1, m2)))
+                .andExpect(status().isOk());
+        mockMvc.perform(json(put("/api/actors/" + actor + "/movies"), "[{\"id\": %d}]".formatted(m2)))
+                .andExpect(status().isOk());
+
+        assertThat(actorIdsOf(m1)).isEmpty();
+        assertThat(actorIdsOf(m2)).containsExactly(actor);
+    }
+
+    @Test
+    void updatingAMovieWithUnknownGenresFails() throws Exception {
+        long movie = createMovie();
+
+        mockMvc.perform(json(patch("/api/movies/" + movie), "{\"genres\": [{\"id\": 999999994}]}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value(Matchers.containsString("999999994")));
+    }
+
+    private long createActor() throws Exception {
+        return idOf(mockMvc.perform(json(post("/api/actors"), "{\"name\": \"Link Test Actor " + System.nanoTime() + "\"}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString());
+    }
+
+    private long createMovie() throws Exception {
+        return idOf(mockMvc.perform(json(post("/api/movies"),
+                        "{\"title\": \"Link Test " + System.nanoTime() + "\", \"releaseYear\": 2020, \"duration\": 100}"))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString());
+    }
+
+    private List<Long> actorIdsOf(long movieId) throws Exception {
+        List<Number> ids = JsonPath.read(mockMvc.perform(get("/api/movies/" + movieId)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), "$.actors[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private static long idOf(String json) {
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,75 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Per-request statement/entity counts, statement timings and the slow-query log
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/metrics-test.db",
+        // Log every statement as slow, to see the log line
+        "app.metrics.slow-query.info-threshold=0ms"
+})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class RequestMetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void requestRecordsStatementsAndEntitiesUnderItsRoute() throws Exception {
+        DistributionSummary statements = summary("http.server.requests.statements");
+        DistributionSummary entities = summary("http.server.requests.entities");
+        long before = statements.count();
+        long entitiesBefore = entities.count();
+        double entitiesTotalBefore = entities.totalAmount();
+
+        mockMvc.perform(get("/api/movies?size=20")).andExpect(status().isOk());
+
+        assertThat(statements.count()).isEqualTo(before + 1);
+        assertThat(statements.max()).isPositive();
+        // Listings are built from projections: statements, but not a single entity
+        assertThat(entities.count()).isEqualTo(entitiesBefore + 1);
+        assertThat(entities.totalAmount()).isEqualTo(entitiesTotalBefore);
+    }
+
+    @Test
+    void statementsAreTimedAndSlowOnesLogged(CapturedOutput output) throws Exception {
+        Timer timer = registry.get("jdbc.statements").tag("datasource", "dataSource").timer();
+        long before = timer.count();
+
+        mockMvc.perform(get("/api/movies/search?title=dark")).andExpect(status().isOk());
+
+        assertThat(timer.count()).isGreaterThan(before);
+        assertThat(output).contains("Slow query (").contains("movies_fts");
+    }
+
+    @Test
+    void poolAndHibernateMetricsAreBound() {
+        assertThat(registry.find("hikaricp.connections.acquire").timer()).isNotNull();
+        assertThat(registry.find("hibernate.sessions.open").meter()).isNotNull();
+    }
+
+    private DistributionSummary summary(String name) throws Exception {
+        // Registered on first use
+        mockMvc.perform(get("/api/movies?size=20")).andExpect(status().isOk());
+        return registry.get(name).tag("uri", "/api/movies").tag("method", "GET").summary();
+    }
+}
@@ -0,0 +1,125 @@
+package com.filmsociety.movies_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.jayway.jsonpath.JsonPath;
+
+// Accept-negotiated Smile, CBOR and protobuf bodies carry what the JSON carries
+@SpringBootTest(properties = "spring.datasource.url=jdbc:sqlite:target/formats-test.db")
+@AutoConfigureMockMvc
+class ResponseFormatTests {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void smileAndCborDecodeToTheJsonBody() throws Exception {
+        long movie = createMovie();
+        String path = "/api/movies/" + movie;
+        JsonNode json = new ObjectMapper().readTree(body(path, MediaType.APPLICATION_JSON));
+
+        assertThat(new SmileMapper().readTree(body(path, SMILE))).isEqualTo(json);
+        assertThat(new CBORMapper().readTree(body(path, CBOR))).isEqualTo(json);
+        assertThat(json.at("/actors/0/birthDate").asText()).isEqualTo("1970-01-02");
+
+        // Listings keep their ?fields= projection
+        JsonNode page = new SmileMapper().readTree(body("/api/movies?fields=id&size=1", SMILE));
+        assertThat(page.at("/content/0").size()).isEqualTo(1);
+    }
+
+    @Test
+    void protobufFollowsTheCatalogSchema() throws Exception {
+        long movie = createMovie();
+        NativeProtobufSchema schema;
+        try (InputStream proto = new ClassPathResource("proto/catalog.proto").getInputStream()) {
+            schema = ProtobufSchemaLoader.std.loadNative(proto, true);
+        }
+        ProtobufMapper mapper = new ProtobufMapper();
+
+        JsonNode one = mapper.readerFor(JsonNode.class).with(schema.forType("Movie"))
+                .readValue(body("/api/movies/" + movie, PROTOBUF));
+        assertThat(one.get("id").asLong()).isEqualTo(movie);
+        assertThat(one.at("/actors/0/birthDate").asText()).isEqualTo("1970-01-02");
+
+        JsonNode page = mapper.readerFor(JsonNode.class).with(schema.forType("MoviePage"))
+                .readValue(body("/api/movies?fields=id,title&sort=id,desc&size=1", PROTOBUF));
+        assertThat(page.at("/content/0/id").asLong()).isEqualTo(movie);
+        assertThat(page.at("/content/0/genres").isMissingNode()).isTrue();
+        assertThat(page.get("totalElements").asLong()).isGreaterThanOrEqualTo(1);
+
+        JsonNode multiGet = mapper.readerFor(JsonNode.class).with(schema.forType("Movies"))
+                .readValue(body("/api/movies?ids=" + movie + ",999999992", PROTOBUF));
+        assertThat(multiGet.at("/items/0/title").asText()).isEqualTo("Formats");
+        assertThat(multiGet.at("/missing/0").asLong()).isEqualTo(999999992);
+
+        JsonNode cast = mapper.readerFor(JsonNode.class).with(schema.forType("ActorRefs"))
+                .readValue(body("/api/movies/" + movie + "/actors", PROTOBUF));
+        assertThat(cast.get("items").size()).isEqualTo(1);
+
+        // No message for graph results; JSON is still the default
+        mockMvc.perform(get("/api/movies/" + movie + "/similar").accept(PROTOBUF)).andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/api/movies/" + movie)).andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    // Tomcat skips compressing responses of known length under server.compression.min-response-size
+    @Test
+    void smallResponsesAreSentWithTheirLength() throws Exception {
+        long movie = createMovie();
+        byte[] small = mockMvc.perform(get("/api/movies/" + movie))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, body("/api/movies/" + movie, MediaType.APPLICATION_JSON).length))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(small.length).isLessThan(2048);
+
+        mockMvc.perform(get("/api/movies?size=100&include=genres,actors"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    private byte[] body(String path, MediaType format) throws Exception {
+        return mockMvc.perform(get(path).accept(format))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(format))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private long createMovie() throws Exception {
+        long genre = create("/api/genres", "{\"name\": \"Formats " + System.nanoTime() + "\"}");
+        long actor = create("/api/actors", "{\"name\": \"Formats Actor " + System.nanoTime() + "\", \"birthDate\": \"1970-01-02\"}");
+        return create("/api/movies", "{\"title\": \"Formats\", \"releaseYear\": 1999, \"duration\": 120, "
+                + "\"genres\": [{\"id\": " + genre + "}], \"actors\": [{\"id\": " + actor + "}]}");
+    }
+
+    private long create(String path, String body) throws Exception {
+        String json = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(json, "$.id")).longValue();
+    }
+}